@@ -0,0 +1,336 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.StringTokenizer;
+import java.util.Vector;
+import java.util.regex.Pattern;
+
+/**
+ * Access, compiled access control of a server or virtual host from the
+ * section {@code [SERVER/VIRTUAL:X:ACC]}, in which the groups are configured
+ * with the users in the format {@code GROUP = user:password ...}. The users
+ * of the groups are compiled once into tables for Basic and Digest, so that
+ * the authentication of a request does not depend on the size of the groups.
+ * For Digest, the hashes HA1 of the users are also compiled for the realms of
+ * the references. Successfully verified credentials of Basic are held for a
+ * short time.
+ */
+class Access {
+
+    /** Maximum number of held credentials */
+    private static final int CAPACITY = 1024;
+
+    /** Time in milliseconds for which verified credentials are held */
+    private static final long EXPIRY = 30000;
+
+    /** Pattern of the option {@code [REALM:...]} */
+    private static final Pattern REALM = Pattern.compile("^(.*(\\[\\s*(?i)realm:([^\\[\\]]*?)\\s*\\]).*)|.*$");
+
+    /** Pattern of the option {@code [ACC:...]} */
+    private static final Pattern GROUP = Pattern.compile("\\[acc:([^\\[\\]]*?)\\]");
+
+    /** Pattern of the content outside of the options {@code [ACC:...]} */
+    private static final Pattern CONTENT = Pattern.compile("((((^|\01).*?)\00)|(\01.*$))|(^.*$)");
+
+    /** Pattern of the parameters of Digest */
+    private static final Pattern PARAMETER = Pattern.compile("(\\w+)\\s*=\\s*(?:(?:\"(.*?)\")|([^,]*))");
+
+    /** Pattern of the content outside of the parameters of Digest */
+    private static final Pattern PREFIX = Pattern.compile("[^\n]+\00");
+
+    /** Section of the access control */
+    private final Section section;
+
+    /** Captions of the realms of the references with Digest */
+    private final String[] realms;
+
+    /**
+     * Groups with the members as key as array of the members separated by
+     * spaces for Basic, the passwords of the users for Digest, the option
+     * whether the group is empty and the hashes HA1 of the users per realm
+     */
+    private final HashMap groups;
+
+    /** Verified credentials of Basic in the order of access */
+    private final LinkedHashMap credentials;
+
+    /**
+     * Constructor, compiles the groups of a section for the realms of the
+     * references.
+     * @param section    Section of the access control
+     * @param references Section of the references
+     */
+    Access(Section section, Section references) {
+
+        this.section     = section;
+        this.groups      = new HashMap();
+        this.credentials = new LinkedHashMap(16, 0.75f, true);
+
+        // the realms are determined from the references with Digest
+        HashSet realms = new HashSet();
+        Enumeration enumeration = references.elements();
+        while (enumeration.hasMoreElements()) {
+            String reference = references.get((String)enumeration.nextElement());
+            if (reference.toLowerCase().contains("[d]"))
+                realms.add(Access.realm(reference));
+        }
+        this.realms = (String[])realms.toArray(new String[0]);
+
+        this.groups.put("", this.compile(""));
+        enumeration = section.elements();
+        while (enumeration.hasMoreElements()) {
+            String members = section.get((String)enumeration.nextElement());
+            if (!this.groups.containsKey(members))
+                this.groups.put(members, this.compile(members));
+        }
+    }
+
+    /**
+     * Compiles the members of a group.
+     * @param  members Members of the group
+     * @return the group as array of the members separated by spaces, the
+     *     passwords of the users, the option whether the group is empty and
+     *     the hashes HA1 of the users per realm
+     */
+    private Object[] compile(String members) {
+
+        // Basic compares the credentials with the members separated by spaces
+        HashSet basic = new HashSet();
+        for (int cursor = 0; cursor >= 0;) {
+            int end = members.indexOf(' ', cursor);
+            basic.add(end < 0 ? members.substring(cursor) : members.substring(cursor, end));
+            cursor = end < 0 ? end : end +1;
+        }
+
+        // Digest determines the password for each user name that matches
+        // the beginning of a member up to a colon, also the member itself is
+        // a user name without password
+        HashMap digest = new HashMap();
+        StringTokenizer tokenizer = new StringTokenizer(members);
+        while (tokenizer.hasMoreTokens()) {
+            String member = tokenizer.nextToken();
+            for (int cursor = member.indexOf(':'); cursor >= 0; cursor = member.indexOf(':', cursor +1))
+                Access.register(digest, member.substring(0, cursor), member.substring(cursor +1));
+            Access.register(digest, member, "");
+        }
+
+        // the hashes HA1 of the users are compiled for the known realms,
+        // other realms are hashed with each request
+        HashMap hashes = new HashMap();
+        for (int loop = 0; loop < this.realms.length; loop++) {
+            HashMap users = new HashMap();
+            try {
+                Iterator iterator = digest.keySet().iterator();
+                while (iterator.hasNext()) {
+                    String user = (String)iterator.next();
+                    Enumeration enumeration = ((Vector)digest.get(user)).elements();
+                    while (enumeration.hasMoreElements())
+                        Access.register(users, user, Access.hash(user, this.realms[loop], (String)enumeration.nextElement()));
+                }
+            } catch (Throwable throwable) {
+                continue;
+            }
+            hashes.put(this.realms[loop], users);
+        }
+
+        return new Object[] {basic, digest, Boolean.valueOf(members.trim().length() <= 0), hashes};
+    }
+
+    /**
+     * Creates the hash HA1 of Digest.
+     * @param  user     User name
+     * @param  realm    Caption of the realm
+     * @param  password Password
+     * @return the hash HA1
+     * @throws Exception
+     *     In case of unexpected errors
+     */
+    private static String hash(String user, String realm, String password)
+            throws Exception {
+        return Worker.textHash(user.concat(":").concat(realm).concat(":").concat(password));
+    }
+
+    /**
+     * Registers the password of a user name.
+     * @param users    Passwords of the users
+     * @param user     User name
+     * @param password Password
+     */
+    private static void register(HashMap users, String user, String password) {
+        Vector passwords = (Vector)users.get(user);
+        if (passwords == null)
+            users.put(user, passwords = new Vector());
+        passwords.add(password);
+    }
+
+    /**
+     * Determines the compiled group.
+     * @param  group Name of the group
+     * @return the compiled group
+     */
+    private Object[] lookup(String group) {
+        String members = this.section.get(group);
+        if (members == null)
+            members = "";
+        Object[] entry = (Object[])this.groups.get(members);
+        return entry != null ? entry : this.compile(members);
+    }
+
+    /**
+     * Determines the caption of the realm from the option
+     * {@code [REALM:...]} of a reference, with escaped quotation marks.
+     * @param  reference Reference
+     * @return the caption of the realm, otherwise an empty string
+     */
+    static String realm(String reference) {
+        return Access.REALM.matcher(reference).replaceAll("$3").replace("\"", "\\\"");
+    }
+
+    /**
+     * Determines the groups from the options {@code [ACC:...]} of a
+     * reference.
+     * @param  reference Reference in lower case
+     * @return the groups separated by spaces
+     */
+    static String groups(String reference) {
+        String string = Access.GROUP.matcher(reference).replaceAll("\00$1\01");
+        return Access.CONTENT.matcher(string).replaceAll(" ").trim();
+    }
+
+    /**
+     * Determines the parameters from the header Authorization of Digest.
+     * @param  authorization Header Authorization
+     * @return the parameters as Section
+     */
+    static Section parameters(String authorization) {
+        String string = Access.PARAMETER.matcher(authorization).replaceAll("\00$1=$2$3\n");
+        return Section.parse(Access.PREFIX.matcher(string).replaceAll(""), true);
+    }
+
+    /**
+     * Returns {@code true} if all groups are empty.
+     * @param  groups Names of the groups
+     * @return {@code true} if all groups are empty
+     */
+    boolean isEmpty(String[] groups) {
+        for (int loop = 0; loop < groups.length; loop++)
+            if (!((Boolean)this.lookup(groups[loop])[2]).booleanValue())
+                return false;
+        return true;
+    }
+
+    /**
+     * Verifies the credentials of Basic for the groups.
+     * @param  groups        Names of the groups
+     * @param  authorization Header Authorization
+     * @return the user name if the credentials are valid, otherwise
+     *     {@code null}
+     */
+    String verify(String[] groups, String authorization) {
+
+        StringBuilder builder = new StringBuilder();
+        for (int loop = 0; loop < groups.length; loop++)
+            builder.append(groups[loop]).append(' ');
+        String key = builder.append('\n').append(authorization).toString();
+
+        // verified credentials are used until expiry
+        long timing = System.currentTimeMillis();
+        synchronized (this.credentials) {
+            Object[] entry = (Object[])this.credentials.get(key);
+            if (entry != null
+                    && ((Long)entry[1]).longValue() > timing)
+                return (String)entry[0];
+        }
+
+        String string;
+        try {string = new String(Base64.getDecoder().decode(authorization.substring(6).getBytes())).trim();
+        } catch (Throwable throwable) {
+            string = "";
+        }
+        if (string.length() <= 0)
+            return null;
+
+        // credentials without spaces are looked up as member, otherwise the
+        // members of the groups are compared as a whole
+        boolean valid = false;
+        if (string.indexOf(' ') < 0) {
+            for (int loop = 0; !valid && loop < groups.length; loop++)
+                valid = ((HashSet)this.lookup(groups[loop])[0]).contains(string);
+        } else {
+            String access = "";
+            for (int loop = 0; loop < groups.length; loop++)
+                access = access.concat(" ").concat(this.section.get(groups[loop]));
+            access = (" ").concat(access.trim()).concat(" ");
+            valid = access.contains((" ").concat(string).concat(" "));
+        }
+        if (!valid)
+            return null;
+
+        string = string.substring(0, Math.max(0, string.indexOf(':'))).trim();
+        synchronized (this.credentials) {
+            this.credentials.put(key, new Object[] {string, new Long(timing +Access.EXPIRY)});
+            Iterator iterator = this.credentials.values().iterator();
+            while (this.credentials.size() > Access.CAPACITY
+                    && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Verifies the response of Digest for the groups. Only the passwords of
+     * the user are verified, with the compiled hashes HA1 if the realm is
+     * known.
+     * @param  groups   Names of the groups
+     * @param  user     User name
+     * @param  realm    Caption of the realm
+     * @param  digest   Part of the response after HA1
+     * @param  response Response
+     * @return {@code true} if the response is valid
+     * @throws Exception
+     *     In case of unexpected errors
+     */
+    boolean verify(String[] groups, String user, String realm, String digest, String response)
+            throws Exception {
+
+        for (int loop = 0; loop < groups.length; loop++) {
+            Object[] entry = this.lookup(groups[loop]);
+            HashMap hashes = (HashMap)((HashMap)entry[3]).get(realm);
+            Vector passwords = (Vector)(hashes != null ? hashes : (HashMap)entry[1]).get(user);
+            if (passwords == null)
+                continue;
+            Enumeration enumeration = passwords.elements();
+            while (enumeration.hasMoreElements()) {
+                String string = (String)enumeration.nextElement();
+                if (hashes == null)
+                    string = Access.hash(user, realm, string);
+                if (response.equals(Worker.textHash(string.concat(digest))))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+
+/**
+ * Cache, holds the content of frequently requested files of a server outside
+ * the heap in direct buffers. Files are identified by the canonical path and
+ * are only valid as long as the time of the last modification and the size
+ * correspond to the file. The cache is limited by the total size and by the
+ * maximum size of the files. If the total size is exceeded, files are removed
+ * either by the least recent (LRU) or the least frequent (LFU) access.
+ */
+class Cache {
+
+    /** Maximum total size of the cache in bytes */
+    private final long capacity;
+
+    /** Maximum size of files in bytes */
+    private final long limit;
+
+    /** Eviction by the least frequent instead of the least recent access */
+    private final boolean frequency;
+
+    /** Files of the cache in the order of access */
+    private final LinkedHashMap entries;
+
+    /**
+     * Paths of the files by the number of accesses, for the same number in
+     * the order of access, only with LFU
+     */
+    private final TreeMap frequencies;
+
+    /** Current total size of the cache in bytes */
+    private long volume;
+
+    /** Number of accesses that were answered by the cache */
+    private long hits;
+
+    /** Number of accesses that were not answered by the cache */
+    private long misses;
+
+    /** Number of files removed due to the total size */
+    private long evictions;
+
+    /**
+     * Constructor, establishes the cache.
+     * @param capacity Maximum total size of the cache in bytes
+     * @param limit    Maximum size of files in bytes
+     * @param policy   Eviction policy {@code LRU} or {@code LFU}
+     */
+    Cache(long capacity, long limit, String policy) {
+
+        this.capacity    = capacity;
+        this.limit       = Math.min(Math.min(limit, capacity), Integer.MAX_VALUE);
+        this.frequency   = policy.trim().toUpperCase().equals("LFU");
+        this.entries     = new LinkedHashMap(16, 0.75f, true);
+        this.frequencies = new TreeMap();
+    }
+
+    /**
+     * Returns the content of a file from the cache. If the file is not yet
+     * contained or has been changed, the file is loaded if it does not exceed
+     * the maximum size. The buffer is shared read-only and has its own
+     * position and limit for each access.
+     * @param  file     File
+     * @param  modified Time of the last modification of the file
+     * @param  length   Size of the file
+     * @return the content of the file, otherwise {@code null}
+     */
+    ByteBuffer lookup(File file, long modified, long length) {
+
+        String path = file.getPath();
+
+        synchronized (this) {
+            Object[] entry = (Object[])this.entries.get(path);
+            if (entry != null
+                    && ((Long)entry[1]).longValue() == modified
+                    && ((ByteBuffer)entry[0]).capacity() == length) {
+                long count = ((Long)entry[2]).longValue();
+                entry[2] = new Long(count +1);
+                this.account(path, count, count +1);
+                this.hits++;
+                return ((ByteBuffer)entry[0]).duplicate();
+            }
+            this.misses++;
+        }
+
+        if (length <= 0
+                || length > this.limit)
+            return null;
+
+        ByteBuffer buffer = Cache.load(file, length);
+        if (buffer == null)
+            return null;
+
+        this.register(path, buffer, modified);
+        return buffer.duplicate();
+    }
+
+    /**
+     * Loads files and the files of directories relative to a root directory
+     * into the cache, e.g. at the start of the server. Subdirectories are not
+     * included. Files that do not exist or exceed the maximum size are
+     * ignored.
+     * @param root  Root directory
+     * @param paths Paths separated by spaces
+     */
+    void preload(File root, String paths) {
+
+        StringTokenizer tokenizer = new StringTokenizer(paths);
+        while (tokenizer.hasMoreTokens()) {
+            File file = new File(tokenizer.nextToken());
+            if (!file.isAbsolute())
+                file = new File(root, file.getPath());
+            File[] files = file.isDirectory() ? file.listFiles() : new File[] {file};
+            for (int loop = 0; files != null && loop < files.length; loop++) {
+                try {file = files[loop].getCanonicalFile();
+                } catch (Throwable throwable) {
+                    continue;
+                }
+                long length = file.length();
+                if (!file.isFile()
+                        || length <= 0
+                        || length > this.limit)
+                    continue;
+                long modified = file.lastModified();
+                ByteBuffer buffer = Cache.load(file, length);
+                if (buffer != null)
+                    this.register(file.getPath(), buffer, modified);
+            }
+        }
+    }
+
+    /**
+     * Returns the counters of the cache as a short description.
+     * @return the counters of the cache as a short description
+     */
+    synchronized String expose() {
+        return String.format("CACHE %d/%d BYTES, %d FILES, %d HITS, %d MISSES, %d EVICTIONS",
+                new Object[] {new Long(this.volume), new Long(this.capacity),
+                        new Integer(this.entries.size()), new Long(this.hits),
+                        new Long(this.misses), new Long(this.evictions)});
+    }
+
+    /**
+     * Loads the content of a file into a direct buffer.
+     * @param  file   File
+     * @param  length Expected size of the file
+     * @return the content of the file, or {@code null} if the file could not
+     *     be read completely
+     */
+    private static ByteBuffer load(File file, long length) {
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int)length);
+
+        try {
+            FileInputStream input = new FileInputStream(file);
+            try {
+                FileChannel channel = input.getChannel();
+                while (buffer.hasRemaining()
+                        && channel.read(buffer) >= 0)
+                    continue;
+                if (buffer.hasRemaining()
+                        || channel.size() != length)
+                    return null;
+            } finally {
+                input.close();
+            }
+        } catch (Throwable throwable) {
+            return null;
+        }
+
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Moves the path of a file with LFU from the previous to the current
+     * number of accesses, where it is the most recently used one.
+     * @param path     Canonical path of the file
+     * @param previous Previous number of accesses, otherwise -1
+     * @param count    Current number of accesses, otherwise -1 if the file
+     *     is removed
+     */
+    private void account(String path, long previous, long count) {
+
+        if (!this.frequency)
+            return;
+
+        if (previous >= 0) {
+            Long key = new Long(previous);
+            LinkedHashSet paths = (LinkedHashSet)this.frequencies.get(key);
+            paths.remove(path);
+            if (paths.isEmpty())
+                this.frequencies.remove(key);
+        }
+
+        if (count >= 0) {
+            Long key = new Long(count);
+            LinkedHashSet paths = (LinkedHashSet)this.frequencies.get(key);
+            if (paths == null)
+                this.frequencies.put(key, paths = new LinkedHashSet());
+            paths.add(path);
+        }
+    }
+
+    /**
+     * Registers the content of a file in the cache. If the total size is
+     * exceeded, files are removed according to the eviction policy.
+     * @param path     Canonical path of the file
+     * @param buffer   Content of the file
+     * @param modified Time of the last modification of the file
+     */
+    private synchronized void register(String path, ByteBuffer buffer, long modified) {
+
+        Object[] entry = (Object[])this.entries.remove(path);
+        if (entry != null) {
+            this.volume -= ((ByteBuffer)entry[0]).capacity();
+            this.account(path, ((Long)entry[2]).longValue(), -1);
+        }
+
+        while (!this.entries.isEmpty()
+                && this.volume +buffer.capacity() > this.capacity) {
+
+            // With LRU, the first entry is the least recently used one. With
+            // LFU, it is the least recently used one of the fewest accesses.
+            String key;
+            if (this.frequency)
+                key = (String)((LinkedHashSet)this.frequencies.get(this.frequencies.firstKey())).iterator().next();
+            else key = (String)this.entries.keySet().iterator().next();
+
+            Object[] eviction = (Object[])this.entries.remove(key);
+            this.account(key, ((Long)eviction[2]).longValue(), -1);
+            this.volume -= ((ByteBuffer)eviction[0]).capacity();
+            this.evictions++;
+        }
+
+        this.entries.put(path, new Object[] {buffer, new Long(modified), new Long(0)});
+        this.account(path, -1, 0);
+        this.volume += buffer.capacity();
+    }
+}
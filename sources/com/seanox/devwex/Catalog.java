@@ -0,0 +1,487 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Catalog, caches the metadata of the file system for a server, so that the
+ * repeated determination of canonical paths, types, sizes and modification
+ * times as well as the search for default documents and status templates
+ * requires no access to the file system. Also resources that do not exist are
+ * cached.<br>
+ * <br>
+ * The entries are invalidated by a WatchService for the directories of the
+ * entries and by a maximum age. The events of the WatchService are applied
+ * with each access, so no additional thread is required. A directory is only
+ * watched as long as the catalog contains entries of it and the number of
+ * watched directories is limited, beyond that only the maximum age applies.
+ * Without capacity, the catalog caches nothing and only provides the entries.
+ */
+class Catalog {
+
+    /** Default of the maximum age of entries in milliseconds */
+    private static final long EXPIRY = 60000;
+
+    /** Maximum number of watched directories */
+    private static final int LIMIT = 1024;
+
+    /** Maximum number of entries, 0 without caching */
+    private final int capacity;
+
+    /** Maximum age of entries in milliseconds */
+    private final long expiry;
+
+    /** Entries of the catalog in the order of access */
+    private final LinkedHashMap entries;
+
+    /**
+     * Watched directories with the path as key and the WatchKey, the number
+     * of entries of the directory and the path as value
+     */
+    private final HashMap directories;
+
+    /** WatchService of the directories, otherwise {@code null} */
+    private WatchService watcher;
+
+    /**
+     * Constructor, establishes the catalog.
+     * @param capacity Maximum number of entries, 0 without caching
+     * @param expiry   Maximum age of entries in milliseconds, 0 or less for
+     *     the default of 60 seconds
+     */
+    Catalog(int capacity, long expiry) {
+
+        this.capacity    = Math.max(0, capacity);
+        this.expiry      = expiry > 0 ? expiry : Catalog.EXPIRY;
+        this.entries     = new LinkedHashMap(16, 0.75f, true);
+        this.directories = new HashMap();
+
+        if (this.capacity > 0)
+            try {this.watcher = FileSystems.getDefault().newWatchService();
+            } catch (Throwable throwable) {
+                this.watcher = null;
+            }
+    }
+
+    /**
+     * Returns the entry for a path. The path is used absolutely, but not
+     * canonically.
+     * @param  path Path
+     * @return the entry for the path
+     */
+    Entry locate(String path) {
+
+        String key = new File(path).getAbsolutePath();
+        if (this.capacity <= 0)
+            return new Entry(key);
+
+        synchronized (this) {
+            this.synchronize();
+            Entry entry = (Entry)this.entries.get(key);
+            if (entry != null
+                    && System.currentTimeMillis() -entry.timing < this.expiry)
+                return entry;
+        }
+
+        Entry entry = new Entry(key);
+
+        synchronized (this) {
+            if (this.entries.size() >= this.capacity) {
+                Iterator iterator = this.entries.values().iterator();
+                Entry eldest = (Entry)iterator.next();
+                iterator.remove();
+                this.release(eldest);
+            }
+            this.observe(entry);
+            this.release((Entry)this.entries.put(key, entry));
+        }
+
+        return entry;
+    }
+
+    /**
+     * Removes a path, all paths below it and all parent directories from the
+     * catalog, e.g. if the path has been changed by the server itself.
+     * @param path Path
+     */
+    synchronized void invalidate(String path) {
+
+        if (this.capacity <= 0)
+            return;
+
+        File file = new File(path).getAbsoluteFile();
+        String prefix = file.getPath().concat(File.separator);
+        Iterator iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = (Entry)iterator.next();
+            if (entry.getPath().equals(file.getPath())
+                    || entry.getPath().startsWith(prefix)) {
+                iterator.remove();
+                this.release(entry);
+            }
+        }
+
+        for (file = file.getParentFile(); file != null; file = file.getParentFile())
+            this.release((Entry)this.entries.remove(file.getPath()));
+    }
+
+    /** Removes all entries and ends the watching of all directories. */
+    private void clear() {
+
+        this.entries.clear();
+        Iterator iterator = this.directories.values().iterator();
+        while (iterator.hasNext())
+            ((WatchKey)((Object[])iterator.next())[0]).cancel();
+        this.directories.clear();
+    }
+
+    /** Terminates the catalog and the WatchService. */
+    synchronized void destroy() {
+
+        this.clear();
+
+        if (this.watcher != null)
+            try {this.watcher.close();
+            } catch (Throwable throwable) {
+            }
+        this.watcher = null;
+    }
+
+    /**
+     * Registers the directory of an entry with the WatchService. For entries
+     * that do not exist, the next existing parent directory is used, because
+     * the creation of the entry or a parent directory is reported there. For
+     * directories, the directory itself is also registered, so that changes
+     * of the content replace the entry. If the directory cannot be registered
+     * or the maximum number of watched directories is reached, only the
+     * maximum age applies.
+     * @param entry Entry
+     */
+    private void observe(Entry entry) {
+
+        if (this.watcher == null)
+            return;
+
+        File directory = entry.getParentFile();
+        while (directory != null
+                && !directory.isDirectory())
+            directory = directory.getParentFile();
+        if (directory != null)
+            entry.watch = this.register(directory);
+        if (entry.isDirectory())
+            entry.content = this.register(entry);
+    }
+
+    /**
+     * Registers a directory with the WatchService or increases the number of
+     * entries of an already watched directory.
+     * @param  directory Directory
+     * @return the watched directory as array of WatchKey, number of entries
+     *     and path, otherwise {@code null}
+     */
+    private Object[] register(File directory) {
+
+        Object[] watch = (Object[])this.directories.get(directory.getPath());
+        if (watch == null) {
+            if (this.directories.size() >= Catalog.LIMIT)
+                return null;
+            try {watch = new Object[] {directory.toPath().register(this.watcher,
+                        new WatchEvent.Kind[] {StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE,
+                                StandardWatchEventKinds.ENTRY_MODIFY}), new Integer(0), directory.getPath()};
+            } catch (Throwable throwable) {
+                return null;
+            }
+            this.directories.put(directory.getPath(), watch);
+        }
+
+        watch[1] = new Integer(((Integer)watch[1]).intValue() +1);
+        return watch;
+    }
+
+    /**
+     * Releases the watched directories of a removed entry.
+     * @param entry Removed entry, otherwise {@code null}
+     */
+    private void release(Entry entry) {
+
+        if (entry == null)
+            return;
+
+        this.unregister(entry.watch);
+        this.unregister(entry.content);
+        entry.watch   = null;
+        entry.content = null;
+    }
+
+    /**
+     * Decreases the number of entries of a watched directory. If the catalog
+     * no longer contains entries of the directory, the watching of the
+     * directory is ended.
+     * @param watch Watched directory, otherwise {@code null}
+     */
+    private void unregister(Object[] watch) {
+
+        if (watch == null)
+            return;
+
+        int count = ((Integer)watch[1]).intValue() -1;
+        watch[1] = new Integer(count);
+        if (count > 0)
+            return;
+
+        ((WatchKey)watch[0]).cancel();
+        if (this.directories.get(watch[2]) == watch)
+            this.directories.remove(watch[2]);
+    }
+
+    /**
+     * Applies the pending events of the WatchService. Changed entries, the
+     * entries below them and the watched directory are removed. If events have
+     * been lost, all entries are removed.
+     */
+    private void synchronize() {
+
+        if (this.watcher == null)
+            return;
+
+        for (WatchKey key; (key = this.watcher.poll()) != null;) {
+
+            Path directory = (Path)key.watchable();
+            Iterator iterator = key.pollEvents().iterator();
+            while (iterator.hasNext()) {
+                WatchEvent event = (WatchEvent)iterator.next();
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                    this.clear();
+                else this.invalidate(directory.resolve((Path)event.context()).toString());
+            }
+            this.release((Entry)this.entries.remove(directory.toString()));
+
+            if (!key.reset()) {
+                Object[] watch = (Object[])this.directories.get(directory.toString());
+                if (watch != null
+                        && watch[0] == key)
+                    this.directories.remove(directory.toString());
+            }
+        }
+    }
+
+    /**
+     * Entry of the catalog as a file whose metadata was determined once when
+     * it was established. Canonical path, content of directories, the time of
+     * the last modification as HTTP date and the entity tag are determined
+     * once when they are first used.
+     */
+    class Entry extends File {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Time of the establishment in milliseconds */
+        final long timing;
+
+        /** Type of the entry: 0 not existing, 1 file, 2 directory, 3 other */
+        private final int type;
+
+        /** Size of the file in bytes */
+        private final long length;
+
+        /** Time of the last modification in milliseconds */
+        private final long modified;
+
+        /** Key of the file system for the file (e.g. inode), otherwise {@code null} */
+        private final Object key;
+
+        /** Watched directory of the entry in the catalog, otherwise {@code null} */
+        private Object[] watch;
+
+        /**
+         * Watched content of the entry in the catalog as directory, otherwise
+         * {@code null}
+         */
+        private volatile Object[] content;
+
+        /** Canonical path of the entry */
+        private volatile String canonical;
+
+        /** Error in determining the canonical path */
+        private volatile IOException exception;
+
+        /** Content of the directory */
+        private volatile String[] list;
+
+        /** Time of the last modification as HTTP date */
+        private volatile String date;
+
+        /** Entity tag of the entry */
+        private volatile String tag;
+
+        /**
+         * Constructor, establishes the entry with the metadata of the path.
+         * @param path Absolute path
+         */
+        Entry(String path) {
+
+            super(path);
+
+            this.timing = System.currentTimeMillis();
+
+            int    type     = 0;
+            long   length   = 0;
+            long   modified = 0;
+            Object key      = null;
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(this.toPath(), BasicFileAttributes.class);
+                type = attributes.isRegularFile() ? 1 : attributes.isDirectory() ? 2 : 3;
+                length = attributes.size();
+                modified = attributes.lastModifiedTime().toMillis();
+                key = attributes.fileKey();
+            } catch (Throwable throwable) {
+            }
+
+            this.type     = type;
+            this.length   = type == 1 ? length : 0;
+            this.modified = modified;
+            this.key      = key;
+        }
+
+        @Override
+        public boolean exists() {
+            return this.type != 0;
+        }
+
+        @Override
+        public boolean isFile() {
+            return this.type == 1;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return this.type == 2;
+        }
+
+        @Override
+        public long length() {
+            return this.length;
+        }
+
+        @Override
+        public long lastModified() {
+            return this.modified;
+        }
+
+        @Override
+        public String[] list() {
+            if (this.type != 2)
+                return null;
+            String[] list = this.list;
+            if (list == null)
+                this.list = list = super.list();
+            return list != null ? list.clone() : null;
+        }
+
+        @Override
+        public String getCanonicalPath()
+                throws IOException {
+            if (this.exception != null)
+                throw this.exception;
+            String canonical = this.canonical;
+            if (canonical == null)
+                try {this.canonical = canonical = super.getCanonicalPath();
+                } catch (IOException exception) {
+                    this.exception = exception;
+                    throw exception;
+                }
+            return canonical;
+        }
+
+        /**
+         * Returns the canonical entry, which is also taken from the catalog.
+         * @return the canonical entry
+         * @throws IOException
+         *     If the canonical path cannot be determined
+         */
+        @Override
+        public File getCanonicalFile()
+                throws IOException {
+            String canonical = this.getCanonicalPath();
+            if (canonical.equals(this.getPath()))
+                return this;
+            return Catalog.this.locate(canonical);
+        }
+
+        /**
+         * Returns {@code true} if the entry is a directory in the catalog
+         * whose content is watched, so that the entry is replaced when the
+         * content of the directory changes.
+         * @return {@code true} if the content of the directory is watched
+         */
+        boolean isWatched() {
+            Object[] content = this.content;
+            return content != null
+                    && ((WatchKey)content[0]).isValid();
+        }
+
+        /**
+         * Returns the time of the last modification as HTTP date.
+         * @return the time of the last modification as HTTP date
+         */
+        String timestamp() {
+            String date = this.date;
+            if (date == null) {
+                SimpleDateFormat pattern = new SimpleDateFormat("E, dd MMM yyyy HH:mm:ss z", Locale.US);
+                pattern.setTimeZone(TimeZone.getTimeZone("GMT"));
+                this.date = date = pattern.format(new Date(this.modified));
+            }
+            return date;
+        }
+
+        /**
+         * Returns the strong entity tag of the entry in quotation marks. The
+         * tag is composed of the time of the last modification, the size and,
+         * if available, the key of the file system (e.g. inode), so that a
+         * replaced file with the same time and size gets a different tag.
+         * @return the strong entity tag of the entry
+         */
+        String tag() {
+            String tag = this.tag;
+            if (tag == null) {
+                tag = Long.toHexString(this.modified).concat("-").concat(Long.toHexString(this.length));
+                if (this.key != null)
+                    tag = tag.concat("-").concat(Integer.toHexString(this.key.hashCode()));
+                this.tag = tag = ("\"").concat(tag).concat("\"");
+            }
+            return tag;
+        }
+    }
+}
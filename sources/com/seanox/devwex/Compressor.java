@@ -0,0 +1,287 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.StringTokenizer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressor, compresses responses of a server on the fly with gzip, if no
+ * precompressed variant exists. Only content of the configured media types
+ * that reaches the minimum size is compressed. Compressed files are held for
+ * the time of the last modification and the size of the file, so that
+ * frequently requested files are compressed only once. The held content is
+ * limited by the total size, if exceeded, the least recently used files are
+ * removed.
+ */
+class Compressor {
+
+    /** Compression level from 1 (fastest) to 9 (best) */
+    private final int level;
+
+    /** Media types to be compressed, also with wildcard as subtype */
+    private final String[] types;
+
+    /** Minimum size of content in bytes */
+    private final long minimum;
+
+    /** Maximum total size of compressed files in bytes */
+    private final long capacity;
+
+    /** Compressed files in the order of access */
+    private final LinkedHashMap entries;
+
+    /** Current total size of compressed files in bytes */
+    private long volume;
+
+    /**
+     * Constructor, establishes the compressor.
+     * @param level    Compression level from 1 (fastest) to 9 (best)
+     * @param types    Media types separated by spaces
+     * @param minimum  Minimum size of content in bytes
+     * @param capacity Maximum total size of compressed files in bytes
+     */
+    Compressor(int level, String types, long minimum, long capacity) {
+
+        this.level    = Math.max(1, Math.min(9, level));
+        this.minimum  = Math.max(0, minimum);
+        this.capacity = Math.max(0, capacity);
+        this.entries  = new LinkedHashMap(16, 0.75f, true);
+
+        StringTokenizer tokenizer = new StringTokenizer(types.toLowerCase());
+        this.types = new String[tokenizer.countTokens()];
+        for (int loop = 0; loop < this.types.length; loop++)
+            this.types[loop] = tokenizer.nextToken();
+    }
+
+    /**
+     * Checks whether content of a media type and size is compressed. The
+     * parameters of the media type are ignored.
+     * @param  mediatype Media type
+     * @param  length    Size of the content, less than 0 if unknown
+     * @return {@code true} if the content is compressed
+     */
+    boolean accept(String mediatype, long length) {
+
+        if (mediatype == null
+                || (length >= 0 && length < this.minimum))
+            return false;
+
+        mediatype = mediatype.replaceAll(";.*$", "").trim().toLowerCase();
+        for (int loop = 0; loop < this.types.length; loop++) {
+            String type = this.types[loop];
+            if (type.equals(mediatype)
+                    || (type.endsWith("/*")
+                            && mediatype.startsWith(type.substring(0, type.length() -1))))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether a file of a media type is compressed. Files are only
+     * compressed if they do not exceed the total size of compressed files.
+     * @param  file      File
+     * @param  mediatype Media type
+     * @return {@code true} if the file is compressed
+     */
+    boolean accept(File file, String mediatype) {
+        return file.length() <= this.capacity
+                && this.accept(mediatype, file.length());
+    }
+
+    /**
+     * Compresses content completely.
+     * @param  bytes Content
+     * @return the compressed content
+     * @throws IOException
+     *     In case of faulty compression
+     */
+    byte[] compress(byte[] bytes)
+            throws IOException {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length /2 +64);
+        OutputStream stream = this.stream(output);
+        stream.write(bytes);
+        stream.close();
+        return output.toByteArray();
+    }
+
+    /**
+     * Returns the compressed content of a file. If the file is not yet held or
+     * has been changed, the file is compressed and held.
+     * @param  file     File
+     * @param  modified Time of the last modification of the file
+     * @param  length   Size of the file
+     * @return the compressed content, or {@code null} if the file could not be
+     *     read completely or exceeds the total size
+     */
+    byte[] lookup(File file, long modified, long length) {
+
+        String path = file.getPath();
+
+        synchronized (this) {
+            Object[] entry = (Object[])this.entries.get(path);
+            if (entry != null
+                    && ((Long)entry[1]).longValue() == modified
+                    && ((Long)entry[2]).longValue() == length)
+                return (byte[])entry[0];
+        }
+
+        if (length > this.capacity)
+            return null;
+
+        byte[] bytes = new byte[(int)length];
+        try {
+            FileInputStream input = new FileInputStream(file);
+            try {
+                int offset = 0;
+                for (int size; offset < bytes.length
+                        && (size = input.read(bytes, offset, bytes.length -offset)) >= 0;)
+                    offset += size;
+                if (offset < bytes.length
+                        || input.read() >= 0)
+                    return null;
+            } finally {
+                input.close();
+            }
+            bytes = this.compress(bytes);
+        } catch (Throwable throwable) {
+            return null;
+        }
+
+        synchronized (this) {
+
+            Object[] entry = (Object[])this.entries.remove(path);
+            if (entry != null)
+                this.volume -= ((byte[])entry[0]).length;
+
+            // the least recently used files are removed until the compressed
+            // file fits into the total size
+            Iterator iterator = this.entries.values().iterator();
+            while (iterator.hasNext()
+                    && this.volume +bytes.length > this.capacity) {
+                this.volume -= ((byte[])((Object[])iterator.next())[0]).length;
+                iterator.remove();
+            }
+
+            if (this.volume +bytes.length <= this.capacity) {
+                this.entries.put(path, new Object[] {bytes, new Long(modified), new Long(length)});
+                this.volume += bytes.length;
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Establishes a stream that compresses the written data and writes it to
+     * the passed stream. With flush the data compressed so far is written, so
+     * that data can be passed on while streaming. Closing the stream ends the
+     * compression and releases the compressor, also in case of errors, but
+     * does not close the passed stream.
+     * @param  output Output stream
+     * @return the stream for compression
+     * @throws IOException
+     *     In case of faulty compression
+     */
+    Stream stream(OutputStream output)
+            throws IOException {
+        return new Stream(output, this.level);
+    }
+
+    /** Stream for the compression with gzip at a compression level. */
+    static class Stream extends GZIPOutputStream {
+
+        /**
+         * Constructor, establishes the stream.
+         * @param  output Output stream, which is not closed with the stream
+         * @param  level  Compression level
+         * @throws IOException
+         *     In case of faulty compression
+         */
+        Stream(OutputStream output, int level)
+                throws IOException {
+            super(new Counter(output), 512, true);
+            this.def.setLevel(level);
+        }
+
+        /**
+         * Returns the number of compressed bytes written to the output stream.
+         * @return the number of compressed bytes written
+         */
+        long volume() {
+            return ((Counter)this.out).volume;
+        }
+
+        @Override
+        public void close()
+                throws IOException {
+            try {super.close();
+            } finally {
+                this.def.end();
+            }
+        }
+    }
+
+    /**
+     * Stream that passes on the data and counts the bytes, the passed stream
+     * is not closed with the stream.
+     */
+    private static class Counter extends FilterOutputStream {
+
+        /** Number of bytes written */
+        private long volume;
+
+        /**
+         * Constructor, establishes the stream.
+         * @param output Output stream
+         */
+        Counter(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(int digit)
+                throws IOException {
+            this.out.write(digit);
+            this.volume++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+                throws IOException {
+            this.out.write(bytes, offset, length);
+            this.volume += length;
+        }
+
+        @Override
+        public void close()
+                throws IOException {
+            this.out.flush();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.StringTokenizer;
+import java.util.Vector;
+import java.util.regex.Pattern;
+
+/**
+ * Filter, compiled filters of a server or virtual host from the section
+ * {@code [SERVER/VIRTUAL:X:FLT]} in the format
+ * {@code METHOD CONDITION FUNCTION VARIABLE VALUE [+] ... > reference}. The
+ * rules of the filters are compiled once with the values in lower case and
+ * the regular expressions of the function MATCH. The filters are determined
+ * in advance per method, so that a request only verifies the filters whose
+ * first rule applies to the method of the request.
+ */
+class Filter {
+
+    /** Condition ALWAYS, which always applies */
+    static final int ALWAYS = 0;
+
+    /** Condition IS */
+    static final int IS = 1;
+
+    /** Condition NOT */
+    static final int NOT = 2;
+
+    /** Invalid condition, which ends the verification of the filter */
+    static final int INVALID = 3;
+
+    /** Option {@code [M]} of module filters */
+    static final int MODULE = 1;
+
+    /** Option {@code [R]} of redirects */
+    static final int REDIRECT = 2;
+
+    /** Function STARTS */
+    private static final int STARTS = 1;
+
+    /** Function CONTAINS */
+    private static final int CONTAINS = 2;
+
+    /** Function EQUALS */
+    private static final int EQUALS = 3;
+
+    /** Function ENDS */
+    private static final int ENDS = 4;
+
+    /** Function MATCH */
+    private static final int MATCH = 5;
+
+    /** Function EMPTY */
+    private static final int EMPTY = 6;
+
+    /** Filters whose first rule applies to all methods */
+    private final Object[][] common;
+
+    /** Filters of the methods with the method in lower case as key */
+    private final HashMap methods;
+
+    /**
+     * Constructor, compiles the filters of a section. Filters without rules
+     * with method and condition are ignored.
+     * @param section Section of the filters
+     */
+    Filter(Section section) {
+
+        Vector vector = new Vector();
+        Enumeration enumeration = section.elements();
+        while (enumeration.hasMoreElements()) {
+
+            String filter = section.get((String)enumeration.nextElement());
+            int cursor = filter.indexOf('>');
+            String reference = cursor >= 0 ? filter.substring(cursor +1).trim() : "";
+            if (cursor >= 0)
+                filter = filter.substring(0, cursor);
+
+            int options = 0;
+            if (reference.toUpperCase().contains("[M]"))
+                options |= Filter.MODULE;
+            if (reference.toUpperCase().contains("[R]"))
+                options |= Filter.REDIRECT;
+
+            // the rules are separated by [+], also empty rules are kept,
+            // because they are part of the verification
+            String method = null;
+            Vector rules = new Vector();
+            StringTokenizer tokenizer = new StringTokenizer(filter, "[+]");
+            while (tokenizer.hasMoreTokens()) {
+                Object[] rule = Filter.compile(tokenizer.nextToken());
+                if (method == null
+                        && rule != null)
+                    method = (String)rule[0];
+                rules.add(rule);
+            }
+            if (method == null)
+                continue;
+
+            vector.add(new Object[] {reference, Worker.cleanOptions(reference), new Integer(options),
+                    rules.toArray(new Object[0][]), new Integer(vector.size()), method});
+        }
+
+        // the filters are assigned to the methods of their first rule, the
+        // filters for all methods are assigned to each method
+        this.methods = new HashMap();
+        Vector common = new Vector();
+        Iterator iterator = vector.iterator();
+        while (iterator.hasNext()) {
+            Object[] entry = (Object[])iterator.next();
+            if (((String)entry[5]).equals("all"))
+                common.add(entry);
+            else this.methods.put(entry[5], null);
+        }
+        iterator = this.methods.keySet().iterator();
+        while (iterator.hasNext()) {
+            String method = (String)iterator.next();
+            Vector filters = new Vector();
+            Enumeration entries = vector.elements();
+            while (entries.hasMoreElements()) {
+                Object[] entry = (Object[])entries.nextElement();
+                if (((String)entry[5]).equals("all")
+                        || ((String)entry[5]).equals(method))
+                    filters.add(entry);
+            }
+            this.methods.put(method, filters.toArray(new Object[0][]));
+        }
+
+        this.common = (Object[][])common.toArray(new Object[0][]);
+    }
+
+    /**
+     * Compiles a rule.
+     * @param  rule Rule
+     * @return the rule as array of method, condition, function, variable,
+     *     value and regular expression, {@code null} for rules without method
+     *     and condition
+     */
+    private static Object[] compile(String rule) {
+
+        StringTokenizer words = new StringTokenizer(rule.toLowerCase().trim());
+        if (words.countTokens() < 2)
+            return null;
+
+        String method  = words.nextToken();
+        String logical = words.nextToken();
+        if (logical.equals("always"))
+            return new Object[] {method, new Integer(Filter.ALWAYS)};
+
+        // only IS and NOT are allowed, function and variable must be set
+        if ((!logical.equals("is")
+                && !logical.equals("not"))
+                || words.countTokens() < 2)
+            return new Object[] {method, new Integer(Filter.INVALID)};
+
+        String function = words.nextToken();
+        String variable = words.nextToken();
+        String value    = words.hasMoreTokens() ? words.nextToken() : "";
+
+        int type = 0;
+        if (function.equals("starts"))
+            type = Filter.STARTS;
+        else if (function.equals("contains"))
+            type = Filter.CONTAINS;
+        else if (function.equals("equals"))
+            type = Filter.EQUALS;
+        else if (function.equals("ends"))
+            type = Filter.ENDS;
+        else if (function.equals("match"))
+            type = Filter.MATCH;
+        else if (function.equals("empty"))
+            type = Filter.EMPTY;
+
+        // invalid regular expressions are not compiled, so that the error
+        // occurs only with the verification, as without compilation
+        Pattern pattern = null;
+        if (type == Filter.MATCH) {
+            try {pattern = Pattern.compile(value);
+            } catch (Throwable throwable) {
+            }
+        }
+
+        return new Object[] {method, new Integer(logical.equals("is") ? Filter.IS : Filter.NOT),
+                new Integer(type), variable, value, pattern};
+    }
+
+    /**
+     * Returns the filters whose first rule applies to the method.
+     * @param  method Method in lower case
+     * @return the filters in the order of the configuration as array of
+     *     reference, target, options, rules, position and method of the first
+     *     rule, the rules as array of method, condition, function, variable,
+     *     value and regular expression, rules without method and condition
+     *     are {@code null}
+     */
+    Object[][] lookup(String method) {
+        Object[][] entries = (Object[][])this.methods.get(method);
+        return entries != null ? entries : this.common;
+    }
+
+    /**
+     * Verifies the function of a rule with the condition IS or NOT. Unknown
+     * functions always apply.
+     * @param  rule    Rule
+     * @param  value   Value of the variable in lower case
+     * @param  decoded Decoded value of the variable
+     * @return {@code true} if the rule applies
+     */
+    static boolean verify(Object[] rule, String value, String decoded) {
+
+        String pattern = (String)rule[4];
+        boolean result;
+        switch (((Integer)rule[2]).intValue()) {
+            case Filter.STARTS:
+                result = value.startsWith(pattern) || decoded.startsWith(pattern);
+                break;
+            case Filter.CONTAINS:
+                result = value.contains(pattern) || decoded.contains(pattern);
+                break;
+            case Filter.EQUALS:
+                result = value.equals(pattern) || decoded.equals(pattern);
+                break;
+            case Filter.ENDS:
+                result = value.endsWith(pattern) || decoded.endsWith(pattern);
+                break;
+            case Filter.MATCH:
+                Pattern match = (Pattern)rule[5];
+                if (match == null)
+                    result = value.matches(pattern) || decoded.matches(pattern);
+                else result = match.matcher(value).matches() || match.matcher(decoded).matches();
+                break;
+            case Filter.EMPTY:
+                result = value.length() <= 0;
+                break;
+            default:
+                return true;
+        }
+        return result == (((Integer)rule[1]).intValue() == Filter.IS);
+    }
+}
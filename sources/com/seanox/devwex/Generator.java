@@ -16,13 +16,20 @@
  */
 package com.seanox.devwex;
 
-import java.math.BigInteger;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -104,8 +111,10 @@ import java.util.Map;
  * The model (byte array) is parsed initially. All placeholders are checked for
  * syntactic correctness. If necessary, invalid placeholders are removed.
  * Structures (partial templates) are determined and replaced by a simple
- * placeholder. After parsing, a final model with optimized placeholders and
- * extracted structures is created, which cannot be changed at runtime.<br>
+ * placeholder. After parsing, a compiled model of text segments and
+ * placeholders with identifiers in lower case and extracted structures is
+ * created, which cannot be changed at runtime. Filling then only runs once
+ * through the segments and writes the text into a buffer.<br>
  * <br>
  * For the use of the model different possibilities are then available.<br>
  * <br>
@@ -124,15 +133,44 @@ import java.util.Map;
  * The methods {@link #extract(String)} and {@link #extract(String, Map)} use
  * exclusive structures, which are partially filled and prepared. Both methods
  * produce final results that correspond to the call of {@link #set(Map)} in
- * combination with {@link #extract()}, but focus on only one structure.
+ * combination with {@link #extract()}, but focus on only one structure.<br>
+ * <br>
+ * Compiled templates are held in a shared cache with the content of the
+ * template as key. Because the compiled model cannot be changed, each call of
+ * {@link #parse(byte[])} gets its own generator as binding of the values with
+ * the shared compiled model, so that the same template can be filled by
+ * several threads without parsing it again. The cache is limited by the total
+ * size of the templates, if exceeded, the least recently used templates are
+ * removed.
  */
 public class Generator {
 
-    /** Scopes with structures of the template */
+    /** Maximum total size of the cached templates in bytes */
+    private static final long CAPACITY = 4194304;
+
+    /** Compiled templates in the order of access with the content as key */
+    private static final LinkedHashMap templates = new LinkedHashMap(16, 0.75f, true);
+
+    /** Current total size of the cached templates in bytes */
+    private static long volume;
+
+    /** Number of templates that were answered by the cache */
+    private static long hits;
+
+    /** Number of templates that had to be parsed */
+    private static long misses;
+
+    /** Number of templates removed due to the total size */
+    private static long evictions;
+
+    /** Scopes with the compiled structures of the template */
     private HashMap scopes;
 
-    /** Model, data buffer of the template */
-    private byte[] model;
+    /**
+     * Compiled model of the template as segments, text as byte array and
+     * placeholders as identifier in lower case
+     */
+    private Object[] model;
 
     /** Constructor, create an empty generator. */
     private Generator() {
@@ -140,16 +178,117 @@ public class Generator {
     }
 
     /**
-     * Creates a new generator based on the transferred template.
+     * Creates a new generator based on the transferred template. Templates
+     * that have already been parsed are taken from the cache, the generator
+     * then uses the shared compiled model with its own binding of the values.
      * @param  model Template as bytes
      * @return the generator with the template passed as bytes
      */
     public static Generator parse(byte[] model) {
+
+        if (model == null)
+            model = new byte[0];
+
+        // the content of the template is the key, the hash code and the
+        // comparison of the ByteBuffer are based on the content
+        ByteBuffer key = ByteBuffer.wrap(model);
+
+        synchronized (Generator.templates) {
+            Generator template = (Generator)Generator.templates.get(key);
+            if (template != null) {
+                Generator.hits++;
+                return template.copy();
+            }
+            Generator.misses++;
+        }
+
+        Generator template = new Generator();
+        template.model = template.compile(model);
+        if (model.length > Generator.CAPACITY)
+            return template.copy();
+
+        key = ByteBuffer.wrap(model.clone());
+
+        synchronized (Generator.templates) {
+
+            if (Generator.templates.put(key, template) != null)
+                Generator.volume -= model.length;
+
+            // the least recently used templates are removed until the
+            // template fits into the total size
+            Iterator iterator = Generator.templates.keySet().iterator();
+            while (iterator.hasNext()
+                    && Generator.volume +model.length > Generator.CAPACITY) {
+                ByteBuffer buffer = (ByteBuffer)iterator.next();
+                if (buffer == key)
+                    continue;
+                Generator.volume -= buffer.capacity();
+                Generator.evictions++;
+                iterator.remove();
+            }
+            Generator.volume += model.length;
+        }
+
+        return template.copy();
+    }
+
+    /**
+     * Returns the counters of the template cache as a short description.
+     * @return the counters of the template cache as a short description
+     */
+    static String expose() {
+        synchronized (Generator.templates) {
+            return String.format("GENERATOR %d/%d BYTES, %d TEMPLATES, %d HITS, %d MISSES, %d EVICTIONS",
+                    new Object[] {new Long(Generator.volume), new Long(Generator.CAPACITY),
+                            new Integer(Generator.templates.size()), new Long(Generator.hits),
+                            new Long(Generator.misses), new Long(Generator.evictions)});
+        }
+    }
+
+    /**
+     * Creates an independent copy of the generator with the current model and
+     * the structures, so that a parsed template can be filled repeatedly
+     * without parsing it again. The compiled model and the structures are not
+     * changed at runtime and are therefore shared.
+     * @return the copy of the generator
+     */
+    Generator copy() {
         Generator generator = new Generator();
-        generator.model = generator.scan(model);
+        generator.scopes = this.scopes;
+        generator.model = this.model;
         return generator;
     }
 
+    /**
+     * Determines the names of the placeholders and structures of a model in
+     * lower case, without the hexadecimal placeholders.
+     * @param  model Model
+     * @return the names of the placeholders and structures of the model
+     */
+    static String[] placeholders(byte[] model) {
+
+        if (model == null)
+            return new String[0];
+        ArrayList list = new ArrayList();
+        for (int loop = 0; loop < model.length -2; loop++) {
+            if (model[loop] != '#'
+                    || model[loop +1] != '['
+                    || !Character.isLetter((char)(model[loop +2] & 0xFF)))
+                continue;
+            int cursor = loop +2;
+            while (cursor < model.length
+                    && (Character.isLetterOrDigit((char)(model[cursor] & 0xFF))
+                            || model[cursor] == '_'
+                            || model[cursor] == '-'))
+                cursor++;
+            String name = new String(model, loop +2, cursor -loop -2).toLowerCase();
+            if (!list.contains(name))
+                list.add(name);
+            loop = cursor -1;
+        }
+        return (String[])list.toArray(new String[0]);
+    }
+
     /**
      * Determines whether a valid placeholder starts at the specified position
      * in a model (structure). In this case the length of the complete
@@ -264,32 +403,33 @@ public class Generator {
     }
 
     /**
-     * Analyzes the model and prepares it for final processing.
+     * Analyzes the model and compiles it for final processing.
      * All placeholders are checked for syntactic correctness. Invalid
      * placeholders are removed if necessary. In addition, all structures
      * (sub-templates) are determined, which then also define the scopes and
-     * are then replaced by a simple placeholder. After parsing, a final model
-     * with optimized placeholders and extracted structures is created, which
-     * cannot be changed at runtime.
+     * are then replaced by a simple placeholder. Hexadecimal placeholders are
+     * resolved directly as text. After compiling, the model consists of
+     * segments of text and placeholders in lower case, which cannot be
+     * changed at runtime.
      * @param  model Model
-     * @return the final prepared model
+     * @return the compiled model as segments
      */
-    private byte[] scan(byte[] model) {
-        
+    private Object[] compile(byte[] model) {
+
         if (model == null)
-            return new byte[0];
+            return new Object[0];
 
-        for (int cursor = 0; true;) {
+        ArrayList segments = new ArrayList();
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
 
-            int offset = Generator.scan(model, cursor++);
-            if (offset < 0)
-                break;
-            if (offset == 0)
+        for (int cursor = 0; cursor < model.length;) {
+
+            int offset = Generator.scan(model, cursor);
+            if (offset <= 0) {
+                text.write(model[cursor++]);
                 continue;
-                
-            cursor--;            
+            }
 
-            byte[] patch = new byte[0];
             String fetch = new String(model, cursor, offset);
             if (fetch.matches("^(?si)#\\[[a-z]([\\w\\-]*\\w)?\\[\\[.*\\]\\]\\]$")) {
 
@@ -304,32 +444,145 @@ public class Generator {
 
                 // scope and structure are registered if scope does not exist
                 if (!this.scopes.containsKey(scope))
-                    this.scopes.put(scope, this.scan(cache));
+                    this.scopes.put(scope, this.compile(cache));
 
                 // as new placeholder only the scope is used
-                patch = ("#[").concat(scope).concat("]").getBytes();
+                Generator.segment(segments, text);
+                segments.add(scope);
 
             } else if (fetch.matches("^(?i)#\\[[a-z]([\\w-]*\\w)?\\]$")) {
 
-                patch = fetch.toLowerCase().getBytes();
-            
+                Generator.segment(segments, text);
+                segments.add(fetch.substring(2, fetch.length() -1).toLowerCase());
+
             } else if (fetch.matches("^(?i)#\\[0x([0-9A-F]{2})+\\]$")) {
-            
-                cursor += fetch.length() +1;
+
+                // hexadecimal code is converted into bytes
+                fetch = fetch.substring(4, fetch.length() -1);
+                for (int loop = 0; loop < fetch.length(); loop += 2)
+                    text.write(Integer.parseInt(fetch.substring(loop, loop +2), 16));
+            }
+
+            cursor += offset;
+        }
+
+        Generator.segment(segments, text);
+        return segments.toArray();
+    }
+
+    /**
+     * Adds the collected text as a segment, if available, and resets the
+     * buffer of the text.
+     * @param segments Segments
+     * @param text     Buffer of the text
+     */
+    private static void segment(ArrayList segments, ByteArrayOutputStream text) {
+        if (text.size() <= 0)
+            return;
+        segments.add(text.toByteArray());
+        text.reset();
+    }
+
+    /**
+     * Normalizes the keys of the values (lower case + smoothing of the keys).
+     * The passed values are not changed.
+     * @param  values Values
+     * @return the normalized values
+     */
+    private static Map normalize(Map values) {
+
+        if (values == null)
+            return new HashMap();
+        values = new HashMap(values);
+
+        Iterator iterator = new HashMap(values).keySet().iterator();
+        while (iterator.hasNext()) {
+            String label = (String)iterator.next();
+            values.put(label.toLowerCase().trim(), values.get(label));
+        }
+
+        return values;
+    }
+
+    /**
+     * Fills a compiled model in one pass with the transferred values and
+     * writes the text to the buffer. With {@code clean}, all outstanding
+     * placeholders are removed, otherwise they remain as segments. Because
+     * structures can be nested, the scopes of the structures being filled are
+     * excluded to protect against infinite recursions.
+     *   e.g. #[A[[#[B[[#[A[[...]]...]]...]]
+     * @param  model    Compiled model
+     * @param  values   Normalized values
+     * @param  excludes Scopes excluded from the recursion
+     * @param  clean    {@code true} for final cleanup
+     * @param  output   Buffer of the text
+     * @param  segments Remaining segments, only without {@code clean}
+     * @throws IOException
+     *     In case of faulty data streams of the buffer
+     */
+    private void assemble(Object[] model, Map values, String[] excludes, boolean clean,
+            Buffer output, ArrayList segments)
+            throws IOException {
+
+        for (int loop = 0; loop < model.length; loop++) {
+
+            Object segment = model[loop];
+            if (segment instanceof byte[]) {
+                output.write((byte[])segment, 0, ((byte[])segment).length);
                 continue;
             }
 
-            // model is rebuilt with the patch
-            byte[] cache = new byte[model.length -offset +patch.length];
-            System.arraycopy(model, 0, cache, 0, cursor);
-            System.arraycopy(patch, 0, cache, cursor, patch.length);
-            System.arraycopy(model, cursor +offset, cache, cursor +patch.length, model.length -cursor -offset);
-            model = cache;
-            
-            cursor += patch.length;
+            // the placeholders of not transmitted keys are ignored, with the
+            // option clean, the placeholders are deleted
+            String scope = (String)segment;
+            if (!values.containsKey(scope)) {
+                if (!clean) {
+                    output.segment(segments);
+                    segments.add(scope);
+                }
+                continue;
+            }
+
+            boolean structure = this.scopes.containsKey(scope);
+            for (int index = 0; structure && index < excludes.length; index++)
+                structure = !excludes[index].equals(scope);
+
+            // If the key is a structure and the value is a map with values,
+            // then is filled recursively. Collections generate complex
+            // structures/tables through deep, repetitive recursive generation.
+            Object object = values.get(scope);
+            if (structure
+                    && (object instanceof Map
+                            || object instanceof Collection)) {
+                String[] nested = Arrays.copyOf(excludes, excludes.length +1);
+                nested[excludes.length] = scope;
+                Object[] fragment = (Object[])this.scopes.get(scope);
+                Iterator iterator = object instanceof Map
+                        ? Collections.singleton(object).iterator() : ((Collection)object).iterator();
+                while (iterator.hasNext()) {
+                    object = iterator.next();
+                    if (object instanceof Map) {
+                        this.assemble(fragment, Generator.normalize((Map)object), nested, true, output, null);
+                    } else if (object instanceof byte[]) {
+                        output.write((byte[])object, 0, ((byte[])object).length);
+                    } else if (object != null) {
+                        byte[] bytes = String.valueOf(object).getBytes();
+                        output.write(bytes, 0, bytes.length);
+                    }
+                }
+            } else if (object instanceof byte[]) {
+                output.write((byte[])object, 0, ((byte[])object).length);
+            } else if (object != null) {
+                byte[] bytes = String.valueOf(object).getBytes();
+                output.write(bytes, 0, bytes.length);
+            }
+
+            // for structures, the placeholder is retained for reuse
+            if (!clean && structure) {
+                output.segment(segments);
+                segments.add(scope);
+            }
         }
-        
-        return model;
     }
 
     /**
@@ -343,25 +596,12 @@ public class Generator {
      * @param  clean  {@code true} for final cleanup
      * @return the filled model (structure)
      */
-    private byte[] assemble(String scope, Map values, boolean clean) {
-        
-        byte[] cache;
-        byte[] model;
-        byte[] patch;
+    private Object[] assemble(String scope, Map values, boolean clean) {
 
         if (this.model == null)
-            return new byte[0];
-
-        // Normalization of the values (lower case + smoothing of the keys)
-        if (values == null)
-            values = new HashMap();
-        values = new HashMap(values);
+            return new Object[0];
 
-        Iterator iterator = new HashMap(values).keySet().iterator();
-        while (iterator.hasNext()) {
-            String label = (String)iterator.next();
-            values.put(label.toLowerCase().trim(), values.get(label));
-        }
+        values = Generator.normalize(values);
 
         // Optionally the scope is determined.
         if (scope != null) {
@@ -373,121 +613,21 @@ public class Generator {
 
             // Scopes are prepared independently and later processed like a
             // simple but exclusive placeholder.
-            patch = this.extract(scope, values);
-            
+            byte[] patch = this.extract(scope, values);
+
             values.clear();
             values.put(scope, patch);
         }
-        
-        for (int cursor = 0; true;) {
-            int offset = Generator.scan(this.model, cursor++);
-            if (offset < 0)
-                break;
-            if (offset == 0)
-                continue;
-                
-            cursor--;
-
-            patch = new byte[0];
-            scope = new String(this.model, cursor, offset);
-            if (scope.matches("^(?i)#\\[[a-z]([\\w-]*\\w)?\\]$")) {
-                scope = scope.substring(2, scope.length() -1);
-
-                // the placeholders of not transmitted keys are ignored, with
-                // the option clean, the placeholders are deleted
-                if (!values.containsKey(scope)
-                        && !clean) {
-                    cursor += scope.length() +3 +1;
-                    continue;
-                }
-
-                // patch is determined by the key
-                Object object = values.get(scope);
-
-                // If the key is a structure and the value is a map with
-                // values, then is filled recursively. To protect against
-                // infinite recursions, the current scope is removed from the
-                // value list.
-                //   e.g. #[A[[#[B[[#[A[[...]]...]]...]]
-                if (this.scopes.containsKey(scope)
-                        && object instanceof Map) {
-                    patch = this.extract(scope, (Map)object);
-                } else if (this.scopes.containsKey(scope)
-                        && object instanceof Collection) {
-                    // Collection generate complex structures/tables through
-                    // deep, repetitive recursive generation.
-                    iterator = ((Collection)object).iterator();
-                    while (iterator.hasNext()) {
-                        object = iterator.next();
-                        if (object instanceof Map) {
-                            model = this.extract(scope, (Map)object);
-                        } else if (object instanceof byte[]) {
-                            model = (byte[])object;
-                        } else if (object != null) {
-                            model = String.valueOf(object).getBytes();
-                        } else continue;
-                        cache = new byte[patch.length +model.length];
-                        System.arraycopy(patch, 0, cache, 0, patch.length);
-                        System.arraycopy(model, 0, cache, patch.length, model.length);
-                        patch = cache; 
-                    }
-                } else if (object instanceof byte[]) {
-                    patch = (byte[])object;
-                } else if (object != null) {
-                    patch = String.valueOf(object).getBytes();
-                }
-                
-                if (!clean) {
 
-                    // if necessary the # characters are encoded to protect the
-                    // placeholders and structure in the model
-                    for (int index = 0; index < patch.length;) {
-                        if (patch[index++] != '#')
-                            continue;
-                        cache = new byte[patch.length +6];
-                        System.arraycopy(patch, 0, cache, 0, index);
-                        System.arraycopy(("[0x23]").getBytes(), 0, cache, index, 6);
-                        System.arraycopy(patch, index, cache, index +6, patch.length -index);
-                        patch = cache;
-                    }
-                    
-                    if (this.scopes.containsKey(scope)) {
-                        scope = ("#[").concat(scope).concat("]");
-                        cache = new byte[patch.length +scope.length()];
-                        System.arraycopy(patch, 0, cache, 0, patch.length);
-                        System.arraycopy(scope.getBytes(), 0, cache, patch.length, scope.length());
-                        patch = cache;
-                    }
-                }
-                
-            } else if (scope.matches("^(?i)#\\[0x([0-9A-F]{2})+\\]$")) {
-
-                // Hexadecimal placeholders are only resolved with the option
-                // clean, because the encoded sequences may contain unwanted
-                // (control-)characters, which hinders rendering.
-                if (!clean) {
-                    cursor += scope.length() +1;
-                    continue;            
-                }
-
-                // hexadecimal code is converted into bytes
-                scope = scope.substring(4, scope.length() -1);
-                scope = ("ff").concat(scope);
-                patch = new BigInteger(scope, 16).toByteArray();
-                patch = Arrays.copyOfRange(patch, 2, patch.length);                
-            }
-
-            // model is rebuilt with the patch
-            cache = new byte[this.model.length -offset +patch.length];
-            System.arraycopy(this.model, 0, cache, 0, cursor);
-            System.arraycopy(patch, 0, cache, cursor, patch.length);
-            System.arraycopy(this.model, cursor +offset, cache, cursor +patch.length, this.model.length -cursor -offset);
-            this.model = cache;
-            
-            cursor += patch.length;
+        // without output stream the buffer does not cause errors
+        Buffer output = new Buffer(null);
+        ArrayList segments = new ArrayList();
+        try {this.assemble(this.model, values, new String[0], clean, output, segments);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
         }
-        
-        return this.model;
+        output.segment(segments);
+        return segments.toArray();
     }
 
     /**
@@ -503,7 +643,10 @@ public class Generator {
      * @return the currently filled template
      */
     public byte[] extract() {
-        return this.assemble(null, null, true).clone();
+        this.model = this.assemble(null, null, true);
+        if (this.model.length <= 0)
+            return new byte[0];
+        return ((byte[])this.model[0]).clone();
     }
 
     /**
@@ -532,15 +675,101 @@ public class Generator {
         if (scope == null
                 || !scope.matches("^[a-z]([\\w-]*\\w)?$"))
             return new byte[0];
-        
-        // Structures are partially filled with a copy of the generator.
-        // In case the specified structure is not included as a scope, the
-        // assemble-method can also handle generators without a model.
-        Generator generator = new Generator();
-        generator.scopes = (HashMap)this.scopes.clone();
-        generator.scopes.remove(scope);
-        generator.model = (byte[])this.scopes.get(scope);
-        return generator.assemble(null, values, true);
+
+        // Structures are filled without the structure itself as scope. In
+        // case the specified structure is not included as a scope, there is
+        // nothing to fill.
+        Object[] model = (Object[])this.scopes.get(scope);
+        if (model == null)
+            return new byte[0];
+
+        // without output stream the buffer does not cause errors
+        Buffer output = new Buffer(null);
+        try {this.assemble(model, Generator.normalize(values), new String[] {scope}, true, output, null);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Writes the currently filled template to an output stream. All
+     * outstanding placeholders are removed. Unlike {@link #extract()}, the
+     * content is not held completely, but written in blocks via a limited
+     * buffer, and the model of the template remains unchanged.
+     * @param  output Output stream
+     * @return the number of written bytes
+     * @throws IOException
+     *     In case of faulty data streams
+     */
+    public long write(OutputStream output)
+            throws IOException {
+
+        Buffer buffer = new Buffer(output);
+        this.assemble(this.model, new HashMap(), new String[0], true, buffer, null);
+        buffer.flush();
+        return buffer.volume;
+    }
+
+    /**
+     * Writes the currently filled template to a channel.
+     * @param  channel Channel
+     * @return the number of written bytes
+     * @throws IOException
+     *     In case of faulty data streams
+     * @see    #write(OutputStream)
+     */
+    public long write(WritableByteChannel channel)
+            throws IOException {
+        return this.write(Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Extracts a specified structure, sets the data there and writes it to an
+     * output stream. The structure is written in blocks via a limited buffer,
+     * so that large collections are not held completely. The data of the
+     * template are not affected by this.
+     * @param  scope  Scope
+     * @param  values List of values
+     * @param  output Output stream
+     * @return the number of written bytes, 0 if the structure cannot be
+     *     determined
+     * @throws IOException
+     *     In case of faulty data streams
+     */
+    public long write(String scope, Map values, OutputStream output)
+            throws IOException {
+
+        if (scope != null)
+            scope = scope.toLowerCase().trim();
+        if (scope == null
+                || !scope.matches("^[a-z]([\\w-]*\\w)?$"))
+            return 0;
+
+        Object[] model = (Object[])this.scopes.get(scope);
+        if (model == null)
+            return 0;
+        Buffer buffer = new Buffer(output);
+        this.assemble(model, Generator.normalize(values), new String[] {scope}, true, buffer, null);
+        buffer.flush();
+        return buffer.volume;
+    }
+
+    /**
+     * Extracts a specified structure, sets the data there and writes it to a
+     * channel.
+     * @param  scope   Scope
+     * @param  values  List of values
+     * @param  channel Channel
+     * @return the number of written bytes, 0 if the structure cannot be
+     *     determined
+     * @throws IOException
+     *     In case of faulty data streams
+     * @see    #write(String, Map, OutputStream)
+     */
+    public long write(String scope, Map values, WritableByteChannel channel)
+            throws IOException {
+        return this.write(scope, values, Channels.newOutputStream(channel));
     }
 
     /**
@@ -564,4 +793,109 @@ public class Generator {
             return;
         this.model = this.assemble(scope, values, false);
     }
-}
\ No newline at end of file
+
+    /**
+     * Buffer of the text during filling. The buffer grows with the content.
+     * With an output stream, the buffer is limited and written in blocks to
+     * the output stream when the limit is reached.
+     */
+    private static class Buffer extends OutputStream {
+
+        /** Output stream, otherwise {@code null} */
+        private final OutputStream output;
+
+        /** Data of the buffer */
+        private byte[] bytes;
+
+        /** Current size of the data in the buffer */
+        private int size;
+
+        /** Total number of written bytes */
+        private long volume;
+
+        /**
+         * Constructor, establishes the buffer.
+         * @param output Output stream, otherwise {@code null}
+         */
+        Buffer(OutputStream output) {
+            this.output = output;
+            this.bytes  = new byte[256];
+        }
+
+        /**
+         * Creates space for the specified number of bytes. The buffer is
+         * enlarged, with an output stream up to the limit, after that the
+         * buffer is written. Content that exceeds the limit is not buffered.
+         * @param  length Number of bytes
+         * @throws IOException
+         *     In case of faulty data streams
+         */
+        private void expand(int length)
+                throws IOException {
+            if (this.output != null
+                    && this.size +length > 65535) {
+                this.flush();
+                if (length > 65535)
+                    return;
+            }
+            int capacity = Math.max(this.bytes.length *2, this.size +length);
+            if (this.output != null)
+                capacity = Math.min(capacity, 65535);
+            if (capacity > this.bytes.length)
+                this.bytes = Arrays.copyOf(this.bytes, capacity);
+        }
+
+        @Override
+        public void write(int digit)
+                throws IOException {
+            if (this.size >= this.bytes.length)
+                this.expand(1);
+            this.bytes[this.size++] = (byte)digit;
+            this.volume++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+                throws IOException {
+            if (this.size +length > this.bytes.length)
+                this.expand(length);
+            if (this.size +length > this.bytes.length) {
+                this.output.write(bytes, offset, length);
+            } else {
+                System.arraycopy(bytes, offset, this.bytes, this.size, length);
+                this.size += length;
+            }
+            this.volume += length;
+        }
+
+        @Override
+        public void flush()
+                throws IOException {
+            if (this.output == null
+                    || this.size <= 0)
+                return;
+            this.output.write(this.bytes, 0, this.size);
+            this.size = 0;
+        }
+
+        /**
+         * Adds the collected text as a segment, if available, and resets the
+         * buffer.
+         * @param segments Segments
+         */
+        private void segment(ArrayList segments) {
+            if (this.size <= 0)
+                return;
+            segments.add(this.toByteArray());
+            this.size = 0;
+        }
+
+        /**
+         * Returns the content of the buffer.
+         * @return the content of the buffer
+         */
+        private byte[] toByteArray() {
+            return Arrays.copyOf(this.bytes, this.size);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+
+/**
+ * Header, request header of a worker, which is parsed byte by byte in a
+ * reusable buffer. The data stream is read in blocks, the data after the
+ * header is returned to the data stream, so that the request body remains
+ * untouched. The fields are determined with reading and the lines of the
+ * header are held as a table of positions in the buffer, from which the
+ * request line and the CGI variables are determined. The buffer is reused
+ * for all requests of the worker.
+ */
+class Header {
+
+    /** Maximum size of the header in bytes */
+    static final int LIMIT = 65535;
+
+    /** Maximum size of a line of the header in bytes */
+    static final int LENGTH = 32768;
+
+    /** Data of the header */
+    private final byte[] bytes;
+
+    /** Size of the data of the header */
+    private int size;
+
+    /** Lines of the header as pairs of start and end in the data */
+    private int[] lines;
+
+    /** Number of lines of the header */
+    private int count;
+
+    /** Constructor, creates an empty header. */
+    Header() {
+        this.bytes = new byte[Header.LIMIT];
+        this.lines = new int[64];
+    }
+
+    /**
+     * Reads the header of a request from the data stream. The header ends
+     * with an empty line, the end of the data stream or when the header
+     * exceeds the size limit. The fields of the header are set as
+     * {@code http_*} with the character - replaced by _, the first
+     * occurrence of a field applies. Fields without value are ignored.
+     * @param  input  Data stream
+     * @param  fields Fields of the request
+     * @return the status 413 if the header or a line is too large, otherwise 0
+     * @throws IOException
+     *     In case of faulty data streams
+     */
+    int read(BufferedInputStream input, Section fields)
+            throws IOException {
+
+        this.size  = 0;
+        this.count = 0;
+
+        int status = 0;
+        int start  = -1;
+
+        try {
+
+            for (int digit, length = 0, count = 0, offset = 0, limit = 0, mark = 0; true;) {
+
+                // data are read in blocks, the data stream is marked so that
+                // data after the header can be returned, only the available
+                // data are read so that, as with single bytes, the data read
+                // before an error in the data access are still parsed
+                while (this.size >= limit) {
+                    input.mark(Header.LIMIT);
+                    int size = Math.min(Math.max(input.available(), 1), Header.LIMIT -limit);
+                    size = input.read(this.bytes, limit, size);
+                    if (size < 0)
+                        return status;
+                    mark = limit;
+                    limit += size;
+                }
+
+                digit = this.bytes[this.size] & 0xFF;
+
+                // request is verified for the complete header
+                count = (digit == ((count % 2) == 0 ? 13 : 10)) ? count +1 : 0;
+                if (count > 0
+                        && length > 0
+                        && offset > 0
+                        && this.size > 0) {
+                    this.field(fields, offset, this.size);
+                    offset = this.size;
+                }
+
+                // field length is calculated
+                length = count > 0 ? 0 : length +1;
+                if (length == 1)
+                    offset = this.size;
+
+                // the line of a field from the header must be addressable with
+                // 8 bits (missing regulation in RFC 1945/2616)
+                if (length > Header.LENGTH)
+                    status = 413;
+
+                // lines are separated by CR and LF
+                if (digit == 13 || digit == 10) {
+                    if (start >= 0)
+                        this.append(start, this.size);
+                    start = -1;
+                } else if (start < 0)
+                    start = this.size;
+
+                this.size++;
+
+                // header of the request is limited to 65535 bytes
+                // request is verified for the complete header
+                if (this.size >= Header.LIMIT
+                        && count < 4)
+                    status = 413;
+                else if (count < 4)
+                    continue;
+
+                // data after the header are returned to the data stream
+                if (this.size < limit) {
+                    input.reset();
+                    for (long skip = this.size -mark; skip > 0;) {
+                        long size = input.skip(skip);
+                        if (size <= 0)
+                            break;
+                        skip -= size;
+                    }
+                }
+                return status;
+            }
+
+        } finally {
+            if (start >= 0)
+                this.append(start, this.size);
+            this.trim();
+        }
+    }
+
+    /**
+     * Sets a field of the header from a line, if the field is not already
+     * set. According to RFC 3875 (CGI/1.1 specification) all fields of the
+     * HTTP header as HTTP parameters. For this purpose the character - is
+     * replaced by _ and all parameters are prefixed with http_.
+     * @param  fields Fields of the request
+     * @param  start  Start of the line
+     * @param  end    End of the line
+     * @throws IOException
+     *     In case of unsupported encoding
+     */
+    private void field(Section fields, int start, int end)
+            throws IOException {
+
+        int cursor = start;
+        while (cursor < end && this.bytes[cursor] != ':')
+            cursor++;
+
+        String value = cursor < end ? this.text(cursor +1, end) : "";
+        if (value.length() <= 0)
+            return;
+        String label = ("http_").concat(this.text(start, cursor).replace('-', '_'));
+        if (!fields.contains(label))
+            fields.set(label, value);
+    }
+
+    /**
+     * Appends a line to the table of lines.
+     * @param start Start of the line
+     * @param end   End of the line
+     */
+    private void append(int start, int end) {
+        if (this.count *2 >= this.lines.length) {
+            int[] lines = new int[this.lines.length *2];
+            System.arraycopy(this.lines, 0, lines, 0, this.lines.length);
+            this.lines = lines;
+        }
+        this.lines[this.count *2]    = start;
+        this.lines[this.count *2 +1] = end;
+        this.count++;
+    }
+
+    /**
+     * Limits the table of lines to the header without leading and trailing
+     * whitespace. Lines outside are removed.
+     */
+    private void trim() {
+
+        int start = 0;
+        while (start < this.size && (this.bytes[start] & 0xFF) <= ' ')
+            start++;
+        int end = this.size;
+        while (end > start && (this.bytes[end -1] & 0xFF) <= ' ')
+            end--;
+
+        int count = 0;
+        for (int loop = 0; loop < this.count; loop++) {
+            int from = Math.max(this.lines[loop *2], start);
+            int to   = Math.min(this.lines[loop *2 +1], end);
+            if (from >= to)
+                continue;
+            this.lines[count *2]    = from;
+            this.lines[count *2 +1] = to;
+            count++;
+        }
+        this.count = count;
+    }
+
+    /**
+     * Creates the text of a range of the data without leading and trailing
+     * whitespace.
+     * @param  start Start of the range
+     * @param  end   End of the range
+     * @return the text of the range
+     * @throws IOException
+     *     In case of unsupported encoding
+     */
+    private String text(int start, int end)
+            throws IOException {
+        while (start < end && (this.bytes[start] & 0xFF) <= ' ')
+            start++;
+        while (end > start && (this.bytes[end -1] & 0xFF) <= ' ')
+            end--;
+        return new String(this.bytes, start, end -start, "ISO-8859-1");
+    }
+
+    /**
+     * Returns {@code true} if the header contains no data except whitespace.
+     * @return {@code true} if the header is empty
+     */
+    boolean isEmpty() {
+        return this.count <= 0;
+    }
+
+    /**
+     * Returns the number of lines of the header. Empty lines are not counted,
+     * the first line is the request line.
+     * @return the number of lines of the header
+     */
+    int lines() {
+        return this.count;
+    }
+
+    /**
+     * Returns a line of the header. Empty lines are not counted, the first
+     * line is the request line.
+     * @param  index Index of the line
+     * @return the line of the header
+     * @throws IOException
+     *     In case of unsupported encoding
+     */
+    String line(int index)
+            throws IOException {
+        return new String(this.bytes, this.lines[index *2], this.lines[index *2 +1] -this.lines[index *2], "ISO-8859-1");
+    }
+}
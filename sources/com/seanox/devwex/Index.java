@@ -0,0 +1,145 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Index, holds the rendered directory listings of a server. A listing is held
+ * per directory, template, sorting and options and is valid as long as the
+ * entries of the directory and the template in the catalog are unchanged. The
+ * catalog replaces the entry of the directory when the WatchService reports
+ * changes of the content, also of the size and modification time of the
+ * files, therefore only listings of directories whose content is watched by
+ * the catalog are held, without the catalog nothing is held. Because the
+ * template can use environment variables, the values of the placeholders of
+ * the template are also compared. The held listings are limited by the total
+ * size, if exceeded, the least recently used listings are removed.
+ */
+class Index {
+
+    /** Maximum total size of the listings in bytes */
+    private final long capacity;
+
+    /** Listings in the order of access */
+    private final LinkedHashMap entries;
+
+    /** Current total size of the listings in bytes */
+    private long volume;
+
+    /**
+     * Constructor, establishes the index.
+     * @param capacity Maximum total size of the listings in bytes
+     */
+    Index(long capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.entries  = new LinkedHashMap(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the held listing for a key, if the directory, the template and
+     * the values of the placeholders are unchanged.
+     * @param  key         Key of directory, template, sorting and options
+     * @param  directory   Entry of the directory
+     * @param  template    Entry of the template
+     * @param  environment Environment variables of the request
+     * @return the listing as array of content and entity tag, otherwise
+     *     {@code null}
+     */
+    Object[] lookup(String key, Catalog.Entry directory, File template, Section environment) {
+
+        if (this.capacity <= 0
+                || !directory.isWatched())
+            return null;
+
+        Object[] entry;
+        synchronized (this) {
+            entry = (Object[])this.entries.get(key);
+        }
+        if (entry == null
+                || entry[2] != directory
+                || entry[3] != template
+                || directory.lastModified() != ((Long)entry[4]).longValue())
+            return null;
+
+        String[] names  = (String[])entry[5];
+        String[] values = (String[])entry[6];
+        for (int loop = 0; loop < names.length; loop++)
+            if (!environment.get(names[loop]).equals(values[loop]))
+                return null;
+
+        return entry;
+    }
+
+    /**
+     * Holds a listing and returns it with the entity tag, which is derived
+     * from the content. Listings that exceed the total size or whose directory
+     * is not watched are not held, but also returned with the entity tag.
+     * @param  key         Key of directory, template, sorting and options
+     * @param  directory   Entry of the directory
+     * @param  template    Entry of the template
+     * @param  model       Content of the template
+     * @param  environment Environment variables of the request
+     * @param  bytes       Content of the listing
+     * @return the listing as array of content and entity tag
+     */
+    Object[] store(String key, Catalog.Entry directory, File template, byte[] model, Section environment, byte[] bytes) {
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        String tag = ("\"").concat(Long.toHexString(checksum.getValue())).concat("-")
+                .concat(Integer.toHexString(bytes.length)).concat("\"");
+
+        if (bytes.length > this.capacity
+                || !directory.isWatched())
+            return new Object[] {bytes, tag};
+
+        // the placeholders of the template are determined, whose values can
+        // come from the environment variables
+        String[] names  = Generator.placeholders(model);
+        String[] values = new String[names.length];
+        for (int loop = 0; loop < names.length; loop++)
+            values[loop] = environment.get(names[loop]);
+
+        Object[] entry = new Object[] {bytes, tag, directory, template,
+                new Long(directory.lastModified()), names, values};
+
+        synchronized (this) {
+
+            Object[] remove = (Object[])this.entries.remove(key);
+            if (remove != null)
+                this.volume -= ((byte[])remove[0]).length;
+
+            // the least recently used listings are removed until the listing
+            // fits into the total size
+            Iterator iterator = this.entries.values().iterator();
+            while (iterator.hasNext()
+                    && this.volume +bytes.length > this.capacity) {
+                this.volume -= ((byte[])((Object[])iterator.next())[0]).length;
+                iterator.remove();
+            }
+
+            this.entries.put(key, entry);
+            this.volume += bytes.length;
+        }
+
+        return entry;
+    }
+}
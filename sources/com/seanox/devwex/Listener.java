@@ -0,0 +1,365 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Listener, accepts connections for a server with a selector without blocking
+ * and reads the request header of the connections. Only connections with a
+ * complete request header are passed to the workers, idle connections and
+ * connections of slow clients do not occupy any worker. Persistent connections
+ * are returned to the listener by the workers after the response.<br>
+ * <br>
+ * The listener is used with {@code ENGINE = NIO} for servers without SSL/TLS.
+ */
+class Listener implements Runnable {
+
+    /** Channel of the server */
+    private final ServerSocketChannel channel;
+
+    /** Selector of the connections */
+    private final Selector selector;
+
+    /** Queue of the connections with a complete request header */
+    private final LinkedList queue;
+
+    /** Queue of the connections returned by the workers */
+    private final LinkedList pending;
+
+    /** Timeout for sockets and request in milliseconds */
+    private final long timeout;
+
+    /** Termination of the listener */
+    private volatile boolean closed;
+
+    /**
+     * Constructor, establishes the listener for the channel of a server.
+     * @param  channel Channel of the server
+     * @param  timeout Timeout for sockets and request in milliseconds
+     * @throws IOException
+     *     In case of incorrect channel or selector setup
+     */
+    Listener(ServerSocketChannel channel, long timeout)
+            throws IOException {
+
+        this.channel  = channel;
+        this.timeout  = timeout;
+        this.queue    = new LinkedList();
+        this.pending  = new LinkedList();
+        this.selector = Selector.open();
+
+        this.channel.configureBlocking(false);
+        this.channel.register(this.selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Returns the next connection with a complete request header. The call
+     * blocks until a connection is available or the timeout is exceeded.
+     * The connection is returned as an array with the socket, the data already
+     * read, the indicator of an exceeded timeout and the number of requests
+     * processed so far.
+     * @param  timeout Maximum waiting time in milliseconds, 0 without limit
+     * @return the next connection with a complete request header
+     * @throws InterruptedIOException
+     *     If no connection was available within the timeout
+     * @throws SocketException
+     *     If the listener has been terminated
+     */
+    Object[] accept(long timeout)
+            throws IOException {
+
+        synchronized (this.queue) {
+            if (this.queue.isEmpty()
+                    && !this.closed)
+                try {this.queue.wait(timeout);
+                } catch (InterruptedException exception) {
+                    throw new InterruptedIOException();
+                }
+            if (this.closed)
+                throw new SocketException("Listener closed");
+            if (this.queue.isEmpty())
+                throw new SocketTimeoutException();
+            return (Object[])this.queue.removeFirst();
+        }
+    }
+
+    /**
+     * Returns a persistent connection after the response to the listener,
+     * which waits without blocking for the next request.
+     * @param socket   Socket of the connection
+     * @param idle     Idle time of the connection in milliseconds
+     * @param requests Number of requests processed so far
+     */
+    void release(Socket socket, long idle, int requests) {
+
+        synchronized (this.pending) {
+            this.pending.add(new Object[] {socket.getChannel(),
+                    new Long(idle), new Integer(requests)});
+        }
+        this.selector.wakeup();
+    }
+
+    /** Terminates the listener and closes all connections. */
+    void destroy() {
+        this.closed = true;
+        this.selector.wakeup();
+        synchronized (this.queue) {
+            this.queue.notifyAll();
+        }
+    }
+
+    /**
+     * Registers a connection for reading the request header.
+     * @param channel  Channel of the connection
+     * @param idle     Idle time in milliseconds
+     * @param requests Number of requests processed so far
+     */
+    private void register(SocketChannel channel, long idle, int requests) {
+        try {
+            channel.configureBlocking(false);
+            long deadline = idle > 0 ? System.currentTimeMillis() +idle : 0;
+            channel.register(this.selector, SelectionKey.OP_READ, new Object[] {
+                    new ByteArrayOutputStream(), new Long(deadline),
+                    new Integer(0), new Integer(requests)});
+        } catch (Throwable throwable) {
+            try {channel.close();
+            } catch (Throwable exception) {
+            }
+        }
+    }
+
+    /**
+     * Reads available data of a connection. If the request header is complete,
+     * the limit of the request header is reached or the client has terminated
+     * the data stream, {@code true} is returned.
+     * @param  key    Selection key of the connection
+     * @param  buffer Buffer for reading
+     * @return {@code true} if the connection is ready to be processed
+     * @throws IOException
+     *     In case of faulty data stream
+     */
+    private static boolean read(SelectionKey key, ByteBuffer buffer)
+            throws IOException {
+
+        SocketChannel channel = (SocketChannel)key.channel();
+        Object[] objects = (Object[])key.attachment();
+        ByteArrayOutputStream output = (ByteArrayOutputStream)objects[0];
+        int count = ((Integer)objects[2]).intValue();
+
+        while (true) {
+            buffer.clear();
+            int size = channel.read(buffer);
+            if (size < 0)
+                return true;
+            if (size == 0)
+                break;
+            output.write(buffer.array(), 0, size);
+
+            // end of header is determined with the same logic as in the
+            // worker, the sequence CR LF CR LF completes the header
+            for (int loop = 0; loop < size && count < 4; loop++) {
+                int digit = buffer.get(loop);
+                count = (digit == ((count % 2) == 0 ? 13 : 10)) ? count +1 : 0;
+            }
+
+            // header of the request is limited to 65535 bytes, the worker
+            // responds to exceeding with status 413
+            if (count >= 4
+                    || output.size() >= 65535)
+                return true;
+        }
+
+        objects[2] = new Integer(count);
+        return false;
+    }
+
+    /**
+     * Passes the prepared connections to the workers. The channels are only
+     * switched to blocking mode after the keys have been deregistered.
+     * @param  list Prepared connections
+     * @throws IOException
+     *     In case of faulty selector
+     */
+    private void dispatch(LinkedList list)
+            throws IOException {
+
+        if (list.isEmpty())
+            return;
+
+        // cancelled keys are deregistered with the next selection
+        this.selector.selectNow();
+
+        while (!list.isEmpty()) {
+            Object[] objects = (Object[])list.removeFirst();
+            SocketChannel channel = (SocketChannel)objects[0];
+            try {channel.configureBlocking(true);
+            } catch (Throwable throwable) {
+                try {channel.close();
+                } catch (Throwable exception) {
+                }
+                continue;
+            }
+            objects[0] = channel.socket();
+            synchronized (this.queue) {
+                this.queue.add(objects);
+                this.queue.notify();
+            }
+        }
+    }
+
+    /**
+     * Prepares a connection for the workers.
+     * @param key     Selection key of the connection
+     * @param expired {@code true} if the timeout has been exceeded
+     * @param list    List of prepared connections
+     */
+    private static void prepare(SelectionKey key, boolean expired, LinkedList list) {
+
+        key.cancel();
+
+        Object[] objects = (Object[])key.attachment();
+        ByteArrayOutputStream output = (ByteArrayOutputStream)objects[0];
+
+        // connections without any data are closed without a response, this
+        // corresponds to the behavior of idle persistent connections
+        if (output.size() <= 0) {
+            try {key.channel().close();
+            } catch (Throwable throwable) {
+            }
+            return;
+        }
+
+        list.add(new Object[] {key.channel(), output.toByteArray(),
+                Boolean.valueOf(expired), objects[3]});
+    }
+
+    @Override
+    public void run() {
+
+        // buffer for reading, shared by all connections
+        ByteBuffer buffer = ByteBuffer.allocate(65535);
+
+        LinkedList list = new LinkedList();
+
+        try {
+
+            for (long sweep = 0; !this.closed;) {
+
+                this.selector.select(1000);
+
+                // returned persistent connections are registered again
+                synchronized (this.pending) {
+                    while (!this.pending.isEmpty()) {
+                        Object[] objects = (Object[])this.pending.removeFirst();
+                        this.register((SocketChannel)objects[0],
+                                ((Long)objects[1]).longValue(),
+                                ((Integer)objects[2]).intValue());
+                    }
+                }
+
+                Iterator iterator = this.selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = (SelectionKey)iterator.next();
+                    iterator.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable()) {
+                        for (SocketChannel channel; (channel = this.channel.accept()) != null;)
+                            this.register(channel, this.timeout, 0);
+                    } else if (key.isReadable()) {
+                        try {
+                            if (Listener.read(key, buffer))
+                                Listener.prepare(key, false, list);
+                        } catch (IOException exception) {
+                            key.cancel();
+                            try {key.channel().close();
+                            } catch (Throwable throwable) {
+                            }
+                        }
+                    }
+                }
+
+                // Connections whose timeout has been exceeded are determined
+                // about once per second. Connections with incomplete request
+                // header are passed to the workers, which respond with status
+                // 408, all others are closed.
+                long timing = System.currentTimeMillis();
+                if (timing >= sweep) {
+                    sweep = timing +1000;
+                    iterator = this.selector.keys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = (SelectionKey)iterator.next();
+                        if (!key.isValid()
+                                || !(key.attachment() instanceof Object[]))
+                            continue;
+                        long deadline = ((Long)((Object[])key.attachment())[1]).longValue();
+                        if (deadline > 0
+                                && timing >= deadline)
+                            Listener.prepare(key, true, list);
+                    }
+                }
+
+                this.dispatch(list);
+            }
+
+        } catch (Throwable throwable) {
+            if (!this.closed)
+                Service.print(throwable);
+        }
+
+        this.closed = true;
+
+        // all connections are closed, including those which have not yet been
+        // taken over by a worker
+        try {
+            Iterator iterator = this.selector.keys().iterator();
+            while (iterator.hasNext())
+                try {((SelectionKey)iterator.next()).channel().close();
+                } catch (Throwable throwable) {
+                }
+            this.selector.close();
+        } catch (Throwable throwable) {
+        }
+
+        synchronized (this.queue) {
+            while (!this.queue.isEmpty())
+                try {((Socket)((Object[])this.queue.removeFirst())[0]).close();
+                } catch (Throwable throwable) {
+                }
+            this.queue.notifyAll();
+        }
+        synchronized (this.pending) {
+            while (!this.pending.isEmpty())
+                try {((SocketChannel)((Object[])this.pending.removeFirst())[0]).close();
+                } catch (Throwable throwable) {
+                }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.StringTokenizer;
+
+/**
+ * Policy, compiled rules for the caching headers Cache-Control and Expires of
+ * a server or virtual host. The rules are configured in the section
+ * {@code [SERVER/VIRTUAL:X:CCH]} in the format
+ * {@code NAME = conditions > directives}, where conditions are path prefixes
+ * (beginning with a slash) or media types (also with a wildcard as subtype).
+ * The rules are compiled once into tables, so that a request is determined
+ * via the segments of the path and the media type without scanning the rules.
+ * Path prefixes take precedence over media types, longer path prefixes over
+ * shorter ones and media types over media types with a wildcard.
+ */
+class Policy {
+
+    /** Rules of the path prefixes with the prefix in lower case as key */
+    private final Hashtable paths;
+
+    /** Rules of the media types with the media type in lower case as key */
+    private final Hashtable mediatypes;
+
+    /**
+     * Constructor, compiles the rules of a section.
+     * @param section Section of the rules
+     */
+    Policy(Section section) {
+
+        this.paths      = new Hashtable();
+        this.mediatypes = new Hashtable();
+
+        Enumeration enumeration = section.elements();
+        while (enumeration.hasMoreElements()) {
+
+            // rules without conditions or directives are ignored
+            String rule = section.get((String)enumeration.nextElement());
+            int cursor = rule.indexOf('>');
+            if (cursor < 0)
+                continue;
+            String directives = rule.substring(cursor +1).trim();
+            if (directives.length() <= 0)
+                continue;
+
+            // Expires is derived from max-age, with no-cache and no-store the
+            // content expires immediately, otherwise there is no expiry
+            long expiry = -1;
+            StringTokenizer tokenizer = new StringTokenizer(directives.toLowerCase(), ",");
+            while (tokenizer.hasMoreTokens()) {
+                String directive = tokenizer.nextToken().trim();
+                if (directive.startsWith("max-age=")) {
+                    try {expiry = Long.parseLong(directive.substring(8).trim());
+                    } catch (Throwable throwable) {
+                    }
+                } else if ((directive.equals("no-cache")
+                        || directive.equals("no-store"))
+                        && expiry < 0)
+                    expiry = 0;
+            }
+
+            Object[] entry = new Object[] {directives, new Long(expiry)};
+
+            tokenizer = new StringTokenizer(rule.substring(0, cursor).toLowerCase());
+            while (tokenizer.hasMoreTokens()) {
+                String condition = tokenizer.nextToken();
+                if (condition.startsWith("/")) {
+                    while (condition.length() > 1
+                            && condition.endsWith("/"))
+                        condition = condition.substring(0, condition.length() -1);
+                    this.paths.put(condition, entry);
+                } else if (condition.indexOf('/') > 0)
+                    this.mediatypes.put(condition, entry);
+            }
+        }
+    }
+
+    /**
+     * Determines the rule for a path and a media type.
+     * @param  path      Path of the request
+     * @param  mediatype Media type of the response
+     * @return the rule as array of directives of Cache-Control and the
+     *     seconds until expiry (less than 0 without Expires), otherwise
+     *     {@code null}
+     */
+    Object[] lookup(String path, String mediatype) {
+
+        // the path is shortened segment by segment until a prefix is found
+        if (!this.paths.isEmpty()) {
+            path = path.toLowerCase();
+            while (path.length() > 0) {
+                Object[] entry = (Object[])this.paths.get(path);
+                if (entry != null)
+                    return entry;
+                int cursor = path.lastIndexOf('/');
+                if (cursor < 0)
+                    break;
+                path = cursor > 0 ? path.substring(0, cursor) : path.equals("/") ? "" : "/";
+            }
+        }
+
+        if (this.mediatypes.isEmpty()
+                || mediatype == null)
+            return null;
+        int cursor = mediatype.indexOf(';');
+        if (cursor >= 0)
+            mediatype = mediatype.substring(0, cursor);
+        mediatype = mediatype.trim().toLowerCase();
+        Object[] entry = (Object[])this.mediatypes.get(mediatype);
+        if (entry != null)
+            return entry;
+        cursor = mediatype.indexOf('/');
+        if (cursor < 0)
+            return null;
+        return (Object[])this.mediatypes.get(mediatype.substring(0, cursor).concat("/*"));
+    }
+}
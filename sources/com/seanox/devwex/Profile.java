@@ -0,0 +1,349 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.StringTokenizer;
+import java.util.Vector;
+
+/**
+ * Profile, compiled configuration of a server or a virtual host for the
+ * workers. The profile is established once with the server, and thus also
+ * with each restart, and is shared by all workers of the server. Virtual
+ * hosts are compiled in advance as separate profiles, which already contain
+ * the inheritance of the server configuration.<br>
+ * <br>
+ * The sections of a profile are shared and must not be changed. Changes per
+ * request require a copy of the section.
+ */
+class Profile {
+
+    /** Definitions of access control */
+    final Section access;
+
+    /** Enlargement of server environment variables */
+    final Section environment;
+
+    /** Definitions of filters */
+    final Section filters;
+
+    /** CGI and XCGI applications */
+    final Section interfaces;
+
+    /** Basic configuration */
+    final Section options;
+
+    /** Virtual directories */
+    final Section references;
+
+    /** Media types with the file extension as key */
+    final Section mediatypes;
+
+    /** Status codes */
+    final Section statuscodes;
+
+    /** Size of data blocks in data transfer in bytes */
+    final int blocksize;
+
+    /** Interruption in milliseconds for system processes */
+    final long interrupt;
+
+    /** Timeout for sockets, request, streams in milliseconds */
+    final long timeout;
+
+    /** Idle time of persistent connections in milliseconds */
+    final long keepalive;
+
+    /** Maximum number of requests per connection */
+    final int maxrequests;
+
+    /** Maximum number of partial data ranges per request */
+    final int maxranges;
+
+    /** Maximum number of entries per page of directory listings, 0 without pages */
+    final int indexlimit;
+
+    /** Allowed methods for the header Allow */
+    final String allow;
+
+    /** Cache of the files, shared with the virtual hosts, otherwise {@code null} */
+    final Cache cache;
+
+    /** Metadata of the file system, shared with the virtual hosts */
+    final Catalog catalog;
+
+    /** Compression on the fly, shared with the virtual hosts, otherwise {@code null} */
+    final Compressor compressor;
+
+    /** Rules of the caching headers */
+    final Policy policy;
+
+    /** Compiled references */
+    final Routing routing;
+
+    /** Compiled filters */
+    final Filter filter;
+
+    /** Compiled access control */
+    final Access control;
+
+    /** Section of the rules of the caching headers */
+    private final Section caching;
+
+    /** Rendered directory listings, shared with the virtual hosts */
+    final Index index;
+
+    /** Parsed templates of the status pages, shared with the virtual hosts */
+    final Status status;
+
+    /** Profiles of the virtual hosts with the host as key */
+    private final Hashtable hosts;
+
+    /**
+     * Constructor, compiles the profile of a server and of all virtual hosts
+     * that are assigned to the server.
+     * @param context  Server context
+     * @param settings Configuration
+     */
+    Profile(String context, Settings settings) {
+
+        this(null, context, settings);
+
+        // VIRTUAL - Virtual hosts are determined from all sections and used
+        // if they are assigned to the server or to no specific server. The
+        // hosts are determined first, because in smart mode the access to
+        // unknown sections creates them.
+        Vector vector = new Vector();
+        Enumeration enumeration = settings.elements();
+        while (enumeration.hasMoreElements()) {
+            String string = (String)enumeration.nextElement();
+            if (!string.matches("^VIRTUAL:.*:(ACC|CCH|CGI|ENV|FLT|INI|REF)$"))
+                continue;
+            string = string.substring(8, string.lastIndexOf(':')).trim();
+            if (string.length() > 0
+                    && !vector.contains(string))
+                vector.add(string);
+        }
+
+        enumeration = vector.elements();
+        while (enumeration.hasMoreElements()) {
+            String host = (String)enumeration.nextElement();
+            String server = settings.get(("virtual:").concat(host).concat(":ini")).get("server").toLowerCase();
+            if ((" ").concat(server).concat(" ").contains((" ").concat(context.toLowerCase()).concat(" "))
+                    || server.length() <= 0)
+                this.hosts.put(host, new Profile(this, ("virtual:").concat(host), settings));
+        }
+    }
+
+    /**
+     * Constructor, compiles the profile of a server or of a virtual host, which
+     * then inherits the configuration of the server.
+     * @param profile  Profile of the server, {@code null} for the server
+     * @param context  Context of the server or the virtual host
+     * @param settings Configuration
+     */
+    private Profile(Profile profile, String context, Settings settings) {
+
+        this.access      = Profile.compile(profile == null ? null : profile.access, settings.get(context.concat(":acc")));
+        this.caching     = Profile.compile(profile == null ? null : profile.caching, settings.get(context.concat(":cch")));
+        this.environment = Profile.compile(profile == null ? null : profile.environment, settings.get(context.concat(":env")));
+        this.filters     = Profile.compile(profile == null ? null : profile.filters, settings.get(context.concat(":flt")));
+        this.interfaces  = Profile.compile(profile == null ? null : profile.interfaces, settings.get(context.concat(":cgi")));
+        this.options     = Profile.compile(profile == null ? null : profile.options, settings.get(context.concat(":ini")));
+        this.references  = Profile.compile(profile == null ? null : profile.references, settings.get(context.concat(":ref")));
+
+        this.mediatypes  = profile == null ? Profile.mediatypes(settings.get("mediatypes")) : profile.mediatypes;
+        this.statuscodes = profile == null ? Profile.compile(null, settings.get("statuscodes")) : profile.statuscodes;
+
+        this.policy      = new Policy(this.caching);
+        this.routing     = new Routing(this.references);
+        this.filter      = new Filter(this.filters);
+        this.control     = new Access(this.access, this.references);
+
+        this.hosts = new Hashtable();
+
+        // Invalid values are ignored, then the value of the server applies
+        // for virtual hosts and otherwise the default values.
+
+        // block size to be used for data accesses
+        int blocksize = profile == null ? 65535 : profile.blocksize;
+        try {blocksize = Integer.parseInt(this.options.get("blocksize"));
+        } catch (Throwable throwable) {
+        }
+        this.blocksize = blocksize > 0 ? blocksize : 65535;
+
+        // interruption for system processes
+        long interrupt = profile == null ? 0 : profile.interrupt;
+        try {interrupt = Long.parseLong(this.options.get("interrupt"));
+        } catch (Throwable throwable) {
+        }
+        this.interrupt = interrupt >= 0 ? interrupt : 10;
+
+        // timeout of connection and internal processes
+        long timeout = profile == null ? 0 : profile.timeout;
+        try {timeout = Long.parseLong(this.options.get("timeout"));
+        } catch (Throwable throwable) {
+        }
+        this.timeout = timeout;
+
+        // idle time of persistent connections
+        long keepalive = profile == null ? 0 : profile.keepalive;
+        try {keepalive = Long.parseLong(this.options.get("keepalive"));
+        } catch (Throwable throwable) {
+        }
+        this.keepalive = keepalive;
+
+        // maximum number of requests per connection
+        int maxrequests = profile == null ? 0 : profile.maxrequests;
+        try {maxrequests = Integer.parseInt(this.options.get("maxrequests"));
+        } catch (Throwable throwable) {
+        }
+        this.maxrequests = maxrequests;
+
+        // maximum number of partial data ranges per request
+        int maxranges = profile == null ? 16 : profile.maxranges;
+        try {maxranges = Integer.parseInt(this.options.get("maxranges"));
+        } catch (Throwable throwable) {
+        }
+        this.maxranges = maxranges > 0 ? maxranges : 16;
+
+        // maximum number of entries per page of directory listings
+        int indexlimit = profile == null ? 0 : profile.indexlimit;
+        try {indexlimit = Integer.parseInt(this.options.get("indexlimit"));
+        } catch (Throwable throwable) {
+        }
+        this.indexlimit = Math.max(0, indexlimit);
+
+        // allowed methods are prepared for the header Allow
+        this.allow = String.join(", ", this.options.get("methods").split("\\s+"));
+
+        // The cache of the files is only configured for the server and used
+        // with the virtual hosts, because the files are identified by the
+        // canonical path.
+        if (profile == null) {
+            long capacity = 0;
+            try {capacity = Long.parseLong(this.options.get("cachesize"));
+            } catch (Throwable throwable) {
+            }
+            long limit = 65535;
+            try {limit = Long.parseLong(this.options.get("cachelimit"));
+            } catch (Throwable throwable) {
+            }
+            this.cache = capacity > 0 && limit > 0 ? new Cache(capacity, limit, this.options.get("cachepolicy")) : null;
+        } else this.cache = profile.cache;
+
+        // The catalog of the metadata is also only configured for the server,
+        // without capacity the catalog caches nothing.
+        if (profile == null) {
+            int capacity = 0;
+            try {capacity = Integer.parseInt(this.options.get("metacache"));
+            } catch (Throwable throwable) {
+            }
+            long expiry = 0;
+            try {expiry = Long.parseLong(this.options.get("metaexpiry"));
+            } catch (Throwable throwable) {
+            }
+            this.catalog = new Catalog(capacity, expiry);
+        } else this.catalog = profile.catalog;
+
+        // The compression is also only configured for the server, because the
+        // compressed files are identified by the canonical path, without
+        // compression level there is no compression.
+        if (profile == null) {
+            int level = 0;
+            try {level = Integer.parseInt(this.options.get("compression"));
+            } catch (Throwable throwable) {
+            }
+            long minimum = 1024;
+            try {minimum = Long.parseLong(this.options.get("compressminimum"));
+            } catch (Throwable throwable) {
+            }
+            long capacity = 0;
+            try {capacity = Long.parseLong(this.options.get("compresscache"));
+            } catch (Throwable throwable) {
+            }
+            String types = this.options.get("compresstypes");
+            if (types.trim().length() <= 0)
+                types = "text/* application/javascript application/json application/xml image/svg+xml";
+            this.compressor = level > 0 ? new Compressor(level, types, minimum, capacity) : null;
+        } else this.compressor = profile.compressor;
+
+        // The index of the directory listings is also only configured for the
+        // server, the listings are identified by the canonical path of the
+        // directory and the template. Without capacity nothing is held.
+        if (profile == null) {
+            long capacity = 0;
+            try {capacity = Long.parseLong(this.options.get("indexcache"));
+            } catch (Throwable throwable) {
+            }
+            this.index = new Index(capacity);
+        } else this.index = profile.index;
+
+        // The status pages are also only held for the server, because the
+        // templates are determined via the catalog of the server.
+        this.status = profile == null ? new Status(this.catalog, this.compressor) : profile.status;
+    }
+
+    /**
+     * Creates a section from the section of the server and the section of the
+     * virtual host, which overwrites the section of the server.
+     * @param  section Section of the server, {@code null} for the server
+     * @param  merge   Section to be merged
+     * @return the created section
+     */
+    private static Section compile(Section section, Section merge) {
+        section = section == null ? new Section(true) : (Section)section.clone();
+        return section.merge(merge).freeze();
+    }
+
+    /**
+     * Creates the media types with the file extension as key. For
+     * configuration, it is easier to use the media type as the key, but at
+     * runtime it is easier and faster if the file extension is the key.
+     * Incomplete entries are ignored.
+     * @param  section Section of the media types
+     * @return the created section
+     */
+    private static Section mediatypes(Section section) {
+        Section mediatypes = new Section(true);
+        if (section != null) {
+            Enumeration enumeration = section.elements();
+            while (enumeration.hasMoreElements()) {
+                String string = (String)enumeration.nextElement();
+                StringTokenizer tokenizer = new StringTokenizer(section.get(string));
+                while (tokenizer.hasMoreTokens()) {
+                    String buffer = tokenizer.nextToken().trim();
+                    if (buffer.length() > 0)
+                        mediatypes.set(buffer, string.toLowerCase());
+                }
+            }
+        }
+        return mediatypes.freeze();
+    }
+
+    /**
+     * Returns the profile of a virtual host. If no virtual host exists for the
+     * server, the profile of the server is returned.
+     * @param  host Host
+     * @return the profile of the virtual host, otherwise of the server
+     */
+    Profile locate(String host) {
+        Profile profile = (Profile)this.hosts.get(host.toUpperCase().trim());
+        return profile != null ? profile : this;
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Vector;
+
+/**
+ * Routing, compiled references (virtual directories) of a server or virtual
+ * host from the section {@code [SERVER/VIRTUAL:X:REF]}. The references are
+ * compiled once with alias, target, options and the options of the access
+ * control ({@code [ACC:...]}, {@code [REALM:...]} and {@code [D]}). The
+ * aliases in lower case are held in a radix tree, so that a request
+ * determines the references whose alias is a prefix of the path with one
+ * pass over the path, without parsing all references. The references are
+ * returned in the order of the configuration, because the selection of the
+ * most qualified reference depends on it.
+ */
+class Routing {
+
+    /** Option {@code [A]} of absolute references */
+    static final int ABSOLUTE = 1;
+
+    /** Option {@code [M]} of module references */
+    static final int MODULE = 2;
+
+    /** Option {@code [R]} of redirects */
+    static final int REDIRECT = 4;
+
+    /** Option {@code [C]} of forbidden references */
+    static final int FORBIDDEN = 8;
+
+    /** Option {@code [ACC:...]} of the access control */
+    static final int ACCESS = 16;
+
+    /** Node of the radix tree */
+    private static class Node {
+
+        /** Part of the alias, which leads from the parent node to the node */
+        private String segment;
+
+        /** Child nodes with the first character of the part as key */
+        private HashMap children;
+
+        /** Positions of the references whose alias ends at the node */
+        private int[] entries;
+
+        /**
+         * Constructor, creates the node.
+         * @param segment Part of the alias
+         */
+        Node(String segment) {
+            this.segment  = segment;
+            this.children = new HashMap();
+            this.entries  = new int[0];
+        }
+    }
+
+    /** References as array of alias, target, rules, options of the access control and options */
+    private final Object[][] entries;
+
+    /** Root of the radix tree of the aliases in lower case */
+    private final Node root;
+
+    /**
+     * Constructor, compiles the references of a section. Invalid or
+     * incomplete references are ignored:
+     * <ul>
+     *   <li>without alias</li>
+     *   <li>redirect / module without destination</li>
+     *   <li>alias without destination and options</li>
+     * </ul>
+     * @param section Section of the references
+     */
+    Routing(Section section) {
+
+        this.root = new Node("");
+
+        Vector vector = new Vector();
+        Enumeration enumeration = section.elements();
+        while (enumeration.hasMoreElements()) {
+
+            // rule, alias, target and options are determined
+            String alias;
+            String rules = section.get(((String)enumeration.nextElement()).toLowerCase());
+            int cursor = rules.indexOf('>');
+            if (cursor < 0) {
+                cursor = rules.replace(']', '[').indexOf('[');
+                if (cursor < 0)
+                    continue;
+                alias = rules.substring(0, cursor).trim();
+                rules = rules.substring(cursor).trim();
+            } else {
+                alias = rules.substring(0, cursor).trim();
+                rules = rules.substring(Math.min(cursor +2, rules.length())).trim();
+            }
+
+            String target = Worker.cleanOptions(rules);
+            alias = Worker.fileNormalize(alias);
+
+            // options are determined
+            String string = rules.toUpperCase();
+            int options = 0;
+            if (string.contains("[A]"))
+                options |= Routing.ABSOLUTE;
+            if (string.contains("[M]"))
+                options |= Routing.MODULE;
+            if (string.contains("[R]"))
+                options |= Routing.REDIRECT;
+            if (string.contains("[C]"))
+                options |= Routing.FORBIDDEN;
+            if (string.contains("[ACC:"))
+                options |= Routing.ACCESS;
+
+            if (alias.length() <= 0
+                    || ((options & (Routing.MODULE | Routing.REDIRECT)) != 0 && target.length() <= 0)
+                    || (rules.length() <= 0 && target.length() <= 0))
+                continue;
+
+            // if necessary the alias is extended by slash, so that later
+            // DOCROOT and alias result in a plausible path
+            if (!alias.startsWith("/"))
+                alias = ("/").concat(alias);
+
+            // options of the access control are collected
+            String access = "";
+            if ((options & Routing.ACCESS) != 0) {
+                access = rules.replaceAll("(?i)(\\[(((acc|realm):[^\\[\\]]*?)|d)\\])", "\00$1\01");
+                access = access.replaceAll("[^\01]+(\00|$)", "");
+                access = access.replaceAll("[\00\01]+", " ");
+            }
+
+            this.insert(alias.toLowerCase(), vector.size());
+            vector.add(new Object[] {alias, target, rules, access, new Integer(options)});
+        }
+
+        this.entries = (Object[][])vector.toArray(new Object[0][]);
+    }
+
+    /**
+     * Inserts the position of a reference with the alias into the radix tree.
+     * @param alias Alias in lower case
+     * @param entry Position of the reference
+     */
+    private void insert(String alias, int entry) {
+
+        Node node = this.root;
+        for (int cursor = 0; cursor < alias.length();) {
+
+            Node child = (Node)node.children.get(new Character(alias.charAt(cursor)));
+            if (child == null) {
+                child = new Node(alias.substring(cursor));
+                node.children.put(new Character(alias.charAt(cursor)), child);
+                node = child;
+                break;
+            }
+
+            // length of the common part of the alias and the child node
+            int length = 0;
+            while (length < child.segment.length()
+                    && cursor +length < alias.length()
+                    && child.segment.charAt(length) == alias.charAt(cursor +length))
+                length++;
+
+            // the child node is split at the end of the common part
+            if (length < child.segment.length()) {
+                Node split = new Node(child.segment.substring(0, length));
+                child.segment = child.segment.substring(length);
+                split.children.put(new Character(child.segment.charAt(0)), child);
+                node.children.put(new Character(split.segment.charAt(0)), split);
+                child = split;
+            }
+
+            cursor += length;
+            node = child;
+        }
+
+        int[] entries = new int[node.entries.length +1];
+        System.arraycopy(node.entries, 0, entries, 0, node.entries.length);
+        entries[node.entries.length] = entry;
+        node.entries = entries;
+    }
+
+    /**
+     * Determines the references whose alias in lower case is a prefix of the
+     * path. The path must be in lower case.
+     * @param  path Path in lower case
+     * @return the references in the order of the configuration as array of
+     *     alias, target, rules, options of the access control and options
+     */
+    Object[][] lookup(String path) {
+
+        int[] entries = new int[0];
+        Node node = this.root;
+        for (int cursor = 0; node != null;) {
+
+            if (node.entries.length > 0) {
+                int[] buffer = new int[entries.length +node.entries.length];
+                System.arraycopy(entries, 0, buffer, 0, entries.length);
+                System.arraycopy(node.entries, 0, buffer, entries.length, node.entries.length);
+                entries = buffer;
+            }
+
+            if (cursor >= path.length())
+                break;
+            node = (Node)node.children.get(new Character(path.charAt(cursor)));
+            if (node == null
+                    || !path.startsWith(node.segment, cursor))
+                break;
+            cursor += node.segment.length();
+        }
+
+        Arrays.sort(entries);
+        Object[][] result = new Object[entries.length][];
+        for (int loop = 0; loop < entries.length; loop++)
+            result[loop] = this.entries[entries[loop]];
+        return result;
+    }
+}
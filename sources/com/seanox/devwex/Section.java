@@ -17,9 +17,13 @@
 package com.seanox.devwex;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 /**
@@ -53,7 +57,12 @@ import java.util.StringTokenizer;
  * <br>
  * Sections, keys and values also support a hexadecimal notation, starting with
  * {@code 0x...} followed by the hexadecimal string, which can be used only
- * applied to the whole element.
+ * applied to the whole element.<br>
+ * <br>
+ * Sections of the configuration that are read by many threads are frozen.
+ * Frozen sections are read without locking and, for keys in upper or lower
+ * case, without normalizing the key. Changes then replace the keys as a
+ * whole. Copies share the keys until the first change.
  * 
  * <h3>Example</h3>
  * <pre>
@@ -128,11 +137,23 @@ import java.util.StringTokenizer;
 public class Section implements Cloneable {
 
     /** Map of keys */
-    private LinkedHashMap entries;
+    private volatile LinkedHashMap entries;
+
+    /**
+     * Values of the keys in upper and lower case, only in the frozen state,
+     * otherwise {@code null}
+     */
+    private volatile HashMap index;
 
     /** Option to activate smart mode */
     private final boolean smart;
 
+    /** Option of the frozen state, the keys are replaced instead of changed */
+    private final boolean frozen;
+
+    /** Option of the shared keys, which are copied before the first change */
+    private boolean shared;
+
     /** Constructor, creates Section. */
     public Section() {
         this(false);
@@ -143,8 +164,90 @@ public class Section implements Cloneable {
      * @param smart activates smart mode
      */
     public Section(boolean smart) {
+        this(smart, false);
+    }
+
+    /**
+     * Constructor, creates Section.
+     * @param smart  activates smart mode
+     * @param frozen activates the frozen state
+     */
+    private Section(boolean smart, boolean frozen) {
         this.entries = new LinkedHashMap();
         this.smart   = smart;
+        this.frozen  = frozen;
+    }
+
+    /**
+     * Returns {@code true} for the whitespace of regular expressions
+     * ({@code \s}).
+     * @param  digit Character to check
+     * @return {@code true} for whitespace
+     */
+    static boolean space(char digit) {
+        return digit == ' ' || digit == '\t' || digit == '\n'
+                || digit == '\u000B' || digit == '\f' || digit == '\r';
+    }
+
+    /**
+     * Returns {@code true} for the line terminators of regular expressions,
+     * which are not matched by the dot and before which the end of the line
+     * is recognized.
+     * @param  digit Character to check
+     * @return {@code true} for line terminators
+     */
+    static boolean separator(char digit) {
+        return digit == '\n' || digit == '\r' || digit == '\u0085'
+                || digit == '\u2028' || digit == '\u2029';
+    }
+
+    /**
+     * Skips the whitespace from a position.
+     * @param  string String
+     * @param  cursor Position
+     * @return the position of the first character that is not whitespace
+     */
+    static int skip(String string, int cursor) {
+        while (cursor < string.length()
+                && Section.space(string.charAt(cursor)))
+            cursor++;
+        return cursor;
+    }
+
+    /**
+     * Returns the position of the first line terminator from a position.
+     * @param  string String
+     * @param  cursor Position
+     * @return the position of the first line terminator, otherwise the length
+     *     of the string
+     */
+    private static int terminate(String string, int cursor) {
+        while (cursor < string.length()
+                && !Section.separator(string.charAt(cursor)))
+            cursor++;
+        return cursor;
+    }
+
+    /**
+     * Returns {@code true} if the string corresponds to the hexadecimal
+     * notation {@code 0x...} with complete bytes.
+     * @param  string String to check
+     * @return {@code true} for the hexadecimal notation
+     */
+    static boolean hexadecimal(String string) {
+        int length = string.length();
+        if (length < 4 || length % 2 != 0
+                || string.charAt(0) != '0'
+                || (string.charAt(1) != 'x' && string.charAt(1) != 'X'))
+            return false;
+        for (int loop = 2; loop < length; loop++) {
+            char digit = string.charAt(loop);
+            if ((digit < '0' || digit > '9')
+                    && (digit < 'A' || digit > 'F')
+                    && (digit < 'a' || digit > 'f'))
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -156,11 +259,220 @@ public class Section implements Cloneable {
         if (string == null)
             string = "";
         string = string.trim();
-        if (string.matches("^(?i)0x([0-9A-F]{2})+$"))
+        if (Section.hexadecimal(string))
             return new String(new BigInteger(string.substring(2), 16).toByteArray()).trim();
         return string;
     }
 
+    /**
+     * Returns {@code true} if the key of the line uses an option like
+     * {@code [+]} or {@code [?]}. The option must follow a key without
+     * {@code #}, {@code ;} and {@code =}.
+     * @param  line   Line
+     * @param  option Character of the option
+     * @return {@code true} if the option is used
+     */
+    private static boolean option(String line, char option) {
+        int length = line.length();
+        for (int cursor = 0; cursor < length; cursor++) {
+            char digit = line.charAt(cursor);
+            if (digit == '#' || digit == ';' || digit == '=')
+                return false;
+            if (digit != '[' || cursor <= 0)
+                continue;
+            int inner = Section.skip(line, cursor +1);
+            if (inner >= length || line.charAt(inner) != option)
+                continue;
+            inner = Section.skip(line, inner +1);
+            if (inner < length && line.charAt(inner) == ']'
+                    && Section.terminate(line, inner +1) >= length)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the comment part of a line, beginning with the first {@code #}
+     * or {@code ;} that is followed by no other line terminator than the last
+     * character.
+     * @param  line Line
+     * @return the line without comment part
+     */
+    private static String strip(String line) {
+        int length = line.length();
+        for (int cursor = 0; cursor < length; cursor++) {
+            char digit = line.charAt(cursor);
+            if (digit != '#' && digit != ';')
+                continue;
+            int end = Section.terminate(line, cursor +1);
+            if (end >= length -1)
+                return line.substring(0, cursor).concat(line.substring(end));
+        }
+        return line;
+    }
+
+    /**
+     * Determines the assignment after the key from a position, with the
+     * options optionally following the key, an equal sign and the value.
+     * @param  line   Line
+     * @param  cursor Position after the key
+     * @return the beginning and end of the value (less than 0 without value)
+     *     and the end of the assignment, otherwise {@code null}
+     */
+    private static int[] assign(String line, int cursor) {
+        int[] match = Section.options(line, cursor);
+        if (match == null)
+            match = Section.assignment(line, cursor);
+        return match;
+    }
+
+    /**
+     * Determines one or more options like {@code [+]} from a position and
+     * the following assignment. Longer options are tried before shorter ones
+     * and further options before the assignment.
+     * @param  line   Line
+     * @param  cursor Position of the options
+     * @return the beginning and end of the value (less than 0 without value)
+     *     and the end of the assignment, otherwise {@code null}
+     */
+    private static int[] options(String line, int cursor) {
+
+        int length = line.length();
+        cursor = Section.skip(line, cursor);
+        if (cursor >= length || line.charAt(cursor) != '[')
+            return null;
+        int inner = Section.skip(line, cursor +1);
+        if (inner >= length)
+            return null;
+
+        // the option with one character before the closing bracket
+        if (!Section.separator(line.charAt(inner))) {
+            int end = Section.skip(line, inner +1);
+            if (end < length && line.charAt(end) == ']') {
+                int[] match = Section.assign(line, end +1);
+                if (match != null)
+                    return match;
+            }
+        }
+
+        // the option without character
+        if (line.charAt(inner) == ']')
+            return Section.assign(line, inner +1);
+        return null;
+    }
+
+    /**
+     * Determines the optional assignment with the equal sign from a
+     * position up to the end of the line.
+     * @param  line   Line
+     * @param  cursor Position of the assignment
+     * @return the beginning and end of the value (less than 0 without value)
+     *     and the end of the assignment, otherwise {@code null}
+     */
+    private static int[] assignment(String line, int cursor) {
+
+        int length = line.length();
+        cursor = Section.skip(line, cursor);
+        if (cursor < length && line.charAt(cursor) == '=') {
+            int value = Section.skip(line, cursor +1);
+            int end   = Section.terminate(line, value);
+            if (end >= length -1)
+                return new int[] {value, end, end};
+            return null;
+        }
+
+        if (cursor >= length
+                || (cursor == length -1 && Section.separator(line.charAt(cursor))))
+            return new int[] {-1, -1, cursor};
+        return null;
+    }
+
+    /**
+     * Splits a line into key and value. The key is the shortest beginning
+     * without {@code #}, {@code ;} and {@code =} followed by the assignment.
+     * Lines without valid assignment are used as key and value.
+     * @param  line Line
+     * @return the key and value as array
+     */
+    private static String[] split(String line) {
+
+        int   length = line.length();
+        int   cursor = 0;
+        int[] match  = null;
+        while (match == null && cursor < length) {
+            char digit = line.charAt(cursor++);
+            if (digit == '#' || digit == ';' || digit == '=')
+                break;
+            match = Section.assign(line, cursor);
+        }
+        if (match == null) {
+            cursor = 0;
+            match  = Section.assign(line, 0);
+        }
+        if (match == null)
+            return new String[] {line, line};
+
+        String rest  = line.substring(match[2]);
+        String value = match[0] < 0 ? "" : line.substring(match[0], match[1]);
+        return new String[] {line.substring(0, cursor).concat(rest), value.concat(rest)};
+    }
+
+    /**
+     * Normalizes a key for the comparison regardless of upper/lower case.
+     * @param  string Key
+     * @return the normalized key
+     */
+    private static String fold(String string) {
+        char[] chars = string.toCharArray();
+        for (int loop = 0; loop < chars.length; loop++)
+            chars[loop] = Character.toLowerCase(Character.toUpperCase(chars[loop]));
+        return new String(chars);
+    }
+
+    /**
+     * Determines the value of a key from the system properties and then from
+     * the environment variables regardless of upper/lower case. The keys of
+     * both are indexed once per parsing.
+     * @param  label  Key
+     * @param  system Index of the system properties and environment variables
+     * @return the determined value, otherwise {@code null}
+     */
+    private static String resolve(String label, HashMap[] system) {
+
+        // Value is searched directly in system properties
+        String value = System.getProperty(label);
+        if (value != null)
+            return value;
+
+        if (system[0] == null) {
+            for (int loop = 0; loop < system.length; loop++) {
+                system[loop] = new HashMap();
+                Collection entries = System.getenv().keySet();
+                if (loop == 0)
+                    entries = System.getProperties().keySet();
+                Enumeration enumeration = Collections.enumeration(entries);
+                while (enumeration.hasMoreElements()) {
+                    String entry = (String)enumeration.nextElement();
+                    String key = Section.fold(entry.trim());
+                    if (!system[loop].containsKey(key))
+                        system[loop].put(key, entry);
+                }
+            }
+        }
+
+        // System properties and environment variables are searched for the
+        // key regardless of upper/lower case
+        String key = Section.fold(label);
+        String entry = (String)system[0].get(key);
+        if (entry != null)
+            return System.getProperty(entry, "").trim();
+        entry = (String)system[1].get(key);
+        if (entry == null)
+            return null;
+        value = System.getenv(entry);
+        return value == null ? "" : value.trim();
+    }
+
     /**
      * Determines the contained keys and values from the string.
      * Parsing ignores invalid keys and values and returns the determined keys
@@ -200,6 +512,19 @@ public class Section implements Cloneable {
      * @return the determined sections as Section
      */
     public static Section parse(String text, boolean smart) {
+        return Section.parse(text, smart, new HashMap[2]);
+    }
+
+    /**
+     * Determines the contained keys and values from the string. The index of
+     * the system properties and environment variables is shared by the
+     * sections of a configuration.
+     * @param  text   String to parse
+     * @param  smart  Activates smart mode
+     * @param  system Index of the system properties and environment variables
+     * @return the determined sections as Section
+     */
+    static Section parse(String text, boolean smart, HashMap[] system) {
         
         Section section = new Section(smart);
 
@@ -207,7 +532,7 @@ public class Section implements Cloneable {
             return section;
         
         LinkedHashMap entries = new LinkedHashMap();
-        StringBuffer  buffer  = null;
+        StringBuilder buffer  = null;
 
         int option  = 0;
 
@@ -219,68 +544,37 @@ public class Section implements Cloneable {
             if (!line.startsWith("+")) {
 
                 option = 0;
-                if (line.matches("^[^#;=]+\\[\\s*\\+\\s*\\].*$"))
+                if (Section.option(line, '+'))
                     option |= 1;
-                if (line.matches("^[^#;=]+\\[\\s*\\?\\s*\\].*$"))
+                if (Section.option(line, '?'))
                     option |= 2;
                 
                 // Comment part will be removed if necessary
                 if ((option & 1) == 0)
-                    line = line.replaceAll("[#;].*$", "").trim();
+                    line = Section.strip(line).trim();
 
                 buffer = null;
 
-                String value;
-                String label;
+                // Key and value are determined
+                String[] strings = Section.split(line);
 
-                // Key is determined, decoded if necessary and optimized
-                label = line.replaceAll("^([^#;=]+?)?((?:\\s*\\[\\s*.?\\s*\\])+)?(?:\\s*=\\s*(.*))?\\s*$", "$1");
-                label = Section.decode(label).toUpperCase();
+                // Key is decoded if necessary and optimized
+                String label = Section.decode(strings[0]).toUpperCase();
                 
                 // Only valid keys are applied
                 if (label.length() <= 0)
                     continue;
                 
                 if ((option & 2) != 0) {
-                    
-                    // Value is searched directly in system properties
-                    value = System.getProperty(label);
-                    
-                    // System properties are searched for the key regardless of
-                    // upper/lower case
-                    Enumeration enumeration = Collections.enumeration(System.getProperties().keySet());
-                    while (value == null && enumeration.hasMoreElements()) {
-                        String entry = (String)enumeration.nextElement();
-                        if (!label.equalsIgnoreCase(entry.trim()))
-                            continue;
-                        value = System.getProperty(entry, "").trim();
-                        break;
-                    }
-
-                    // System properties are searched for the key regardless of
-                    // upper/lower case
-                    enumeration = Collections.enumeration(System.getenv().keySet());
-                    while (value == null && enumeration.hasMoreElements()) {
-                        String entry = (String)enumeration.nextElement();
-                        if (!label.equalsIgnoreCase(entry.trim()))
-                            continue;
-                        value = System.getenv(entry);
-                        value = value == null ? "" : value.trim();
-                        break;
-                    }
-                    
+                    String value = Section.resolve(label, system);
                     if (value != null) {
-                        entries.put(label, new StringBuffer(value));
+                        entries.put(label, new StringBuilder(value));
                         continue;
                     }
                 }
                 
-                // Value is determined, decoded if necessary and optimized
-                value = line.trim();
-                value = value.replaceAll("^([^#;=]+?)?((?:\\s*\\[\\s*.?\\s*\\])+)?(?:\\s*=\\s*(.*))?\\s*$", "$3");
-                value = Section.decode(value);
-                
-                buffer = new StringBuffer(value);
+                // Value is decoded if necessary and optimized
+                buffer = new StringBuilder(Section.decode(strings[1]));
                 entries.put(label, buffer);
                 
             } else if (buffer != null) {
@@ -288,8 +582,12 @@ public class Section implements Cloneable {
                 // Content is processed only with valid key
 
                 // Comment part will be removed if necessary
-                if ((option & 1) == 0)
-                    line = line.replaceAll("[#;][^#;]*$", "").trim();
+                if ((option & 1) == 0) {
+                    int cursor = Math.max(line.lastIndexOf('#'), line.lastIndexOf(';'));
+                    if (cursor >= 0)
+                        line = line.substring(0, cursor);
+                    line = line.trim();
+                }
 
                 line = line.substring(1).trim();
                 if (line.length() > 0)
@@ -302,7 +600,7 @@ public class Section implements Cloneable {
         Enumeration enumeration = Collections.enumeration(entries.keySet());
         while (enumeration.hasMoreElements()) {
             String entry = (String)enumeration.nextElement();
-            String value = ((StringBuffer)entries.get(entry)).toString().trim();
+            String value = ((StringBuilder)entries.get(entry)).toString().trim();
             if (value.length() > 0
                     || !smart)
                 section.entries.put(entry, value);
@@ -311,12 +609,125 @@ public class Section implements Cloneable {
         return section;
     }
 
+    /**
+     * Returns {@code true} if the key is already normalized in upper or lower
+     * case, so that the key does not have to be normalized for the lookup in
+     * the values of frozen sections.
+     * @param  key Name of the key
+     * @return {@code true} if the key is already normalized
+     */
+    static boolean plain(String key) {
+
+        int length = key.length();
+        if (length > 0
+                && (key.charAt(0) <= ' '
+                        || key.charAt(length -1) <= ' '))
+            return false;
+
+        boolean upper = false;
+        boolean lower = false;
+        for (int loop = 0; loop < length; loop++) {
+            char digit = key.charAt(loop);
+            if (digit > 0x7F)
+                return false;
+            if (digit >= 'a' && digit <= 'z')
+                lower = true;
+            else if (digit >= 'A' && digit <= 'Z')
+                upper = true;
+        }
+        return !upper || !lower;
+    }
+
+    /**
+     * Creates the values of the keys in upper case and, if the key can be
+     * restored from it, in lower case for the frozen state.
+     * @param  entries Map of keys
+     * @return the values of the keys in upper and lower case
+     */
+    static HashMap index(Map entries) {
+
+        HashMap index = new HashMap(entries.size() *4);
+        Iterator iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            String key = (String)iterator.next();
+            Object value = entries.get(key);
+            index.put(key, value);
+            String alias = key.toLowerCase();
+            if (alias.toUpperCase().equals(key))
+                index.put(alias, value);
+        }
+        return index;
+    }
+
+    /**
+     * Determines the value of a key. In the frozen state without locking and
+     * for keys in upper or lower case without normalizing the key.
+     * @param  key Name of the key
+     * @return the value of the key, otherwise {@code null}
+     */
+    private String lookup(String key) {
+
+        if (key == null)
+            return null;
+
+        if (this.frozen) {
+            HashMap index = this.index;
+            String value = (String)index.get(key);
+            if (value != null
+                    || Section.plain(key))
+                return value;
+            return (String)index.get(key.toUpperCase().trim());
+        }
+
+        key = key.toUpperCase().trim();
+        synchronized (this) {
+            return (String)this.entries.get(key);
+        }
+    }
+
+    /**
+     * Returns the current keys, which are not changed afterwards. Without
+     * frozen state, the keys are copied before the next change.
+     * @return the current keys
+     */
+    private LinkedHashMap snapshot() {
+        if (this.frozen)
+            return this.entries;
+        synchronized (this) {
+            this.shared = true;
+            return this.entries;
+        }
+    }
+
+    /**
+     * Returns the keys to be changed. In the frozen state and with shared
+     * keys, these are a copy. Only with locking.
+     * @return the keys to be changed
+     */
+    private LinkedHashMap modify() {
+        if (this.frozen
+                || this.shared)
+            return (LinkedHashMap)this.entries.clone();
+        return this.entries;
+    }
+
+    /**
+     * Applies the changed keys. Only with locking.
+     * @param entries Changed keys
+     */
+    private void commit(LinkedHashMap entries) {
+        if (this.frozen)
+            this.index = Section.index(entries);
+        this.entries = entries;
+        this.shared  = false;
+    }
+
     /**
      * Returns an enumeration of the keys of all sections.
      * @return the keys of all keys as enumeration
      */
-    public synchronized Enumeration elements() {
-        return Collections.enumeration(this.entries.keySet());
+    public Enumeration elements() {
+        return Collections.enumeration(this.snapshot().keySet());
     }
     
     /**
@@ -324,13 +735,8 @@ public class Section implements Cloneable {
      * @param  key Name of the key
      * @return {@code true} if the key to a value is contained
      */
-    public synchronized boolean contains(String key) {
-        if (key != null)
-            key = key.toUpperCase().trim();
-        if (key == null
-                || key.length() <= 0)
-            return false;
-        return this.entries.containsKey(key);
+    public boolean contains(String key) {
+        return this.lookup(key) != null;
     }
 
     /**
@@ -340,7 +746,7 @@ public class Section implements Cloneable {
      * @return the value of the key, otherwise {@code null} or in smart mode an
      *     empty string
      */
-    public synchronized String get(String key) {
+    public String get(String key) {
         return this.get(key, null);
     }
 
@@ -354,17 +760,9 @@ public class Section implements Cloneable {
      * @return the value of the key, otherwise {@code null} or the alternative
      *     value or in smart mode an empty string
      */
-    public synchronized String get(String key, String alternate) {
+    public String get(String key, String alternate) {
 
-        String value;
-        
-        if (key != null)
-            key = key.toUpperCase().trim();
-        if (key == null
-                || key.length() <= 0)
-            value = null;
-        else value = (String)this.entries.get(key);
-        
+        String value = this.lookup(key);
         if (value == null)
             value = alternate;
         if (value == null
@@ -382,19 +780,25 @@ public class Section implements Cloneable {
      * @param  value Value
      * @return previously assigned value, otherwise {@code null}
      */
-     public synchronized String set(String key, String value) {
+    public String set(String key, String value) {
+
+        if (key == null)
+            return null;
+        key = key.toUpperCase().trim();
+        if (key.length() <= 0)
+            return null;
 
-         if (key == null)
-             return null;
-         key = key.toUpperCase().trim();
-         if (key.length() <= 0)
-             return null;
+        value = value == null ? "" : value.trim();
+        if (value.length() <= 0
+                && this.smart)
+            return this.remove(key);
 
-         value = value == null ? "" : value.trim();
-         if (value.length() <= 0
-                 && this.smart)
-             return (String)this.entries.remove(key);
-         return (String)this.entries.put(key, value);
+        synchronized (this) {
+            LinkedHashMap entries = this.modify();
+            String result = (String)entries.put(key, value);
+            this.commit(entries);
+            return result;
+        }
     }
 
     /**
@@ -402,14 +806,23 @@ public class Section implements Cloneable {
      * @param  key Name of the key to be removed
      * @return previously assigned value, otherwise {@code null}
      */
-     public synchronized String remove(String key) {
-         if (key != null)
-             key = key.toUpperCase().trim();
-         if (key == null
-                 || key.length() <= 0)
-             return null;
-         return (String)this.entries.remove(key);
-     }
+    public String remove(String key) {
+
+        if (key != null)
+            key = key.toUpperCase().trim();
+        if (key == null
+                || key.length() <= 0)
+            return null;
+
+        synchronized (this) {
+            if (!this.entries.containsKey(key))
+                return null;
+            LinkedHashMap entries = this.modify();
+            String result = (String)entries.remove(key);
+            this.commit(entries);
+            return result;
+        }
+    }
 
     /**
      * Merges the passed keys and values. Existing keys are updated and new
@@ -419,42 +832,68 @@ public class Section implements Cloneable {
      * @param  section Key and values to be applied
      * @return the current instance with the merged keys and values
      */
-     public synchronized Section merge(Section section) {
-         
-         if (section == null)
-             return this;
-         
-         // Keys and values are combined or, if necessary, newly created
-         Enumeration enumeration = Collections.enumeration(section.entries.keySet());
-         while (enumeration.hasMoreElements()) {
-             String entry = (String)enumeration.nextElement();
-             String value = section.get(entry);
-             this.set(entry, value);
-             if (value.length() <= 0
-                     && this.smart)
-                 this.remove(entry);
-         }
-         
-         return this;
+    public Section merge(Section section) {
+
+        if (section == null)
+            return this;
+
+        LinkedHashMap source = section.snapshot();
+
+        synchronized (this) {
+
+            // Keys and values are combined or, if necessary, newly created
+            LinkedHashMap entries = this.modify();
+            Enumeration enumeration = Collections.enumeration(source.keySet());
+            while (enumeration.hasMoreElements()) {
+                String entry = (String)enumeration.nextElement();
+                String value = ((String)source.get(entry)).trim();
+                entry = entry.toUpperCase().trim();
+                if (entry.length() <= 0)
+                    continue;
+                if (value.length() <= 0
+                        && this.smart)
+                    entries.remove(entry);
+                else entries.put(entry, value);
+            }
+            this.commit(entries);
+        }
+
+        return this;
     }
 
     /**
      * Returns the number of keys.
      * @return number of keys
      */
-    public synchronized int size() {
-        return this.entries.size();
+    public int size() {
+        if (this.frozen)
+            return this.entries.size();
+        synchronized (this) {
+            return this.entries.size();
+        }
     }
 
     /** Resets Section completely and discards all keys. */
     public synchronized void clear() {
-        this.entries.clear();
+        this.commit(new LinkedHashMap());
+    }
+
+    /**
+     * Creates a frozen copy of the section, which is read without locking.
+     * @return the frozen copy of the section
+     */
+    Section freeze() {
+        Section section = new Section(this.smart, true);
+        section.entries = this.snapshot();
+        section.index   = Section.index(section.entries);
+        return section;
     }
 
     @Override
-    public synchronized Object clone() {
+    public Object clone() {
         Section section = new Section(this.smart);
-        section.entries = (LinkedHashMap)this.entries.clone();
+        section.entries = this.snapshot();
+        section.shared  = true;
         return section;
     }
 }
\ No newline at end of file
@@ -16,11 +16,19 @@
  */
 package com.seanox.devwex;
 
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 import java.security.KeyStore;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Vector;
 
 import javax.net.ssl.KeyManagerFactory;
@@ -48,8 +56,26 @@ public class Server implements Runnable {
     /** Short description of the server */
     private final String caption;
 
-    /** Register of Workers */
-    private final Vector worker;
+    /** Compiled configuration of the server for the workers */
+    private final Profile profile;
+
+    /** Register of idle workers */
+    private final HashSet idle;
+
+    /** Register of busy workers */
+    private final HashSet busy;
+
+    /** Maximum number of workers, 0 without limit */
+    private final int maxaccess;
+
+    /** Minimum number of idle workers */
+    private final int minidle;
+
+    /** Listener of the connections, if NIO is used */
+    private final Listener listener;
+
+    /** Method to start virtual threads, if virtual threads are used */
+    private final Method virtual;
 
     /**
      * Constructor, establishes the server corresponding to the configuration.
@@ -94,6 +120,44 @@ public class Server implements Runnable {
         } catch (Throwable throwable) {
         }
 
+        // SERVER:INI:MAXACCESS - max. number of concurrent connections
+        int maxaccess = 0;
+        try {maxaccess = Integer.parseInt(options.get("maxaccess"));
+        } catch (Throwable throwable) {
+        }
+        this.maxaccess = Math.max(maxaccess, 0);
+
+        // SERVER:INI:MINIDLE - min. number of idle workers, at least one
+        int minidle = 0;
+        try {minidle = Integer.parseInt(options.get("minidle"));
+        } catch (Throwable throwable) {
+        }
+        this.minidle = Math.max(minidle, 1);
+
+        // SERVER:INI:IDLETIME - idle time of surplus workers in milliseconds,
+        // without specification the timeout is used
+        int idletime = 0;
+        try {idletime = Integer.parseInt(options.get("idletime"));
+        } catch (Throwable throwable) {
+        }
+        if (idletime <= 0)
+            idletime = timeout;
+
+        // SERVER:INI:ENGINE - NIO uses a selector for accepting connections and
+        // reading the request headers, VIRTUAL uses a virtual thread for each
+        // connection, otherwise the workers of the pool accept blocking
+        String engine = options.get("engine").toLowerCase();
+        boolean nio = engine.equals("nio");
+
+        // Virtual threads are only available as of Java 21 and are therefore
+        // determined via reflection. Without support, the pool is used.
+        Method virtual = null;
+        if (engine.equals("virtual"))
+            try {virtual = Thread.class.getMethod("startVirtualThread", Runnable.class);
+            } catch (NoSuchMethodException exception) {
+            }
+        this.virtual = virtual;
+
         // SERVER:SSL - If the SSL section is present, a secure socket is used.
         context = this.context.concat(":ssl");
         if (this.settings.contains(context)) {
@@ -132,21 +196,62 @@ public class Server implements Runnable {
                 ((SSLServerSocket)this.socket).setNeedClientAuth(true);
             if (options.get("clientauth").toLowerCase().equals("auto"))
                 ((SSLServerSocket)this.socket).setWantClientAuth(true);
-            
+
+            // NIO is not supported with SSL/TLS, the server uses the blocking
+            // workers, which also handle the handshake
+            this.listener = null;
+
+        } else if (nio) {
+
+            // Establishment of non-secure socket via a channel for the listener
+            ServerSocketChannel channel = ServerSocketChannel.open();
+            channel.socket().bind(new InetSocketAddress(address, port), backlog);
+            this.socket = channel.socket();
+            this.listener = new Listener(channel, timeout);
+
         } else {
 
             // Establishment of non-secure socket
             this.socket = new ServerSocket(port, backlog, address);
+            this.listener = null;
         }
         
-        this.socket.setSoTimeout(timeout);
+        // With virtual threads, the server accepts the connections itself and
+        // monitors the workers in between, which requires a short timeout.
+        // Otherwise, the timeout corresponds to the idle time of the workers,
+        // after which surplus workers are terminated.
+        this.socket.setSoTimeout(this.virtual != null ? 25 : idletime);
 
         // Server short description is composed
         this.caption = ("TCP ").concat(this.socket.getInetAddress().getHostAddress())
                 .concat(":").concat(String.valueOf(port));
 
-        // The register of workers is established.
-        this.worker = new Vector(256, 256);
+        // The configuration for the workers is compiled once, including the
+        // virtual hosts, and is shared by all workers.
+        this.profile = new Profile(this.context, this.settings);
+
+        // SERVER:INI:CACHEPRELOAD - Files are loaded into the cache at the
+        // start, paths are relative to the document directory.
+        if (this.profile.cache != null) {
+            String docroot = this.profile.options.get("docroot");
+            this.profile.cache.preload(new File(docroot.length() > 0 ? docroot : "."),
+                    this.profile.options.get("cachepreload"));
+        }
+
+        // The registers of workers are established.
+        this.idle = new HashSet();
+        this.busy = new HashSet();
+    }
+
+    /**
+     * Returns the counters of the cache as a short description of the server.
+     * Without cache {@code null} is returned.
+     * @return the counters of the cache, otherwise {@code null}
+     */
+    public String statistics() {
+        if (this.profile.cache == null)
+            return null;
+        return this.caption.concat(" ").concat(this.profile.cache.expose());
     }
 
     /**
@@ -159,83 +264,186 @@ public class Server implements Runnable {
 
     /** Terminates the server as thread. */
     public void destroy() {
+        if (this.listener != null)
+            this.listener.destroy();
         try {this.socket.close();
         } catch (Throwable throwable) {
         }
+        synchronized (this.busy) {
+            this.busy.notifyAll();
+        }
+        this.profile.catalog.destroy();
+    }
+
+    /**
+     * Registers a worker as busy after it has accepted a connection. The
+     * server is notified immediately, so that further workers are established
+     * if the number of idle workers falls below MINIDLE.
+     * @param worker Worker
+     */
+    void engage(Worker worker) {
+        synchronized (this.busy) {
+            this.idle.remove(worker);
+            this.busy.add(worker);
+            this.busy.notify();
+        }
+    }
+
+    /**
+     * Registers a worker as idle after its connection has ended.
+     * @param worker Worker
+     */
+    void release(Worker worker) {
+        synchronized (this.busy) {
+            this.busy.remove(worker);
+            this.idle.add(worker);
+        }
+    }
+
+    /**
+     * Determines whether an idle worker whose idle time has been exceeded is
+     * surplus and should terminate. Then the worker is deregistered directly.
+     * @param  worker Worker
+     * @return {@code true} if the worker should terminate
+     */
+    boolean expire(Worker worker) {
+        synchronized (this.busy) {
+            if (this.idle.size() <= this.minidle)
+                return false;
+            this.idle.remove(worker);
+            return true;
+        }
+    }
+
+    /**
+     * Deregisters a terminated worker.
+     * @param worker Worker
+     */
+    void dispose(Worker worker) {
+        synchronized (this.busy) {
+            this.idle.remove(worker);
+            this.busy.remove(worker);
+            this.busy.notify();
+        }
+    }
+
+    /** Monitors the busy workers, blocked streams are terminated by them. */
+    private void monitor() {
+        Object[] workers;
+        synchronized (this.busy) {
+            workers = this.busy.toArray();
+        }
+        for (int loop = 0; loop < workers.length; loop++)
+            ((Worker)workers[loop]).available();
     }
 
     @Override
     public void run() {
         
-        // NOTICE - The server uses a simple dynamic pool mechanism. 
-        // A contingent of workers is provided to accept requests. Depending on
-        // the current workload, the contingent is reduced or increased. 
+        // NOTICE - The server uses an event-driven pool. The workers inform
+        // the server when they accept a connection and when it ends. If the
+        // number of idle workers falls below MINIDLE, the server immediately
+        // establishes new workers, limited by MAXACCESS. Surplus idle workers
+        // terminate themselves after IDLETIME. The server only monitors busy
+        // workers and waits without load.
 
         // The server short description is output with the initialization.
         Service.print(("SERVER ").concat(this.caption).concat(" READY"));
 
-        // The server configuration is loaded.
-        Section options = this.settings.get(this.context.concat(":ini"));
-
-        // SERVER:INI:MAXACCESS - max. number of concurrent connections
-        int maxaccess = 0;
-        try {maxaccess = Integer.parseInt(options.get("maxaccess"));
-        } catch (Throwable throwable) {
-        }
+        // With NIO, the listener accepts the connections and reads the request
+        // headers, the workers only process complete requests.
+        if (this.listener != null)
+            new Thread(this.listener).start();
 
         try {
 
-            // The number of additional workers is permanently recalculated.
-            for (int count = 0; !this.socket.isClosed();) {
-
-                boolean control = false;
-
-                // Registered workers are monitored
-                // - expired workers are removed
-                // - unused / excess workers are retired and then disposed
-                // - workers without running thread are removed
-
-                Enumeration enumeration = ((Vector)this.worker.clone()).elements();
-                while (enumeration.hasMoreElements()
-                        && !this.socket.isClosed()) {
-                    Object[] objects = (Object[])enumeration.nextElement();
-                    Thread thread = (Thread)objects[1];
-                    if (!thread.isAlive()
-                            && control)
-                        this.worker.remove(objects);
-                    Worker worker = (Worker)objects[0];
-                    if (worker.available()
-                            && control)
-                        worker.retire();
-                    if (worker.available()
-                            && thread.isAlive())
-                        control = true;
+            // With virtual threads, there is no pool. Each connection is
+            // accepted by the server and processed by its own worker in a
+            // virtual thread. MAXACCESS limits the simultaneous connections,
+            // further requests are parked in the backlog.
+            for (long timing = 0; this.virtual != null && !this.socket.isClosed();) {
+
+                // Busy workers are monitored about every 25 milliseconds,
+                // blocked streams are terminated by the worker.
+                if (System.currentTimeMillis() >= timing) {
+                    timing = System.currentTimeMillis() +25;
+                    this.monitor();
                 }
 
-                // The number of workers to be established subsequently is
-                // based on the last number.
-                count = control ? 0 : maxaccess <= 0 ? 1 : count +count +1;
+                // With MAXACCESS, the server waits until a worker has ended,
+                // with busy workers at most until the next monitoring.
+                synchronized (this.busy) {
+                    if (this.busy.size() >= this.maxaccess
+                            && this.maxaccess > 0) {
+                        long delay = timing -System.currentTimeMillis();
+                        try {
+                            if (delay > 0)
+                                this.busy.wait(delay);
+                        } catch (Throwable throwable) {
+                            this.destroy();
+                        }
+                        continue;
+                    }
+                }
 
-                // If there is no worker, new ones are created, the number is
-                // limited by MAXACCESS, further requests parked in the backlog.
-                for (int loop = count; !this.socket.isClosed() && loop > 0; loop--) {
+                Socket accept;
+                try {accept = this.socket.accept();
+                } catch (InterruptedIOException exception) {
+                    continue;
+                } catch (SocketException exception) {
+                    break;
+                }
 
-                    if (this.worker.size() >= maxaccess
-                            && maxaccess > 0)
-                        break;
+                // The worker is established with the connection, registered
+                // and started as a virtual thread.
+                Worker worker = new Worker(this, this.context, this.socket, this.listener, this.profile);
+                worker.assign(accept);
+                synchronized (this.busy) {
+                    this.busy.add(worker);
+                }
+                this.virtual.invoke(null, worker);
+            }
 
-                    // The worker is established, registered
-                    // and started as a daemon thread.
+            for (long timing = 0; this.virtual == null && !this.socket.isClosed();) {
+
+                // The number of workers to be established is determined from
+                // the idle workers and is limited by MAXACCESS. Without demand,
+                // the server waits for the next event, with busy workers at
+                // most until the next monitoring.
+                int count;
+                synchronized (this.busy) {
+                    count = this.minidle -this.idle.size();
+                    if (this.maxaccess > 0)
+                        count = Math.min(count, this.maxaccess -this.idle.size() -this.busy.size());
+                    if (count <= 0
+                            && !this.socket.isClosed()) {
+                        long delay = timing -System.currentTimeMillis();
+                        try {
+                            if (this.busy.isEmpty())
+                                this.busy.wait();
+                            else if (delay > 0)
+                                this.busy.wait(delay);
+                        } catch (Throwable throwable) {
+                            this.destroy();
+                        }
+                    }
+                }
 
-                    Worker worker = new Worker(this.context, this.socket, (Settings)this.settings.clone());
-                    Thread thread = new Thread(worker);
-                    this.worker.add(new Object[] {worker, thread});
-                    thread.start();
+                // The workers are established, registered as idle and started
+                // as threads.
+                for (; count > 0 && !this.socket.isClosed(); count--) {
+                    Worker worker = new Worker(this, this.context, this.socket, this.listener, this.profile);
+                    synchronized (this.busy) {
+                        this.idle.add(worker);
+                    }
+                    new Thread(worker).start();
                 }
 
-                try {Thread.sleep(25);
-                } catch (Throwable throwable) {
-                    this.destroy();
+                // Busy workers are monitored about every 25 milliseconds,
+                // blocked streams are terminated by the worker.
+                if (System.currentTimeMillis() >= timing) {
+                    timing = System.currentTimeMillis() +25;
+                    this.monitor();
                 }
             }
         } catch (Throwable throwable) {
@@ -247,9 +455,14 @@ public class Server implements Runnable {
         // and the termination is output.
 
         this.destroy();
-        Enumeration enumeration = this.worker.elements();
+        Vector workers = new Vector();
+        synchronized (this.busy) {
+            workers.addAll(this.idle);
+            workers.addAll(this.busy);
+        }
+        Enumeration enumeration = workers.elements();
         while (enumeration.hasMoreElements())
-            ((Worker)((Object[])enumeration.nextElement())[0]).destroy();
+            ((Worker)enumeration.nextElement()).destroy();
         Service.print(("SERVER ").concat(this.caption).concat(" STOPPED"));
     }
 }
\ No newline at end of file
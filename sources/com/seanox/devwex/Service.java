@@ -53,7 +53,8 @@ import java.util.Vector;
  * asynchronously. If the termination is delayed, the runtime container waits
  * for all registered server instances to finish. Optionally, the implementation
  * of the {@code Server.expose()} method to get general information, such as
- * protocol and network connection, is supported.
+ * protocol and network connection, and of the {@code Server.statistics()}
+ * method to get runtime counters, such as those of the cache, is supported.
  * 
  * <h3>Modules</h3>
  * The extensions intended for background activities do not provide any direct
@@ -522,7 +523,7 @@ public class Service implements Runnable, UncaughtExceptionHandler {
                 loader = service.loader;
                 
                 // current configuration is loaded
-                try {service.settings = Settings.parse(new String(Files.readAllBytes(service.configuration.toPath())), true);
+                try {service.settings = Settings.parse(new String(Files.readAllBytes(service.configuration.toPath())), true).freeze();
                 } catch (Throwable throwable) {
                     Service.print("SERVICE CONFIGURATION FAILED");
                     Service.print(throwable);
@@ -727,6 +728,22 @@ public class Service implements Runnable, UncaughtExceptionHandler {
                         caption = object.getClass().getName();                      
                     result = result.concat(String.format("SAPI: %s\r\n", caption));
                 }
+
+                // statistics of the servers are determined via statistics,
+                // servers without statistics are ignored
+                enumeration = service.servers.elements();
+                while (enumeration.hasMoreElements()) {
+                    Object object = ((Object[])enumeration.nextElement())[0];
+                    try {caption = object.getClass().getMethod("statistics").invoke(object);
+                    } catch (Throwable throwable) {
+                        caption = null;
+                    }
+                    if (caption != null)
+                        result = result.concat(String.format("STAT: %s\r\n", caption));
+                }
+
+                // statistics of the shared template cache of the generator
+                result = result.concat(String.format("STAT: %s\r\n", Generator.expose()));
             }
         }
         
@@ -954,4 +971,4 @@ public class Service implements Runnable, UncaughtExceptionHandler {
     public void uncaughtException(Thread thread, Throwable throwable) {
         Service.print(throwable);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
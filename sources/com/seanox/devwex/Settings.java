@@ -19,6 +19,7 @@ package com.seanox.devwex;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.StringTokenizer;
 
@@ -53,7 +54,11 @@ import java.util.StringTokenizer;
  * <br>
  * Sections, keys and values also support a hexadecimal notation, starting with
  * {@code 0x...} followed by the hexadecimal string, which can be used only
- * applied to the whole element.
+ * applied to the whole element.<br>
+ * <br>
+ * The configuration of the service is frozen after loading, then the sections
+ * are read without locking. Changes replace the sections as a whole and copies
+ * share the sections until the first change.
  * 
  * <h3>Example</h3>
  * <pre>
@@ -128,11 +133,23 @@ import java.util.StringTokenizer;
 public class Settings implements Cloneable {
 
     /** Map of sections */
-    private final LinkedHashMap entries;
+    private volatile LinkedHashMap entries;
+
+    /**
+     * Sections with the names in upper and lower case, only in the frozen
+     * state, otherwise {@code null}
+     */
+    private volatile HashMap index;
     
     /** Option to activate smart mode */
     private final boolean smart;
 
+    /** Option of the frozen state, the sections are replaced instead of changed */
+    private final boolean frozen;
+
+    /** Option of the shared sections, which are copied before the first change */
+    private boolean shared;
+
     /** Constructor, creates Settings. */
     public Settings() {
         this(false);
@@ -145,8 +162,18 @@ public class Settings implements Cloneable {
      * @param smart activates smart mode
      */
     public Settings(boolean smart) {
+        this(smart, false);
+    }
+
+    /**
+     * Constructor, creates Settings.
+     * @param smart  activates smart mode
+     * @param frozen activates the frozen state
+     */
+    private Settings(boolean smart, boolean frozen) {
         this.entries = new LinkedHashMap();
         this.smart   = smart;
+        this.frozen  = frozen;
     }
 
     /**
@@ -158,11 +185,99 @@ public class Settings implements Cloneable {
         if (string == null)
             string = "";
         string = string.toUpperCase().trim();
-        if (string.matches("^(?i)0x([0-9a-f]{2})+$"))
+        if (Section.hexadecimal(string))
             return new String(new BigInteger(string.substring(2), 16).toByteArray()).toUpperCase().trim();
         return string;
     }
 
+    /**
+     * Returns {@code true} for characters that end the name of a section or
+     * a derivation ({@code [}, {@code ]}, {@code #} and {@code ;}).
+     * @param  digit Character to check
+     * @return {@code true} for characters that end a name
+     */
+    private static boolean limit(char digit) {
+        return digit == '[' || digit == ']' || digit == '#' || digit == ';';
+    }
+
+    /**
+     * Splits the line of a section into the name and the derivations. The
+     * line is read as a sequence of sections {@code [NAME]} each optionally
+     * followed by {@code EXTENDS} and the derivations. The last name and the
+     * last derivations are used, the remaining characters are appended to the
+     * derivations. Lines with line terminators inside are used as name.
+     * @param  line Line of the section
+     * @return the name and the derivations as array
+     */
+    private static String[] split(String line) {
+
+        String name   = null;
+        String base   = null;
+        int    length = line.length();
+        int    cursor = 0;
+
+        while (cursor < length
+                && line.charAt(cursor) == '[') {
+
+            int end = cursor +1;
+            while (end < length && !Settings.limit(line.charAt(end)))
+                end++;
+            if (end >= length
+                    || end <= cursor +1
+                    || line.charAt(end) != ']')
+                break;
+            name   = line.substring(Math.min(Section.skip(line, cursor +1), end -1), end);
+            cursor = Section.skip(line, end +1);
+
+            // the keyword EXTENDS must be followed by whitespace and the
+            // derivations, which can also consist of the last whitespace
+            if (!Settings.keyword(line, cursor))
+                continue;
+            int space = cursor +7;
+            int start = Section.skip(line, space);
+            if (start <= space)
+                continue;
+            end = start;
+            while (end < length && !Settings.limit(line.charAt(end)))
+                end++;
+            if (end > start) {
+                base   = line.substring(start, end);
+                cursor = end;
+            } else if (start -space > 1) {
+                base   = line.substring(start -1, start);
+                cursor = start;
+            }
+        }
+
+        // the rest of the line must not contain line terminators, except as
+        // last character
+        int end = cursor;
+        while (end < length
+                && !Section.separator(line.charAt(end)))
+            end++;
+        if (end < length -1)
+            return line.split("\00");
+
+        return (name == null ? "" : name).concat(" \00 ")
+                .concat(base == null ? "" : base).concat(line.substring(end)).split("\00");
+    }
+
+    /**
+     * Returns {@code true} if the keyword {@code EXTENDS} is at the position,
+     * regardless of upper/lower case of the ASCII characters.
+     * @param  line   Line
+     * @param  cursor Position
+     * @return {@code true} for the keyword at the position
+     */
+    private static boolean keyword(String line, int cursor) {
+        if (cursor +7 > line.length())
+            return false;
+        for (int loop = 0; loop < 7; loop++)
+            if ((line.charAt(cursor +loop) | 0x20) != "extends".charAt(loop))
+                return false;
+        return true;
+    }
+
     /**
      * Determines the contained sections from the string.
      * Parsing ignores invalid sections, keys and values and returns the
@@ -209,7 +324,8 @@ public class Settings implements Cloneable {
             return settings;
 
         LinkedHashMap entries = new LinkedHashMap();
-        StringBuffer  buffer  = null;
+        StringBuilder buffer  = null;
+        HashMap[]     system  = new HashMap[2];
 
         StringTokenizer tokenizer = new StringTokenizer(text, "\r\n");
         while (tokenizer.hasMoreTokens()) {
@@ -217,14 +333,14 @@ public class Settings implements Cloneable {
             String line = ((String)tokenizer.nextElement()).trim();
             if (line.startsWith("[")) {
                 
-                buffer = new StringBuffer();
+                buffer = new StringBuilder();
                 
                 // The line is processed as follows:
                 //   - the unique/valid name of the section is determined
                 //   - the comment part is removed
                 //   - inadmissible subsequent sections are removed
                 //   - if necessary existing derivations are loaded
-                String[] strings = line.replaceAll("^(?i)(?:\\[\\s*([^\\[\\]\\#;]+)\\s*\\]\\s*(?:extends\\s+([^\\[\\]\\#;]+))*)*.*$", "$1 \00 $2").split("\00");
+                String[] strings = Settings.split(line);
                 
                 // The section will be decoded and optimized if necessary but
                 // only valid sections will be loaded
@@ -234,9 +350,14 @@ public class Settings implements Cloneable {
                 entries.put(section, buffer);
                 
                 // Any existing derivations are registered and loaded
-                strings = strings[1].split("\\s+");
-                for (int index = 0; index < strings.length; index++) {
-                    section = Settings.decode(strings[index]);
+                String base = strings[1];
+                for (int cursor = 0; cursor < base.length();) {
+                    int start = Section.skip(base, cursor);
+                    cursor = start;
+                    while (cursor < base.length()
+                            && !Section.space(base.charAt(cursor)))
+                        cursor++;
+                    section = Settings.decode(base.substring(start, cursor));
                     if (entries.containsKey(section))
                         buffer.append("\r\n").append(entries.get(section));
                 }
@@ -251,21 +372,84 @@ public class Settings implements Cloneable {
         Enumeration enumeration = Collections.enumeration(entries.keySet());
         while (enumeration.hasMoreElements()) {
             String section = (String)enumeration.nextElement();
-            String value   = ((StringBuffer)entries.get(section)).toString().trim();
+            String value   = ((StringBuilder)entries.get(section)).toString().trim();
             if (value.length() > 0
                     || !smart)
-                settings.entries.put(section, Section.parse(value, smart));
+                settings.entries.put(section, Section.parse(value, smart, system));
         }
 
         return settings;
     }
 
+    /**
+     * Determines the section of a name. In the frozen state without locking
+     * and for names in upper or lower case without normalizing the name.
+     * @param  key Section name
+     * @return the section, otherwise {@code null}
+     */
+    private Section lookup(String key) {
+
+        if (key == null)
+            return null;
+
+        if (this.frozen) {
+            HashMap index = this.index;
+            Section section = (Section)index.get(key);
+            if (section != null
+                    || Section.plain(key))
+                return section;
+            return (Section)index.get(key.toUpperCase().trim());
+        }
+
+        key = key.toUpperCase().trim();
+        synchronized (this) {
+            return (Section)this.entries.get(key);
+        }
+    }
+
+    /**
+     * Returns the current sections, which are not changed afterwards. Without
+     * frozen state, the sections are copied before the next change.
+     * @return the current sections
+     */
+    private LinkedHashMap snapshot() {
+        if (this.frozen)
+            return this.entries;
+        synchronized (this) {
+            this.shared = true;
+            return this.entries;
+        }
+    }
+
+    /**
+     * Returns the sections to be changed. In the frozen state and with shared
+     * sections, these are a copy. Only with locking.
+     * @return the sections to be changed
+     */
+    private LinkedHashMap modify() {
+        if (this.frozen
+                || this.shared)
+            return (LinkedHashMap)this.entries.clone();
+        return this.entries;
+    }
+
+    /**
+     * Applies the changed sections. Only with locking.
+     * @param entries Changed sections
+     */
+    private void commit(LinkedHashMap entries) {
+        if (this.frozen)
+            this.index = Section.index(entries);
+        this.entries = entries;
+        this.shared  = false;
+    }
+
     /**
      * Returns an enumeration of the keys of all sections.
      * @return the keys of all sections as enumeration
      */
-    public synchronized Enumeration elements() {
-        return Collections.enumeration(this.entries.keySet());
+    public Enumeration elements() {
+        return Collections.enumeration(this.snapshot().keySet());
     }
 
     /**
@@ -273,13 +457,8 @@ public class Settings implements Cloneable {
      * @param  key Section name
      * @return {@code true} if the key to a section is contained
      */
-    public synchronized boolean contains(String key) {
-        if (key != null)
-            key = key.toUpperCase().trim();
-        if (key == null
-                || key.length() <= 0)
-            return false;
-        return this.entries.containsKey(key);
+    public boolean contains(String key) {
+        return this.lookup(key) != null;
     }
 
     /**
@@ -290,21 +469,26 @@ public class Settings implements Cloneable {
      * @param  key Section name
      * @return the determined section, otherwise {@code null} 
      */
-    public synchronized Section get(String key) {
+    public Section get(String key) {
 
-        if (key != null)
-            key = key.toUpperCase().trim();
-        if (key == null
-                || key.length() <= 0)
+        Section section = this.lookup(key);
+        if (section != null
+                || !this.smart
+                || key == null)
+            return section;
+
+        key = key.toUpperCase().trim();
+        if (key.length() <= 0)
             return null;
-        
-        Section section = (Section)this.entries.get(key);
-        if (section == null
-                && this.smart) {
-            section = new Section(true);
-            this.set(key, section);
+
+        synchronized (this) {
+            section = (Section)this.entries.get(key);
+            if (section == null) {
+                section = new Section(true);
+                this.set(key, section);
+            }
+            return section;
         }
-        return section;
     }
 
     /**
@@ -316,7 +500,7 @@ public class Settings implements Cloneable {
      * @param  section Section
      * @return previously assigned section, otherwise {@code null}
      */
-    public synchronized Section set(String key, Section section) {
+    public Section set(String key, Section section) {
 
         if (key == null)
             return null;
@@ -326,10 +510,16 @@ public class Settings implements Cloneable {
         
         if (section == null
                 && !this.smart)
-            return (Section)this.entries.remove(key);
+            return this.remove(key);
         if (section == null)
             section = new Section(this.smart);
-        return (Section)this.entries.put(key, section);
+
+        synchronized (this) {
+            LinkedHashMap entries = this.modify();
+            Section result = (Section)entries.put(key, section);
+            this.commit(entries);
+            return result;
+        }
     }
 
     /**
@@ -337,13 +527,22 @@ public class Settings implements Cloneable {
      * @param  key Name of the section to be removed
      * @return previously assigned section, otherwise {@code null}
      */
-    public synchronized Section remove(String key) {
+    public Section remove(String key) {
+
         if (key != null)
             key = key.toUpperCase().trim();
         if (key == null
                 || key.length() <= 0)
             return null;
-        return (Section)this.entries.remove(key);
+
+        synchronized (this) {
+            if (!this.entries.containsKey(key))
+                return null;
+            LinkedHashMap entries = this.modify();
+            Section result = (Section)entries.remove(key);
+            this.commit(entries);
+            return result;
+        }
     }
 
     /**
@@ -360,14 +559,15 @@ public class Settings implements Cloneable {
             return this;
 
         // Sections are combined or, if necessary, newly created
-        Enumeration enumeration = Collections.enumeration(settings.entries.keySet());
+        LinkedHashMap source = settings.snapshot();
+        Enumeration enumeration = Collections.enumeration(source.keySet());
         while (enumeration.hasMoreElements()) {
             String entry = (String)enumeration.nextElement();
-            Section source = (Section)settings.get(entry).clone();
+            Section section = (Section)((Section)source.get(entry)).clone();
             Section target = this.get(entry);
             if (target == null)
                 target = new Section(this.smart);
-            this.set(entry, target.merge(source));
+            this.set(entry, target.merge(section));
             if (target.size() <= 0
                     && this.smart)
                 this.remove(entry);
@@ -380,22 +580,44 @@ public class Settings implements Cloneable {
      * Returns the number of sections.
      * @return number of sections
      */
-    public synchronized int size() {
-        return this.entries.size();
+    public int size() {
+        if (this.frozen)
+            return this.entries.size();
+        synchronized (this) {
+            return this.entries.size();
+        }
     }
 
     /** Resets Settings completely and discards all sections. */
     public synchronized void clear() {
-        this.entries.clear();
+        this.commit(new LinkedHashMap());
+    }
+
+    /**
+     * Creates a frozen copy of the settings with frozen copies of the
+     * sections, which are read without locking.
+     * @return the frozen copy of the settings
+     */
+    Settings freeze() {
+        Settings settings = new Settings(this.smart, true);
+        LinkedHashMap entries = this.snapshot();
+        Enumeration enumeration = Collections.enumeration(entries.keySet());
+        while (enumeration.hasMoreElements()) {
+            String entry = (String)enumeration.nextElement();
+            settings.entries.put(entry, ((Section)entries.get(entry)).freeze());
+        }
+        settings.index = Section.index(settings.entries);
+        return settings;
     }
 
     @Override
-    public synchronized Object clone() {
+    public Object clone() {
         Settings settings = new Settings(this.smart);
-        Enumeration enumeration = Collections.enumeration(this.entries.keySet());
+        LinkedHashMap entries = this.snapshot();
+        Enumeration enumeration = Collections.enumeration(entries.keySet());
         while (enumeration.hasMoreElements()) {
             String entry = (String)enumeration.nextElement();
-            settings.entries.put(entry, ((Section)this.entries.get(entry)).clone());
+            settings.entries.put(entry, ((Section)entries.get(entry)).clone());
         }
         return settings;
     }
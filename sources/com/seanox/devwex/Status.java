@@ -0,0 +1,136 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Hashtable;
+
+/**
+ * Status, holds the parsed templates of the status pages of a server per
+ * system directory and status code. For a status code, three templates with
+ * decreasing qualification are supported: {@code status-xxx.html},
+ * {@code status-Xxx.html} and {@code status.html}. The determined template is
+ * valid as long as the system directory and the template are unchanged, which
+ * is checked via the time of the last modification and the size in the
+ * catalog. Templates without placeholders are held as static content and,
+ * if requested, also compressed, so that they are only rendered and
+ * compressed once.
+ */
+class Status {
+
+    /** Catalog of the metadata of the server */
+    private final Catalog catalog;
+
+    /** Compression of the server, otherwise {@code null} */
+    private final Compressor compressor;
+
+    /** Templates with system directory and status code as key */
+    private final Hashtable entries;
+
+    /**
+     * Constructor, establishes the status pages.
+     * @param catalog    Catalog of the metadata
+     * @param compressor Compression, otherwise {@code null}
+     */
+    Status(Catalog catalog, Compressor compressor) {
+        this.catalog    = catalog;
+        this.compressor = compressor;
+        this.entries    = new Hashtable();
+    }
+
+    /**
+     * Determines the template for a status code in a system directory. The
+     * entry contains the path of the template, the generator and the names of
+     * the placeholders, for templates without placeholders the static content
+     * instead of the generator.
+     * @param  sysroot System directory
+     * @param  status  Status code
+     * @return the entry as array of path, time of the last modification of
+     *     the system directory, time of the last modification and size of the
+     *     template, generator, names of the placeholders, static content and
+     *     compressed static content
+     */
+    Object[] lookup(String sysroot, String status) {
+
+        String key = sysroot.concat("\00").concat(status);
+        long directory = this.catalog.locate(sysroot).lastModified();
+
+        Object[] entry = (Object[])this.entries.get(key);
+        if (entry != null
+                && ((Long)entry[1]).longValue() == directory) {
+            File file = this.catalog.locate((String)entry[0]);
+            if (file.lastModified() == ((Long)entry[2]).longValue()
+                    && file.length() == ((Long)entry[3]).longValue())
+                return entry;
+        }
+
+        // determination of the template for the server status
+        // three variants with decreasing qualification are supported
+        String resource = sysroot.concat("/status-").concat(status).concat(".html");
+        if (!this.catalog.locate(resource).exists())
+            resource = sysroot.concat("/status-").concat(status.substring(0, 1)).concat("xx.html");
+        if (!this.catalog.locate(resource).exists())
+            resource = sysroot.concat("/status.html");
+
+        File file = this.catalog.locate(resource);
+        long modified = file.lastModified();
+        long length   = file.length();
+
+        byte[] model = null;
+        if (file.isFile()) {
+            try {model = Files.readAllBytes(file.toPath());
+            } catch (Throwable throwable) {
+            }
+        }
+
+        // Without placeholders the content is static and rendered once,
+        // otherwise the generator is held for the placeholders.
+        Generator generator = Generator.parse(model);
+        String[] names = Generator.placeholders(model);
+        byte[] bytes = null;
+        if (names.length <= 0) {
+            bytes = generator.extract();
+            generator = null;
+        }
+
+        entry = new Object[] {resource, new Long(directory), new Long(modified),
+                new Long(length), generator, names, bytes, null};
+        this.entries.put(key, entry);
+
+        return entry;
+    }
+
+    /**
+     * Returns the static content of an entry compressed with gzip. The
+     * content is compressed once and held with the entry.
+     * @param  entry Entry of the template
+     * @return the compressed static content
+     * @throws IOException
+     *     In case of faulty compression
+     */
+    byte[] compress(Object[] entry)
+            throws IOException {
+
+        synchronized (entry) {
+            if (entry[7] == null)
+                entry[7] = this.compressor.compress((byte[])entry[6]);
+            return (byte[])entry[7];
+        }
+    }
+}
@@ -17,7 +17,7 @@
 package com.seanox.devwex;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.net.InetAddress;
@@ -32,21 +33,29 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.PriorityQueue;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 
-import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLSocket;
 
 /**
@@ -59,16 +68,28 @@ import javax.net.ssl.SSLSocket;
  * controlled, it is completely aborted.
  */
 class Worker implements Runnable {
+
+    /** Maximum number of entries held for a page of a directory listing */
+    private static final int DEPTH = 65536;
+
+    /** Prototype of the MD5 digest, which is cloned for each hash */
+    private static MessageDigest digest;
   
+    /** Server of the worker */
+    private final Server server;
+
     /** Server Context */
     private final String context;
 
-    /** Server configuration */
-    private final Settings settings;
+    /** Compiled configuration of the server */
+    private final Profile profile;
 
     /** Socket of the server */
     private ServerSocket socket;
 
+    /** Listener of the server, if the connections are accepted with NIO */
+    private final Listener listener;
+
     /** Accepted socket of the worker */
     private Socket accept;
     
@@ -78,8 +99,8 @@ class Worker implements Runnable {
     /** Data output stream of the accepted socket */
     private OutputStream output;
 
-    /** Access rights of the server */
-    private Section access;
+    /** Compiled access rights of the server */
+    private Access access;
 
     /** Environment variables of the server */
     private Section environment;
@@ -87,8 +108,8 @@ class Worker implements Runnable {
     /** Fields of the request header */
     private Section fields;
 
-    /** Filters of the server */
-    private Section filters;
+    /** Compiled filters of the server */
+    private Filter filter;
 
     /** Common Gateway Interfaces of the server */
     private Section interfaces;
@@ -99,8 +120,8 @@ class Worker implements Runnable {
     /** Section with the connection configuration from the server */
     private Section options;
 
-    /** Section with the configuration of references from the server */
-    private Section references;
+    /** Compiled references of the server */
+    private Routing routing;
 
     /** Section with the status codes configuration from the server */
     private Section statuscodes;
@@ -111,8 +132,11 @@ class Worker implements Runnable {
     /** Gateway interface of the request */
     private String gateway;
 
-    /** Header of the request */
-    private String header;
+    /** Header of the request, reused for all requests of the worker */
+    private Header header;
+
+    /** Protocol of the request and response */
+    private String protocol;
 
     /** Media type of the request */
     private String mediatype;
@@ -131,6 +155,30 @@ class Worker implements Runnable {
 
     /** Timeout for sockets, request, streams in milliseconds */
     private long timeout;
+
+    /** Idle time of persistent connections in milliseconds */
+    private long keepalive;
+
+    /** Maximum number of requests per connection */
+    private int maxrequests;
+
+    /** Maximum number of partial data ranges per request */
+    private int maxranges;
+
+    /** Maximum number of entries per page of directory listings */
+    private int indexlimit;
+
+    /** Allowed methods for the header Allow */
+    private String allow;
+
+    /** Rules of the caching headers */
+    private Policy policy;
+
+    /** Number of requests of the current connection */
+    private int requests;
+
+    /** Continuation of the connection after the response */
+    private boolean persistent;
     
     /** Status code of the response */
     private volatile int status;
@@ -150,42 +198,27 @@ class Worker implements Runnable {
     /** Amount of transmitted data */
     private volatile long volume;
 
+    /** Buffer for the data transfer, reused for all requests of the worker */
+    private byte[] buffer;
+
     /** Established CGI process */
     private volatile Process process;
 
     /**
      * Constructor, establishes the worker with socket and configuration.
+     * @param server   Server of the worker
      * @param context  Server context
      * @param socket   Socket with the accepted request
-     * @param settings Server configuration
+     * @param listener Listener of the server, {@code null} without NIO
+     * @param profile  Compiled configuration of the server
      */
-    Worker(String context, ServerSocket socket, Settings settings) {
-
-        this.context    = context;
-        this.socket     = socket;
-        this.settings = settings;
-        
-        // MEDIATYPES - The media types are rewritten for faster access. For
-        // configuration, it is easier to use the media type as the key, but at
-        // runtime it is easier and faster if the file extension is the key.
-
-        // Mapping in a Dictionary, incomplete entries are ignored.
-        Section section = new Section(true);
-        Section mediatypes = this.settings.get("mediatypes");
-        if (mediatypes != null) {
-            Enumeration enumeration = mediatypes.elements();
-            while (enumeration.hasMoreElements()) {
-                String string = (String)enumeration.nextElement();
-                StringTokenizer tokenizer = new StringTokenizer(mediatypes.get(string));
-                while (tokenizer.hasMoreTokens()) {
-                    String buffer = tokenizer.nextToken().trim();
-                    if (buffer.length() > 0)
-                        section.set(buffer, string.toLowerCase());
-                }
-            }
-            mediatypes.clear();
-            mediatypes.merge(section);
-        }
+    Worker(Server server, String context, ServerSocket socket, Listener listener, Profile profile) {
+
+        this.server   = server;
+        this.context  = context;
+        this.socket   = socket;
+        this.listener = listener;
+        this.profile  = profile;
     }
 
     /**
@@ -194,7 +227,7 @@ class Worker implements Runnable {
      * @param  string string to be cleaned
      * @return the string without parameters and options
      */
-    private static String cleanOptions(String string) {
+    static String cleanOptions(String string) {
         int cursor = string.indexOf('[');
         if (cursor < 0)
             return string;
@@ -208,14 +241,16 @@ class Worker implements Runnable {
      * @throws Exception
      *     In case of unexpected errors
      */
-    private static String textHash(String string)
+    static String textHash(String string)
             throws Exception {
         
         if (string == null)
             string = "";
 
-        MessageDigest digest = MessageDigest.getInstance("md5");
-        byte[] bytes = digest.digest(string.getBytes());
+        MessageDigest digest = Worker.digest;
+        if (digest == null)
+            Worker.digest = digest = MessageDigest.getInstance("md5");
+        byte[] bytes = ((MessageDigest)digest.clone()).digest(string.getBytes());
         string = new BigInteger(1, bytes).toString(16);
         while (string.length() < 32)
             string = ("0").concat(string);
@@ -397,6 +432,42 @@ class Worker implements Runnable {
         return builder.toString();
     }
     
+    /**
+     * Checks whether a content coding is accepted with {@code Accept-Encoding}.
+     * Codings with the quality {@code q=0} are not accepted, the wildcard
+     * {@code *} applies to all codings that are not explicitly specified.
+     * @param  accept   Value of {@code Accept-Encoding}
+     * @param  encoding Content coding
+     * @return {@code true} if the content coding is accepted
+     */
+    private static boolean encodingAccepted(String accept, String encoding) {
+
+        boolean wildcard = false;
+
+        StringTokenizer tokenizer = new StringTokenizer(accept.toLowerCase(), ",");
+        while (tokenizer.hasMoreTokens()) {
+            String coding = tokenizer.nextToken().trim();
+            double quality = 1;
+            int cursor = coding.indexOf(';');
+            if (cursor >= 0) {
+                String string = coding.substring(cursor +1).replace(';', '\n');
+                try {quality = Double.parseDouble(Section.parse(string).get("q", "1"));
+                } catch (Throwable throwable) {
+                    quality = 0;
+                }
+                coding = coding.substring(0, cursor).trim();
+            }
+            if (coding.startsWith("x-"))
+                coding = coding.substring(2);
+            if (coding.equals(encoding))
+                return quality > 0;
+            if (coding.equals("*"))
+                wildcard = quality > 0;
+        }
+
+        return wildcard;
+    }
+
     /**
      * Formats the date in the specified format and zone.
      * @param  format Format description
@@ -429,7 +500,7 @@ class Worker implements Runnable {
      * @param  path Path to be normalized
      * @return the normalized path
      */
-    private static String fileNormalize(String path) {
+    static String fileNormalize(String path) {
 
         // path is changed to slash
         String string = path.replace('\\', '/').trim();
@@ -496,28 +567,34 @@ class Worker implements Runnable {
     /**
      * Checks if the resource corresponds to the {@code IF-(UN)MODIFIED-SINCE}.
      * Returns {@code false} if the resource matches in date and file size,
-     * otherwise {@code true}.
+     * otherwise {@code true}. Usually the client returns the date of
+     * {@code Last-Modified}, which is then compared with the date of the
+     * entry without parsing.
      * @param  file   File object
      * @param  string If-(Un)Modified-Since} phrase
      * @return {@code true} if differences in date or file size were detected
      */
-    private static boolean fileIsModified(File file, String string) {
+    private static boolean fileIsModified(Catalog.Entry file, String string) {
 
         if (string.length() <= 0)
             return true;
 
         try {
 
-            // formatting is established with time zone
-            SimpleDateFormat pattern = new SimpleDateFormat("E, dd MMM yyyy HH:mm:ss z", Locale.US);
-            pattern.setTimeZone(TimeZone.getTimeZone("GMT"));
-
             // If-(Un)Modified-Since is verified
             // If-(Un)Modified-Since:Timedate is verified
             StringTokenizer tokenizer = new StringTokenizer(string, ";");
-            long timing = pattern.parse(tokenizer.nextToken()).getTime() /1000L;
-            if (timing != file.lastModified() /1000L)
-                return true;
+            string = tokenizer.nextToken().trim();
+            if (!string.equals(file.timestamp())) {
+
+                // formatting is established with time zone
+                SimpleDateFormat pattern = new SimpleDateFormat("E, dd MMM yyyy HH:mm:ss z", Locale.US);
+                pattern.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+                long timing = pattern.parse(string).getTime() /1000L;
+                if (timing != file.lastModified() /1000L)
+                    return true;
+            }
 
             // If-(Un)Modified-Since:Length is verified
             while (tokenizer.hasMoreTokens()) {
@@ -536,7 +613,138 @@ class Worker implements Runnable {
 
         return false;
     }
+
+    /**
+     * Checks whether an entity tag is contained in the list of entity tags of
+     * {@code If-Match} or {@code If-None-Match}. The wildcard {@code *} matches
+     * every existing resource. With the weak comparison, the prefix {@code W/}
+     * is ignored, with the strong comparison weak tags never match.
+     * @param  tags List of entity tags
+     * @param  tag  Entity tag of the resource, {@code null} if not existing
+     * @param  weak {@code true} for the weak comparison
+     * @return {@code true} if the entity tag is contained
+     */
+    private static boolean tagMatches(String tags, String tag, boolean weak) {
+
+        if (tag == null)
+            return false;
+
+        StringTokenizer tokenizer = new StringTokenizer(tags, ",");
+        while (tokenizer.hasMoreTokens()) {
+            String string = tokenizer.nextToken().trim();
+            if (string.equals("*"))
+                return true;
+            if (string.startsWith("W/")) {
+                if (!weak)
+                    continue;
+                string = string.substring(2);
+            }
+            if (string.equals(tag))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks the preconditions {@code If-Match} and {@code If-None-Match} for
+     * the change of a resource. {@code If-Match} requires an existing resource
+     * with a matching entity tag, {@code If-None-Match} requires that no entity
+     * tag matches, with {@code *} that the resource does not exist.
+     * @param  file  Resource
+     * @param  match Value of {@code If-Match}
+     * @param  none  Value of {@code If-None-Match}
+     * @return {@code true} if the preconditions are fulfilled
+     */
+    private static boolean fileIsMatching(Catalog.Entry file, String match, String none) {
+
+        String tag = file.exists() ? file.tag() : null;
+        if (match.length() > 0
+                && !Worker.tagMatches(match, tag, false))
+            return false;
+        return none.length() <= 0
+                || !Worker.tagMatches(none, tag, true);
+    }
     
+    /**
+     * Determines the partial data ranges of the bytes of the header Range.
+     * The ranges are sorted, overlapping and adjacent ranges are combined.
+     * Ranges beyond the size are ignored. If the header is invalid or if more
+     * ranges than the maximum remain, the header is ignored completely.
+     * @param  range   Value of bytes from the header Range
+     * @param  size    Size of the content
+     * @param  maximum Maximum number of ranges
+     * @return the ranges as start and end (exclusive), an empty array if no
+     *     range can be satisfied, {@code null} if the header is to be ignored
+     */
+    private static long[][] rangeParse(String range, long size, int maximum) {
+
+        ArrayList ranges = new ArrayList();
+
+        int count = 0;
+        StringTokenizer tokenizer = new StringTokenizer(range, ",");
+        while (tokenizer.hasMoreTokens()) {
+
+            String entry = tokenizer.nextToken().trim();
+            if (entry.length() <= 0)
+                continue;
+            if (!entry.matches("^(\\d*)\\s*-\\s*(\\d*)$")
+                    || entry.equals("-"))
+                return null;
+            count++;
+
+            int index = entry.indexOf('-');
+            String start = entry.substring(0, index).trim();
+            String end   = entry.substring(index +1).trim();
+
+            long offset;
+            long limit;
+            try {
+                if (start.length() <= 0) {
+                    limit  = Long.parseLong(end);
+                    if (limit <= 0)
+                        return null;
+                    offset = Math.max(0, size -limit);
+                    limit  = size -1;
+                } else {
+                    offset = Long.parseLong(start);
+                    limit  = end.length() > 0 ? Long.parseLong(end) : size -1;
+                }
+            } catch (Throwable throwable) {
+                return null;
+            }
+
+            limit = Math.min(limit, size -1);
+            if (offset >= size)
+                continue;
+            if (offset > limit)
+                return null;
+
+            // ranges are sorted by start, overlapping and adjacent ranges are
+            // combined into one range
+            int loop = 0;
+            while (loop < ranges.size()
+                    && ((long[])ranges.get(loop))[0] <= offset)
+                loop++;
+            ranges.add(loop, new long[] {offset, limit +1});
+            for (loop = 0; loop < ranges.size() -1;) {
+                long[] current = (long[])ranges.get(loop);
+                long[] next = (long[])ranges.get(loop +1);
+                if (next[0] <= current[1]) {
+                    current[1] = Math.max(current[1], next[1]);
+                    ranges.remove(loop +1);
+                } else loop++;
+            }
+
+            if (ranges.size() > maximum)
+                return null;
+        }
+
+        if (count <= 0)
+            return null;
+        return (long[][])ranges.toArray(new long[0][]);
+    }
+
     /**
      * Creates for an abstract file the physical file object.
      * @param  file abstract file 
@@ -617,48 +825,21 @@ class Worker implements Runnable {
         boolean module    = false;
         boolean redirect  = false;
         
-        // list of references is determined
-        // virtual directories are determined
-        Enumeration enumeration = this.references.elements();
-        for (File source = null; enumeration.hasMoreElements();) {
-
-            // rule, alias, target and options are determined
-            String rules = ((String)enumeration.nextElement()).toLowerCase();
-            rules = this.references.get(rules);
-            int cursor = rules.indexOf('>');
-            if (cursor < 0) {
-                cursor = rules.replace(']', '[').indexOf('[');
-                if (cursor < 0)
-                    continue;
-                alias = rules.substring(0, cursor).trim();
-                rules = rules.substring(cursor).trim();
-            } else {
-                alias = rules.substring(0, cursor).trim();
-                rules = rules.substring(cursor +2).trim();
-            }
+        // the references whose alias is a prefix of the path are determined
+        // and processed in the order of the configuration
+        Object[][] entries = this.routing.lookup(locale);
+        File source = null;
+        for (int loop = 0; loop < entries.length; loop++) {
+
+            // alias, target, rules and options are taken from the compiled
+            // references
+            alias  = (String)entries[loop][0];
+            target = (String)entries[loop][1];
+            String rules = (String)entries[loop][2];
+            int flags = ((Integer)entries[loop][4]).intValue();
+            boolean virtual = (flags & (Routing.ABSOLUTE | Routing.MODULE)) != 0;
+            boolean forward = (flags & (Routing.MODULE | Routing.REDIRECT)) != 0;
 
-            target = Worker.cleanOptions(rules);
-            alias  = Worker.fileNormalize(alias);
-            
-            // options are determined
-            String string = rules.toUpperCase();
-            boolean virtual = string.contains("[A]") || string.contains("[M]");
-            boolean forward = string.contains("[M]") || string.contains("[R]");
-            
-            // following invalid or incomplete rules are ignored:
-            //   - without alias
-            //   - redirect / module without destination
-            //   - alias without destination and options
-            if (alias.length() <= 0
-                    || (forward && target.length() <= 0)
-                    || (rules.length() <= 0 && target.length() <= 0))
-                continue;
-            
-            // if necessary the alias is extended by slash, so that later
-            // DOCROOT and alias result in a plausible path
-            if (!alias.startsWith("/"))
-                alias = ("/").concat(alias);            
-            
             // if necessary the alias is used as target if no target is
             // specified, e.g. if only options are specified for a real path
             if (target.length() <= 0)
@@ -678,14 +859,14 @@ class Worker implements Runnable {
                     && reference.length() <= buffer.length()) {
 
                 // Optionally, the prohibition of the directory is determined
-                forbidden = string.contains("[C]");
+                forbidden = (flags & Routing.FORBIDDEN) != 0;
 
                 if (!forward) {
 
                     // destination file is established
                     // absolute path is determined
                     // Directories are terminated with slash if necessary
-                    source = Worker.fileCanonical(new File(target));
+                    source = Worker.fileCanonical(this.profile.catalog.locate(target));
                     if (source != null) {
                         target = source.getPath().replace('\\', '/');
                         if (source.isDirectory() && !target.endsWith("/"))
@@ -701,9 +882,9 @@ class Worker implements Runnable {
                     options   = rules;
                     reference = alias;
 
-                    module    = string.contains("[M]");
-                    absolute  = string.contains("[A]") && !module;
-                    redirect  = string.contains("[R]") && !module;
+                    module    = (flags & Routing.MODULE) != 0;
+                    absolute  = (flags & Routing.ABSOLUTE) != 0 && !module;
+                    redirect  = (flags & Routing.REDIRECT) != 0 && !module;
                 }
             }
 
@@ -717,14 +898,12 @@ class Worker implements Runnable {
                 buffer = buffer.concat("/");
 
             // ACC entries for authentication are collected
-            if (string.contains("[ACC:")
+            if ((flags & Routing.ACCESS) != 0
                     && locale.startsWith(buffer.toLowerCase())
                     && buffer.length() > 0
                     && shadow.length() <= buffer.length()) {
                 shadow = buffer;
-                access = rules.replaceAll("(?i)(\\[(((acc|realm):[^\\[\\]]*?)|d)\\])", "\00$1\01");
-                access = access.replaceAll("[^\01]+(\00|$)", "");
-                access = access.replaceAll("[\00\01]+", " ");
+                access = (String)entries[loop][3];
             }
         }
 
@@ -784,7 +963,7 @@ class Worker implements Runnable {
         
         // optionally the realm caption is determined
         // and is added to the request header for other processes
-        String realm = reference.replaceAll("^(.*(\\[\\s*(?i)realm:([^\\[\\]]*?)\\s*\\]).*)|.*$", "$3").replace("\"", "\\\"");
+        String realm = Access.realm(reference);
         this.fields.set("auth_realm", realm);
         
         // authentication method is determined
@@ -793,26 +972,22 @@ class Worker implements Runnable {
         this.fields.set("auth_type", digest ? "Digest" : "Basic");
         
         // values of the ACC options are determined
-        string = string.replaceAll("\\[acc:([^\\[\\]]*?)\\]", "\00$1\01");
-        string = string.replaceAll("((((^|\01).*?)\00)|(\01.*$))|(^.*$)", " ").trim();
+        string = Access.groups(string);
         
-        String access = "";
-
         // ACC entries (groups) are collected
         // with the option [ACC:NONE] the authorization is cancelled
-        boolean authorize = false;
+        ArrayList list = new ArrayList();
         StringTokenizer tokenizer = new StringTokenizer(string);
         while (tokenizer.hasMoreTokens()) {
             string = tokenizer.nextToken();
             if (string.equals("none"))
                 return;
-            authorize = true;
-            access = access.concat(" ").concat(this.access.get(string));
+            list.add(string);
         }
         
-        access = access.trim();
-        if (access.length() <= 0) {
-            if (authorize)
+        String[] groups = (String[])list.toArray(new String[0]);
+        if (this.access.isEmpty(groups)) {
+            if (groups.length > 0)
                 this.status = 401;
             return;
         }
@@ -821,9 +996,7 @@ class Worker implements Runnable {
         if (string.toLowerCase().startsWith("digest ")
                 && digest) {
             
-            string = string.replaceAll("(\\w+)\\s*=\\s*(?:(?:\"(.*?)\")|([^,]*))", "\00$1=$2$3\n");
-            string = string.replaceAll("[^\n]+\00", "");
-            Section section = Section.parse(string, true);
+            Section section = Access.parameters(string);
             
             String response = section.get("response");
             String username = section.get("username");
@@ -831,32 +1004,14 @@ class Worker implements Runnable {
             string = Worker.textHash(this.environment.get("request_method").concat(":").concat(section.get("uri")));
             string = (":").concat(section.get("nonce")).concat(":").concat(section.get("nc")).concat(":").concat(section.get("cnonce")).concat(":").concat(section.get("qop")).concat(":").concat(string);
 
-            tokenizer = new StringTokenizer(access);
-            while (tokenizer.hasMoreTokens()) {
-                access = tokenizer.nextToken();
-                if (username.equals(access))
-                    access = access.substring(username.length());
-                else if (access.startsWith(username.concat(":")))
-                    access = access.substring(username.length() +1);
-                else continue;
-                
-                access = Worker.textHash(username.concat(":").concat(realm).concat(":").concat(access));
-                access = Worker.textHash(access.concat(string));
-                if (response.equals(access)) {
-                    this.fields.set("auth_user", username);
-                    return;
-                }
+            if (this.access.verify(groups, username, realm, string, response)) {
+                this.fields.set("auth_user", username);
+                return;
             }
         } else if (string.toLowerCase().startsWith("basic ")
                 && !digest) {
-            try {string = new String(Base64.getDecoder().decode(string.substring(6).getBytes())).trim();
-            } catch (Throwable throwable) {
-                string = "";
-            }
-            access = (" ").concat(access).concat(" ");
-            if (string.length() > 0
-                    && access.contains((" ").concat(string).concat(" "))) {
-                string = string.substring(0, Math.max(0, string.indexOf(':'))).trim();
+            string = this.access.verify(groups, string);
+            if (string != null) {
                 this.fields.set("auth_user", string);
                 return;
             }
@@ -880,16 +1035,19 @@ class Worker implements Runnable {
         
         String resource = this.resource;
 
-        // FILTER the filters are in a vector
+        // values of the variables are determined and decoded only once per
+        // request, until a module changes the environment
+        String method = this.environment.get("request_method").toLowerCase();
+        Hashtable values = new Hashtable();
+
+        // FILTER the filters are compiled per method
         // the processing is done by REFERENCE, SCRIPT_URI and CODE
-        Enumeration enumeration = this.filters.elements();
-        while (enumeration.hasMoreElements()) {
+        Object[][] filters = this.filter.lookup(method);
+        for (int loop = 0; loop < filters.length; loop++) {
 
-            String filter = this.filters.get((String)enumeration.nextElement());
-            int cursor = filter.indexOf('>');
-            String reference = cursor >= 0 ? filter.substring(cursor +1).trim() : "";
-            if (cursor >= 0)
-                filter = filter.substring(0, cursor);
+            String reference = (String)filters[loop][0];
+            String target    = (String)filters[loop][1];
+            int    options   = ((Integer)filters[loop][2]).intValue();
             
             // The filters are evaluated according to the exclusion principle.
             // For this purpose, all rules of a line are checked individually in
@@ -897,99 +1055,75 @@ class Worker implements Runnable {
             // apply. Thus, the end of the loop is reached only if none of the
             // conditions has failed and thus all are true.
             
-            StringTokenizer rules = new StringTokenizer(filter, "[+]");
-            while (rules.hasMoreTokens()) {
+            Object[][] rules = (Object[][])filters[loop][3];
+            for (int index = 0; index < rules.length; index++) {
 
-                // filter description is determined
                 // method and condition must be set
                 // with tolerance for [+] when concatenating empty conditions
-                String rule = rules.nextToken().toLowerCase().trim();
-                StringTokenizer words = new StringTokenizer(rule);
-                if (words.countTokens() < 2)
+                Object[] rule = rules[index];
+                if (rule == null)
                     continue;
 
-                // method is determined
                 // method must match the HTTP method
-                String method = words.nextToken();
-                if (method.length() > 0
-                        && !method.equals("all")
-                        && !method.equals(this.environment.get("request_method").toLowerCase()))
+                if (!rule[0].equals("all")
+                        && !rule[0].equals(method))
                     break;
 
-                boolean condition;
-                
-                // logical condition is determined
-                // the pseudo-condition ALWAYS always matches
-                String logical = words.nextToken();
-                if (!logical.equals("always")) {
-                    
-                    // filter control is set, only IS and NOT are allowed,
-                    // other values are not allowed.
-                    if (!logical.equals("is")
-                            && !logical.equals("not"))
-                        break;
-
-                    condition = logical.equals("is");
-                    
-                    // method and condition must be set
-                    if (words.countTokens() < 2)
-                        break;
+                // the pseudo-condition ALWAYS always matches, only IS and NOT
+                // are allowed, other values are not allowed
+                int logical = ((Integer)rule[1]).intValue();
+                if (logical == Filter.INVALID)
+                    break;
+                if (logical != Filter.ALWAYS) {
 
-                    // function and parameters are determined
-                    String function = words.nextToken();
-                    
                     // variable to be verified is determined
                     // and their value to be verified is determined
-                    String valueA = this.environment.get(words.nextToken()).toLowerCase();
-                    String valueB = Worker.textDecode(valueA);
-                    
-                    // comparative value is determined
-                    // and the comparison is done
-                    String pattern = words.hasMoreTokens() ? words.nextToken() : "";
-                    if ((function.equals("starts")
-                            && condition != (valueA.startsWith(pattern)
-                                || valueB.startsWith(pattern)))
-                        || (function.equals("contains")
-                                && condition != (valueA.contains(pattern)
-                                        || valueB.contains(pattern)))
-                        || (function.equals("equals")
-                                && condition != (valueA.equals(pattern)
-                                        || valueB.equals(pattern)))
-                        || (function.equals("ends")
-                                && condition != (valueA.endsWith(pattern)
-                                        || valueB.endsWith(pattern)))
-                        || (function.equals("match")
-                                && condition != (valueA.matches(pattern)
-                                        || valueB.matches(pattern)))
-                        || (function.equals("empty")
-                                && condition != (valueA.length() <= 0)))
+                    String[] value = (String[])values.get(rule[3]);
+                    if (value == null) {
+                        String string = this.environment.get((String)rule[3]).toLowerCase();
+                        value = new String[] {string, Worker.textDecode(string)};
+                        values.put(rule[3], value);
+                    }
+
+                    if (!Filter.verify(rule, value[0], value[1]))
                         break;
                 
-                    if (rules.hasMoreTokens())
+                    if (index < rules.length -1)
                         continue;
                 }
-                    
-                // target is determined
-                // target is a reference without options, the pure target
-                String target = Worker.cleanOptions(reference);
                 
                 // if a module has been defined, it is optionally called in the
                 // background as a filter or process module, processing does not
                 // end until the module changes the data flow control
-                if (reference.toUpperCase().contains("[M]")
+                if ((options & Filter.MODULE) != 0
                         && target.length() > 0) {
-                    condition = this.control;
+                    boolean control = this.control;
                     int status = this.status;
                     this.environment.set("module_opts", reference);
                     this.invoke(target, "filter");
-                    if (this.control != condition
+                    if (this.control != control
                             || this.status != status)
                         return this.resource;
+
+                    // the module can change the environment, therefore the
+                    // values and, if the method changes, the following filters
+                    // are determined again
+                    values.clear();
+                    String string = this.environment.get("request_method").toLowerCase();
+                    if (!string.equals(method)) {
+                        method = string;
+                        int position = ((Integer)filters[loop][4]).intValue();
+                        filters = this.filter.lookup(method);
+                        for (loop = 0; loop < filters.length
+                                && ((Integer)filters[loop][4]).intValue() <= position;)
+                            loop++;
+                        loop--;
+                    }
                     continue;
                 }
                 
                 // in case of a redirect STATUS 302 is set
-                if (reference.toUpperCase().contains("[R]")
+                if ((options & Filter.REDIRECT) != 0
                         && target.length() > 0) {
                     this.environment.set("script_uri", target);
                     this.status = 302;
@@ -998,7 +1132,7 @@ class Worker implements Runnable {
                 
                 // references to files or directories are returned as a location
                 if (target.length() > 0) {
-                    File file = Worker.fileCanonical(new File(reference));
+                    File file = Worker.fileCanonical(this.profile.catalog.locate(reference));
                     if (file != null
                             && file.exists())
                         return file.getPath();
@@ -1024,99 +1158,39 @@ class Worker implements Runnable {
     private void initiate()
             throws Exception {
         
-        // Part 0 - The parameters required for request analysis from the
-        // server-side configuration are loaded.
-        
-        // block size to be used for data accesses is determined
-        try {this.blocksize = Integer.parseInt(this.options.get("blocksize"));
-        } catch (Throwable throwable) {
-            this.blocksize = 65535;
-        }
-        if (this.blocksize <= 0)
-            this.blocksize = 65535;
-        
+        // Part 0 - The parameters required for request analysis, such as the
+        // block size, have already been taken over from the profile of the
+        // server.
+
         if ((this.accept instanceof SSLSocket))
             try {this.fields.set("auth_cert", ((SSLSocket)this.accept).getSession().getPeerPrincipal().getName());
             } catch (Throwable throwable) {
             }
         
-        // Part 1 - The request and headers is read bit by bit so that the
-        // request body in the data stream remains untouched.
-
-        // data buffer is established for reading from the header
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream(65535);
+        // Part 1 - The request and headers are parsed byte by byte so that
+        // the request body in the data stream remains untouched. The header
+        // and its buffer are reused for all requests of the worker.
+        if (this.header == null)
+            this.header = new Header();
         
         try {
 
-            // input stream is buffered
-            this.input = new BufferedInputStream(this.input, this.blocksize);
+            // input stream is buffered, for persistent connections the buffer
+            // is retained so that the data of pipelined requests are not lost
+            if (!(this.input instanceof BufferedInputStream))
+                this.input = new BufferedInputStream(this.input, this.blocksize);
             
             // the header of the request is read, if an error occurs in the data
             // access, STATUS 400 is set
-            for (int digit, size = 0, count = 0, offset = 0; true;) {
-
-                digit = this.input.read();
-                if (digit < 0)
-                    break;
-
-                // request is verified for the complete header
-                count = (digit == ((count % 2) == 0 ? 13 : 10)) ? count +1 : 0;
-                if (count > 0
-                        && size > 0
-                        && offset > 0
-                        && buffer.size() > 0) {
-
-                    String header = new String(buffer.toByteArray(), offset, buffer.size() -offset, "ISO-8859-1");
-                    offset = header.indexOf(':');
-                    String value = header.substring(offset < 0 ? header.length() : offset +1).trim();
-                    header = header.substring(0, offset < 0 ? header.length() : offset).trim();
-
-                    // According to RFC 3875 (CGI/1.1 specification) all fields
-                    // of the HTTP header as HTTP parameters. For this purpose
-                    // the character - is replaced by _ and all parameters are
-                    // prefixed with http_.  in front of all parameters.
-                    header = ("http_").concat(header.replace('-', '_'));
-                    if (!this.fields.contains(header)
-                            && header.length() > 0
-                            && value.length() > 0)
-                        this.fields.set(header, value);
-
-                    offset = buffer.size();
-                }
-
-                // field length is calculated
-                size = count > 0 ? 0 : size +1;
-                if (size == 1)
-                    offset = buffer.size();
-
-                // the line of a field from the header must be addressable with
-                // 8 bits (missing regulation in RFC 1945/2616)
-                if (size > 32768)
-                    this.status = 413;
-
-                // data are buffered
-                buffer.write(digit);
-
-                // header of the request is limited to 65535 bytes
-                if (buffer.size() >= 65535
-                        && count < 4) {
-                    this.status = 413;
-                    break;
-                }
-
-                // request is verified for the complete header
-                if (count == 4)
-                    break;
-            }
+            int status = this.header.read((BufferedInputStream)this.input, this.fields);
+            if (status != 0)
+                this.status = status;
         } catch (Throwable throwable) {
             this.status = 400;
             if (throwable instanceof SocketTimeoutException)
                 this.status = 408;
         }
         
-        // header is set primarily for the interfaces
-        this.header = buffer.toString("ISO-8859-1").trim();
-
         // Part 2 - The request header is parsed, validated and the environment
         // is prepared for the HTTP method.
 
@@ -1127,8 +1201,7 @@ class Worker implements Runnable {
         StringTokenizer tokenizer;
 
         // first line of the request is determined
-        tokenizer = new StringTokenizer(this.header, "\r\n");
-        String request = tokenizer.hasMoreTokens() ? tokenizer.nextToken() : "";
+        String request = this.header.isEmpty() ? "" : this.header.line(0);
         this.fields.set("req_line", request);
 
         int offset;
@@ -1142,6 +1215,12 @@ class Worker implements Runnable {
                 && method.length() <= 0)
             this.status = 400;
 
+        // protocol of the request is determined, only HTTP/1.1 is responded
+        // with HTTP/1.1, all other requests are responded with HTTP/1.0
+        if (offset >= 0
+                && request.substring(request.lastIndexOf(' ') +1).toUpperCase().equals("HTTP/1.1"))
+            this.protocol = "HTTP/1.1";
+
         String string;
 
         // protocol and version of the request are ignored
@@ -1173,7 +1252,7 @@ class Worker implements Runnable {
         // if the request does not contain a valid path STATUS 400 is set
         if (this.status == 0
                 && (!path.startsWith("/")
-                        || this.header.length() <= 0))
+                        || this.header.isEmpty()))
             this.status = 400;
         
         // host is determined and used without a port
@@ -1188,44 +1267,29 @@ class Worker implements Runnable {
         // Part 3 - Virtual hosts are included and the configuration of the
         // environment is further qualified.
         
-        // host is determined for virtualization
-        if (host.length() > 0) {
-            
-            String  context = ("virtual:").concat(host);
-            Section section = this.settings.get(context.concat(":ini"));
-            String  server  = section.get("server").toLowerCase();
-
-            // options are determined or extended with all inheritances if a
-            // virtual host exists for the server
-            if ((" ").concat(server).concat(" ").contains((" ").concat(this.context.toLowerCase()).concat(" "))
-                    || server.length() <= 0) {
-                this.access.merge(this.settings.get(context.concat(":acc")));
-                this.environment.merge(this.settings.get(context.concat(":env")));
-                this.filters.merge(this.settings.get(context.concat(":flt")));
-                this.interfaces.merge(this.settings.get(context.concat(":cgi")));
-                this.options.merge(this.settings.get(context.concat(":ini")));
-                this.references.merge(this.settings.get(context.concat(":ref")));
-            }
-        }
-        
-        // block size to be used for data accesses is determined final
-        try {this.blocksize = Integer.parseInt(this.options.get("blocksize"));
-        } catch (Throwable throwable) {
-        }
-        if (this.blocksize <= 0)
-            this.blocksize = 65535;
-
-        // interrupt is determined final
-        try {this.interrupt = Long.parseLong(this.options.get("interrupt"));
-        } catch (Throwable throwable) {
-        }
-        if (this.interrupt < 0)
-            this.interrupt = 10;
-        
-        // timeout of connection and internal processes is determined final
-        try {this.timeout = Long.parseLong(this.options.get("timeout"));
-        } catch (Throwable throwable) {
-        }
+        // The profile of the virtual host already contains all inheritances
+        // of the server and also the final block size, interrupt, timeout,
+        // idle time and maximum number of requests. Without a virtual host
+        // for the server, the profile of the server is retained.
+        Profile profile = this.profile.locate(host);
+        if (profile != this.profile)
+            this.configure(profile);
+
+        // KEEPALIVE - HTTP/1.1 connections are continued if the client does not
+        // request the end with CONNECTION: CLOSE, HTTP/1.0 connections only if
+        // the client requests it with CONNECTION: KEEP-ALIVE. Requests with a
+        // body always terminate the connection, because it cannot be ensured
+        // that the body is completely read from the data stream.
+        String connection = (" ").concat(this.fields.get("http_connection").toLowerCase().replace(',', ' ')).concat(" ");
+        if (this.protocol.equals("HTTP/1.1"))
+            this.persistent = !connection.contains(" close ");
+        else this.persistent = connection.contains(" keep-alive ");
+        if (this.keepalive <= 0
+                || this.status != 0
+                || (this.maxrequests > 0 && this.requests >= this.maxrequests)
+                || this.fields.contains("http_transfer_encoding")
+                || !this.fields.get("http_content_length").matches("^0*$"))
+            this.persistent = false;
         
         // SO timeout is set for the ServerSocket final
         // Starting with Java 11, it is possible that the socket has already
@@ -1237,13 +1301,13 @@ class Worker implements Runnable {
         File file;
 
         // working directory is determined
-        file = Worker.fileCanonical(new File("."));
+        file = Worker.fileCanonical(this.profile.catalog.locate("."));
         String workdir = file != null ? file.getPath().replace('\\', '/') : ".";
         if (workdir.endsWith("/"))
             workdir = workdir.substring(0, workdir.length() -1);
 
         // system directory is determined
-        file = Worker.fileCanonical(new File(this.options.get("sysroot")));
+        file = Worker.fileCanonical(this.profile.catalog.locate(this.options.get("sysroot")));
         this.sysroot = file != null ? file.getPath().replace('\\', '/') : workdir;
         if (this.sysroot.endsWith("/"))
             this.sysroot = this.sysroot.substring(0, this.sysroot.length() -1);
@@ -1251,7 +1315,7 @@ class Worker implements Runnable {
             this.sysroot = workdir;
 
         // document directory is determined
-        file = Worker.fileCanonical(new File(this.options.get("docroot")));
+        file = Worker.fileCanonical(this.profile.catalog.locate(this.options.get("docroot")));
         this.docroot = file != null ? file.getPath().replace('\\', '/') : workdir;
         if (this.docroot.endsWith("/"))
             this.docroot = this.docroot.substring(0, this.docroot.length() -1);
@@ -1339,8 +1403,9 @@ class Worker implements Runnable {
         if (this.resource.length() <= 0)
             this.resource = this.docroot.concat(this.environment.get("path_url"));
 
-        // resource is established as a file
-        file = new File(this.resource);
+        // resource is established as a file, the metadata of the file system
+        // are taken from the catalog
+        file = this.profile.catalog.locate(this.resource);
         
         // The resource is syntactically verified, not real existing resources
         // as well as deviations in the canonical path are quitted with status
@@ -1378,7 +1443,7 @@ class Worker implements Runnable {
             this.environment.set("server_name", server);
 
         // the use of the secure layer is determined from the schema
-        boolean secure = this.socket instanceof SSLServerSocket;
+        boolean secure = this.accept instanceof SSLSocket;
         
         // location is composed
         String url = this.environment.get("server_port");
@@ -1426,7 +1491,7 @@ class Worker implements Runnable {
                 String entry = tokenizer.nextToken();
                 if (entry.length() <= 0
                         || entry.indexOf('/') >= 0
-                        || !new File(this.resource.concat(entry)).isFile())
+                        || !this.profile.catalog.locate(this.resource.concat(entry)).isFile())
                     continue;
                 this.resource = this.resource.concat(entry);
                 String context = this.environment.get("path_context");
@@ -1564,21 +1629,58 @@ class Worker implements Runnable {
         String string;
         
         string = String.valueOf(status);
-        string = ("HTTP/1.0 ").concat(string).concat(" ").concat(Worker.cleanOptions(this.statuscodes.get(string))).trim();
+        string = this.protocol.concat(" ").concat(string).concat(" ").concat(Worker.cleanOptions(this.statuscodes.get(string))).trim();
         if (this.options.get("identity").toLowerCase().equals("on"))
             string = string.concat("\r\nServer: Seanox-Devwex/0.0.0 00000000");
         string = string.concat("\r\n").concat(Worker.dateFormat("'Date: 'E, dd MMM yyyy HH:mm:ss z", new Date(), "GMT"));
-        string = string.concat("\r\n").concat(String.join("\r\n", header));
+        string = string.concat("\r\n").concat(String.join("\r\n", header)).trim();
+
+        // KEEPALIVE - The connection can only be continued if the client can
+        // recognize the end of the response. This is the case with a
+        // CONTENT-LENGTH, with responses without body and with HEAD requests.
+        boolean framed = status / 100 == 1
+                || status == 204
+                || status == 304
+                || this.fields.get("req_method").toLowerCase().equals("head");
+        boolean close = false;
+        for (int loop = 0; loop < header.length; loop++) {
+            String entry = header[loop].toLowerCase();
+            if (entry.matches("^\\s*content-length\\s*:.*$"))
+                framed = true;
+            if (entry.matches("^\\s*connection\\s*:.*\\bclose\\b.*$"))
+                close = true;
+        }
+        if (!framed || close
+                || status == 400
+                || status == 408
+                || status == 413)
+            this.persistent = false;
+
+        // with a persistent connection HTTP/1.0 requires the confirmation by
+        // CONNECTION: KEEP-ALIVE, HTTP/1.1 requires the announcement of the
+        // end by CONNECTION: CLOSE
+        if (this.persistent
+                && this.protocol.equals("HTTP/1.0")) {
+            string = string.concat("\r\nConnection: keep-alive");
+            string = string.concat("\r\nKeep-Alive: timeout=").concat(String.valueOf(Math.max(1, this.keepalive /1000)));
+            if (this.maxrequests > 0)
+                string = string.concat(", max=").concat(String.valueOf(this.maxrequests -this.requests));
+        } else if (!this.persistent && !close
+                && this.protocol.equals("HTTP/1.1"))
+            string = string.concat("\r\nConnection: close");
 
-        return string.trim();
+        return string;
     }
     
     /**
      * Creates an array with the environment variables.
      * Environment variables without value are ignored.
      * @return the environment variables as array
+     * @throws IOException
+     *     In case of unsupported encoding
      */
-    private String[] getEnvironment() {
+    private String[] getEnvironment()
+            throws IOException {
         
         ArrayList list = new ArrayList();
         
@@ -1597,12 +1699,8 @@ class Worker implements Runnable {
         
         // lines from the header are determined
         // the first line with the request is discarded
-        StringTokenizer tokenizer = new StringTokenizer(this.header, "\r\n");
-        if (tokenizer.hasMoreTokens())
-            tokenizer.nextToken();
-        
-        while (tokenizer.hasMoreTokens()) {
-            String value = tokenizer.nextToken();
+        for (int loop = 1; loop < this.header.lines(); loop++) {
+            String value = this.header.line(loop);
             int index = value.indexOf(':');
             if (index <= 0)
                 continue;
@@ -1634,6 +1732,9 @@ class Worker implements Runnable {
         // modules can also be defined as a target with the gateway
         // module definition is set as environment variables
         if (this.gateway.toUpperCase().contains("[M]")) {
+            // modules use the connection directly, a continuation of the
+            // connection cannot be ensured after that
+            this.persistent = false;
             this.environment.set("module_opts", this.gateway);
             this.invoke(Worker.cleanOptions(this.gateway), "service");
             return;
@@ -1677,6 +1778,9 @@ class Worker implements Runnable {
             timeout = -System.currentTimeMillis() -isolation;
         this.timelock = timeout;
 
+        // stream for the compression on the fly, otherwise null
+        Compressor.Stream deflater = null;
+
         try {
 
             // data streams are established
@@ -1730,7 +1834,7 @@ class Worker implements Runnable {
             
             // data buffer for the header is established
             String header = "";
-            
+
             // response data is read until the end of the application and the
             // data flow control is initially set for this purpose
             while (true) {
@@ -1790,12 +1894,16 @@ class Worker implements Runnable {
                                 // text from the CGI response are added
                                 // temporarily so that all other worker
                                 // functions work with the code from the CGI
-                                // response. With the end of the connection
-                                // (accept) the status codes are then discarded
+                                // response. The status codes of the profile are
+                                // shared, so a copy is used for the request,
+                                // which is discarded with the end of request
                                 buffer = buffer.replaceAll("^(\\S+)\\s*(\\S+)*\\s*(.*?)\\s*$", "$3");
                                 if (buffer.length() > 0
-                                        && !this.statuscodes.contains(String.valueOf(this.status)))
+                                        && !this.statuscodes.contains(String.valueOf(this.status))) {
+                                    if (this.statuscodes == this.profile.statuscodes)
+                                        this.statuscodes = (Section)this.statuscodes.clone();
                                     this.statuscodes.set(String.valueOf(this.status), buffer);
+                                }
                             }
                             
                             // if the response starts with HTTP/STATUS, the data
@@ -1804,7 +1912,49 @@ class Worker implements Runnable {
                             // which the data flow control is used
                             if (header != null) {
                                 header = header.replaceAll("(?si)^ *HTTP */ *[^\r\n]*([\r\n]+|$)", "");
-                                header = this.header(this.status, header.split("[\r\n]+"));
+                                String[] fields = header.split("[\r\n]+");
+                                
+                                // COMPRESSION - The output is compressed while
+                                // streaming if the compressor is configured
+                                // for the media type and the size and the
+                                // client accepts gzip. The length is then
+                                // unknown and the connection ends with the
+                                // response.
+                                if (this.profile.compressor != null) {
+                                    String mediatype = null;
+                                    long size = -1;
+                                    boolean encoded = false;
+                                    for (int loop = 0; loop < fields.length; loop++) {
+                                        String field = fields[loop].toLowerCase();
+                                        String value = field.replaceAll("^[^:]*:\\s*", "").trim();
+                                        if (field.matches("^\\s*content-type\\s*:.*$"))
+                                            mediatype = value;
+                                        if (field.matches("^\\s*content-encoding\\s*:.*$"))
+                                            encoded = true;
+                                        if (field.matches("^\\s*content-length\\s*:.*$"))
+                                            try {size = Long.parseLong(value);
+                                            } catch (Throwable throwable) {
+                                            }
+                                    }
+                                    if (!encoded
+                                            && this.status != 204
+                                            && this.status != 304
+                                            && !this.fields.get("req_method").toLowerCase().equals("head")
+                                            && this.profile.compressor.accept(mediatype, size)) {
+                                        ArrayList list = new ArrayList(Arrays.asList(fields));
+                                        list.add("Vary: Accept-Encoding");
+                                        if (Worker.encodingAccepted(this.fields.get("http_accept_encoding"), "gzip")) {
+                                            for (int loop = list.size() -1; loop >= 0; loop--)
+                                                if (((String)list.get(loop)).toLowerCase().matches("^\\s*content-length\\s*:.*$"))
+                                                    list.remove(loop);
+                                            list.add("Content-Encoding: gzip");
+                                            deflater = this.profile.compressor.stream(this.output);
+                                        }
+                                        fields = (String[])list.toArray(new String[0]);
+                                    }
+                                }
+                                
+                                header = this.header(this.status, fields);
                                 this.control = false;
                             }                                
                         }
@@ -1823,11 +1973,17 @@ class Worker implements Runnable {
                         if (header != null)
                             this.output.write(header.concat("\r\n\r\n").getBytes());
                         header = null;
-                        this.output.write(bytes, offset, length -offset);
+                        if (deflater != null) {
+                            deflater.write(bytes, offset, length -offset);
+                            deflater.flush();
+                        } else {
+                            this.output.write(bytes, offset, length -offset);
+
+                            // volume of sent data is registered, with the
+                            // compression the compressed data at the end
+                            this.volume += length -offset;
+                        }
                         this.timelock = timeout;
-                        
-                        // volume of sent data is registered
-                        this.volume += length -offset;
                     }
                 }
 
@@ -1840,7 +1996,23 @@ class Worker implements Runnable {
                 Thread.sleep(this.interrupt);
             }
             
+            // the compression is completed, the connection remains open
+            if (deflater != null) {
+                this.timelock = System.currentTimeMillis();
+                deflater.close();
+                this.timelock = timeout;
+            }
+            
         } finally {
+
+            // the compressor is also released if the response was aborted
+            // and the volume of the sent compressed data is registered
+            if (deflater != null) {
+                try {deflater.close();
+                } catch (Throwable throwable) {
+                }
+                this.volume += deflater.volume();
+            }
             
             try {
 
@@ -1889,14 +2061,123 @@ class Worker implements Runnable {
     }
     
     /**
-     * Creates a navigable HTML page for a requested directory based on the
-     * {@code index.html} template.
-     * @param  directory Directory
-     * @param  query     Sorting options
-     * @return the navigable HTML to the directory
+     * Compresses generated content with gzip if the compressor is configured
+     * for the media type and the size and the client accepts gzip. The
+     * headers for the encoding are added to the passed headers.
+     * @param  bytes     Content
+     * @param  mediatype Media type of the content
+     * @param  headers   Headers of the response
+     * @return the compressed content, otherwise the passed content
+     * @throws IOException
+     *     In case of faulty compression
      */
-    private byte[] createDirectoryIndex(File directory, String query) {
-        
+    private byte[] compress(byte[] bytes, String mediatype, ArrayList headers)
+            throws IOException {
+
+        if (this.profile.compressor == null
+                || !this.profile.compressor.accept(mediatype, bytes.length))
+            return bytes;
+
+        headers.add(("Vary: Accept-Encoding"));
+        if (!Worker.encodingAccepted(this.fields.get("http_accept_encoding"), "gzip"))
+            return bytes;
+
+        headers.add(("Content-Encoding: gzip"));
+        return this.profile.compressor.compress(bytes);
+    }
+
+    /**
+     * Adds the caching headers Cache-Control and Expires to the passed headers
+     * if a rule of the policy applies to the path of the request or the media
+     * type. Expires is calculated from the time of the response.
+     * @param headers   Headers of the response
+     * @param mediatype Media type of the response
+     */
+    private void control(ArrayList headers, String mediatype) {
+
+        Object[] rule = this.policy.lookup(this.environment.get("path_url"), mediatype);
+        if (rule == null)
+            return;
+        headers.add(("Cache-Control: ").concat((String)rule[0]));
+        long expiry = ((Long)rule[1]).longValue();
+        if (expiry >= 0)
+            headers.add(Worker.dateFormat("'Expires: 'E, dd MMM yyyy HH:mm:ss z", new Date(System.currentTimeMillis() +(expiry *1000)), "GMT"));
+    }
+
+    /**
+     * Creates the row of a file for sorting the directory listing. The row
+     * begins with the type, so that directories are listed before files,
+     * followed by the sort criterion and the values of the file. The values
+     * are separated by zero bytes.
+     * @param  name      Name of the file
+     * @param  directory {@code true} for a directory
+     * @param  length    Size of the file
+     * @param  modified  Time of the last modification
+     * @param  order     Sort criterion (n, m, s, t)
+     * @return the row of the file for sorting
+     */
+    private static String createDirectoryRow(String name, boolean directory, long length, long modified, char order) {
+
+        String fileModified = String.format("%tF %<tT", new Date(modified));
+
+        // length is extended at the first position with the character which
+        // results from the length of the size to sort it by numerical size,
+        // the +1 is important here to prevent unwanted zero-byte that are
+        // used as separators
+        String fileLength = directory ? "" : String.valueOf(length);
+        fileLength = String.valueOf((char)fileLength.length() +1).concat(fileLength);
+
+        // file extension is determined, but not for directories
+        int cursor = name.lastIndexOf(".");
+        String fileExtension = cursor >= 0 ? name.substring(cursor +1) : "";
+        fileExtension = directory ? "" : fileExtension.toLowerCase().trim();
+
+        String fileOrder = name;
+        if (order == 'm')
+            fileOrder = fileModified;
+        else if (order == 's')
+            fileOrder = fileLength;
+        else if (order == 't')
+            fileOrder = fileExtension;
+
+        return String.join("\00 ", new String[] {String.valueOf(!directory),
+                fileOrder, name, fileModified, fileLength, fileExtension});
+    }
+
+    /**
+     * Creates the values of an entry of the directory listing from the row of
+     * a file.
+     * @param  row       Row of the file
+     * @param  values    Values of the directory
+     * @param  mediatype Default media type
+     * @return the values of the entry, {@code null} for an empty row
+     */
+    private Hashtable createDirectoryEntry(String row, Hashtable values, String mediatype) {
+
+        StringTokenizer tokenizer = new StringTokenizer(row, "\00");
+        if (tokenizer.countTokens() <= 0)
+            return null;
+
+        Hashtable data = new Hashtable(values);
+        boolean fileDirectory = tokenizer.nextToken().equals("false");
+        tokenizer.nextToken();
+        data.put("name", tokenizer.nextToken().substring(1));
+        data.put("modified", tokenizer.nextToken().substring(1));
+        data.put("size", tokenizer.nextToken().substring(2));
+        if (!fileDirectory)
+            data.put("mime", this.mediatypes.get(tokenizer.nextToken().substring(1), mediatype));
+        return data;
+    }
+
+    /**
+     * Creates the values of a directory listing from the header and
+     * environment variables and sets the path as breadcrumb navigation.
+     * @param  generator Generator of the template
+     * @param  path      Path of the directory
+     * @return the values of the directory listing
+     */
+    private Hashtable createDirectoryValues(Generator generator, String path) {
+
         Hashtable values = new Hashtable();
         
         // header and environment variables are merged,
@@ -1910,13 +2191,6 @@ class Worker implements Runnable {
             values.put(entry, this.environment.get(entry));
         }
         
-        // default template for the INDEX is determined and loaded
-        File file = new File(this.sysroot.concat("/index.html"));
-        Generator generator = Generator.parse(Worker.fileRead(file));
-        
-        String path = this.environment.get("path_url");
-        if (!path.endsWith("/"))
-            path = path.concat("/");
         values.put("path_url", path);
         
         // path is generated as breadcrumb navigation
@@ -1929,11 +2203,50 @@ class Worker implements Runnable {
             values.put("name", entry);
             generator.set("location", values);
         }
-        
+        return values;
+    }
+
+    /**
+     * Creates a navigable HTML page for a requested directory based on the
+     * {@code index.html} template. The page is held by the index of the server
+     * for the path, the template, the sorting and the options, as long as the
+     * directory and the template are unchanged.
+     * @param  directory Directory
+     * @param  query     Sorting options
+     * @return the navigable HTML to the directory and the entity tag
+     */
+    private Object[] createDirectoryIndex(Catalog.Entry directory, String query) {
+
         if (query.length() <= 0)
             query = "n";
         query = query.substring(0, 1);
-        
+
+        // with the option [S] hidden files are not displayed
+        boolean hidden = this.options.get("index").toUpperCase().contains("[S]");
+
+        String mediatype = this.options.get("mediatype");
+
+        // default template for the INDEX is determined
+        File template = this.profile.catalog.locate(this.sysroot.concat("/index.html"));
+
+        String path = this.environment.get("path_url");
+        if (!path.endsWith("/"))
+            path = path.concat("/");
+
+        String key = String.join("\00", new String[] {directory.getPath(), path, template.getPath(),
+                query, String.valueOf(hidden), mediatype});
+        Object[] index = this.profile.index.lookup(key, directory, template, this.environment);
+        if (index != null)
+            return index;
+
+        // default template for the INDEX is loaded
+        byte[] model = Worker.fileRead(template);
+        if (model == null)
+            model = new byte[0];
+        Generator generator = Generator.parse(model);
+
+        Hashtable values = this.createDirectoryValues(generator, path);
+
         char order = query.charAt(0);
         boolean reverse = order >= 'A' && order <= 'Z';
         
@@ -1946,45 +2259,16 @@ class Worker implements Runnable {
             files = new File[0];
         ArrayList filelist = new ArrayList(Arrays.asList(files));
 
-        // with the option [S] hidden files are not displayed
-        boolean hidden = this.options.get("index").toUpperCase().contains("[S]");
-
         // file information is assembled
         for (int loop = 0; loop < filelist.size(); loop++) {
 
             // physical file is determined
-            file = (File)filelist.get(loop);
-            
-            String fileName = file.getName();
-            String fileModified = String.format("%tF %<tT", new Date(file.lastModified()));
-            
-            // length is extended at the first position with the character which
-            // results from the length of the size to sort it by numerical size,
-            // the +1 is important here to prevent unwanted zero-byte that are
-            // used as separators
-            String fileLength = file.isDirectory() ? "" : String.valueOf(file.length());
-            fileLength = String.valueOf((char)fileLength.length() +1).concat(fileLength);
-            
-            // file extension is determined, but not for directories
-            int cursor = fileName.lastIndexOf(".");
-            String fileExtension = cursor >= 0 ? fileName.substring(cursor +1) : "";
-            fileExtension = file.isDirectory() ? "" : fileExtension.toLowerCase().trim();
-            
-            String fileOrder = fileName;
-            if (order == 'm')
-                fileOrder = fileModified;  
-            else if (order == 's')
-                fileOrder = fileLength;
-            else if (order == 't')
-                fileOrder = fileExtension; 
-            
             // files and directories of the "hidden" option are marked
-            String row = String.join("\00 ", new String[] {
-                    String.valueOf(!file.isDirectory()),
-                    fileOrder, fileName, fileModified, fileLength, fileExtension});
+            File file = (File)filelist.get(loop);
             if (hidden && file.isHidden())
-                row = "";
-            filelist.set(loop, row);
+                filelist.set(loop, "");
+            else filelist.set(loop, Worker.createDirectoryRow(file.getName(),
+                    file.isDirectory(), file.length(), file.lastModified(), order));
         }
 
         // file list is sorted
@@ -1992,27 +2276,13 @@ class Worker implements Runnable {
         if (reverse)
             Collections.reverse(filelist);
         
-        String mediatype = this.options.get("mediatype");
-        
         // file information is collected
+        // unrecognized files are suppressed
         ArrayList list = new ArrayList();
         for (int loop = 0; loop < filelist.size(); loop++) {
-
-            // unrecognized files are suppressed
-            tokenizer = new StringTokenizer((String)filelist.get(loop), "\00");
-            if (tokenizer.countTokens() <= 0)
-                continue;
-            
-            Hashtable data = new Hashtable(values);
-            list.add(data);
-            
-            boolean fileDirectory = tokenizer.nextToken().equals("false");
-            tokenizer.nextToken();
-            data.put("name", tokenizer.nextToken().substring(1));
-            data.put("modified", tokenizer.nextToken().substring(1));
-            data.put("size", tokenizer.nextToken().substring(2));
-            if (!fileDirectory)
-                data.put("mime", this.mediatypes.get(tokenizer.nextToken().substring(1), mediatype));
+            Hashtable data = this.createDirectoryEntry((String)filelist.get(loop), values, mediatype);
+            if (data != null)
+                list.add(data);
         }
         
         query = query.concat(reverse ? "d" : "a");
@@ -2023,7 +2293,203 @@ class Worker implements Runnable {
         values.put("file", list);
         generator.set(values);
 
-        return generator.extract();
+        return this.profile.index.store(key, directory, template, model, this.environment, generator.extract());
+    }
+
+    /**
+     * Streams a navigable HTML page for a requested directory page by page
+     * based on the {@code index.html} template. The entries are read with a
+     * DirectoryStream and only the entries up to the end of the requested page
+     * are held for sorting, so that the memory is limited by the page and not
+     * by the size of the directory. The page is requested with the parameters
+     * offset and limit in the query after the sorting, e.g.
+     * {@code ?N&offset=100&limit=50}, the limit is restricted by INDEXLIMIT.
+     * The offset is restricted to a maximum page depth, so that a request
+     * cannot cause all entries of a large directory to be held, the entries
+     * behind it are reached with the reverse sorting.
+     * The page is written incrementally, entry by entry, without
+     * Content-Length and therefore closes the connection.
+     * @param  directory Directory
+     * @param  query     Sorting options and page
+     * @param  headers   Headers of the response
+     * @throws IOException
+     *     In case of faulty data streams
+     */
+    private void streamDirectoryIndex(File directory, String query, ArrayList headers)
+            throws IOException {
+
+        // sorting and page are determined from the query, the sorting is
+        // expected as the first parameter without a value
+        String sort = "n";
+        int offset = 0;
+        int limit  = this.indexlimit;
+        StringTokenizer tokenizer = new StringTokenizer(query, "&");
+        for (int loop = 0; tokenizer.hasMoreTokens(); loop++) {
+            String entry = tokenizer.nextToken().trim();
+            try {
+                if (entry.toLowerCase().startsWith("offset="))
+                    offset = Math.max(0, Integer.parseInt(entry.substring(7).trim()));
+                else if (entry.toLowerCase().startsWith("limit="))
+                    limit = Math.max(1, Math.min(this.indexlimit, Integer.parseInt(entry.substring(6).trim())));
+                else if (loop == 0
+                        && entry.length() > 0)
+                    sort = entry.substring(0, 1);
+            } catch (Throwable throwable) {
+            }
+        }
+        limit  = Math.min(limit, Worker.DEPTH);
+        offset = Math.min(offset, Worker.DEPTH -limit);
+
+        // with the option [S] hidden files are not displayed
+        boolean hidden = this.options.get("index").toUpperCase().contains("[S]");
+
+        String mediatype = this.options.get("mediatype");
+
+        // default template for the INDEX is loaded
+        File template = this.profile.catalog.locate(this.sysroot.concat("/index.html"));
+        byte[] model = Worker.fileRead(template);
+        if (model == null)
+            model = new byte[0];
+        Generator generator = Generator.parse(model);
+
+        String path = this.environment.get("path_url");
+        if (!path.endsWith("/"))
+            path = path.concat("/");
+
+        Hashtable values = this.createDirectoryValues(generator, path);
+
+        char order = sort.charAt(0);
+        boolean reverse = order >= 'A' && order <= 'Z';
+        order = Character.toLowerCase(order);
+
+        Comparator comparator = String.CASE_INSENSITIVE_ORDER;
+        if (reverse)
+            comparator = Collections.reverseOrder(comparator);
+
+        // The entries are read with the attributes in one access. The queue
+        // holds the entries up to the end of the page in reverse order, so
+        // that the entry behind the page is removed first.
+        PriorityQueue queue = new PriorityQueue(Math.min(offset +limit, 1024) +1,
+                Collections.reverseOrder(comparator));
+        long count = 0;
+        DirectoryStream stream = Files.newDirectoryStream(directory.toPath());
+        try {
+            Iterator iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Path entry = (Path)iterator.next();
+                if (hidden && Files.isHidden(entry))
+                    continue;
+                String name = entry.getFileName().toString();
+                BasicFileAttributes attributes = null;
+                try {attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (IOException exception) {
+                }
+                if (attributes != null)
+                    queue.add(Worker.createDirectoryRow(name, attributes.isDirectory(),
+                            attributes.size(), attributes.lastModifiedTime().toMillis(), order));
+                else queue.add(Worker.createDirectoryRow(name, false, 0, 0, order));
+                if (queue.size() > offset +limit)
+                    queue.poll();
+                count++;
+            }
+        } finally {
+            stream.close();
+        }
+
+        ArrayList list = new ArrayList(queue);
+        Collections.sort(list, comparator);
+        List page = list.subList(Math.min(offset, list.size()), list.size());
+
+        String state = String.valueOf(order).concat(reverse ? "d" : "a");
+        if (count <= 0)
+            state = ("x").concat(state);
+        values.put("state", state);
+        values.put("sort", sort);
+        values.put("offset", String.valueOf(offset));
+        values.put("limit", String.valueOf(limit));
+        values.put("count", String.valueOf(count));
+
+        // the navigation of the pages is only set if there are several pages,
+        // the previous and next page only if they exist
+        if (offset > 0 || count > limit) {
+            Hashtable pages = new Hashtable(values);
+            pages.put("first", String.valueOf(Math.min(count, offset +1)));
+            pages.put("last", String.valueOf(Math.min(count, (long)offset +limit)));
+            if (offset > 0) {
+                Hashtable previous = new Hashtable(pages);
+                previous.put("offset", String.valueOf(Math.max(0, offset -limit)));
+                pages.put("previous", previous);
+            }
+            if (offset +limit < Math.min(count, Worker.DEPTH)) {
+                Hashtable next = new Hashtable(pages);
+                next.put("offset", String.valueOf(offset +limit));
+                pages.put("next", next);
+            }
+            values.put("pages", pages);
+        }
+
+        // The entries are replaced by a marker at which the page is divided
+        // into the part before and after the entries. The marker does not
+        // contain a # so that it is not encoded by the generator.
+        byte[] marker = ("\00file\00").getBytes();
+        values.put("file", marker);
+        generator.set(values);
+        byte[] bytes = generator.extract();
+        int cursor = bytes.length;
+        for (int loop = 0; loop <= bytes.length -marker.length && cursor >= bytes.length; loop++)
+            for (int index = 0; index < marker.length && bytes[loop +index] == marker[index]; index++)
+                if (index == marker.length -1)
+                    cursor = loop;
+
+        // The content is compressed while streaming, because the size is not
+        // known in advance.
+        Compressor.Stream deflater = null;
+        if (this.profile.compressor != null
+                && this.profile.compressor.accept(this.mediatypes.get("html"), -1)) {
+            headers.add(("Vary: Accept-Encoding"));
+            if (Worker.encodingAccepted(this.fields.get("http_accept_encoding"), "gzip")) {
+                headers.add(("Content-Encoding: gzip"));
+                deflater = this.profile.compressor.stream(this.output);
+            }
+        }
+        OutputStream output = deflater != null ? deflater : this.output;
+
+        // header is composed for the output
+        String header = this.header(this.status, (String[])headers.toArray(new String[0])).concat("\r\n\r\n");
+
+        // connection is marked as used
+        this.control = false;
+
+        // with the compression the volume of the sent compressed data is
+        // registered and the compressor is also released in case of errors
+        long volume = 0;
+        try {
+            this.timelock = System.currentTimeMillis();
+            this.output.write(header.getBytes());
+            output.write(bytes, 0, cursor);
+            volume += cursor;
+            for (int loop = 0; loop < page.size(); loop++) {
+                Hashtable data = this.createDirectoryEntry((String)page.get(loop), values, mediatype);
+                if (data == null)
+                    continue;
+                this.timelock = System.currentTimeMillis();
+                volume += generator.write("file", data, output);
+            }
+            cursor = Math.min(cursor +marker.length, bytes.length);
+            output.write(bytes, cursor, bytes.length -cursor);
+            volume += bytes.length -cursor;
+            if (deflater != null)
+                deflater.close();
+            this.timelock = 0;
+        } finally {
+            if (deflater != null) {
+                try {deflater.close();
+                } catch (Throwable throwable) {
+                }
+                volume = deflater.volume();
+            }
+            this.volume += volume;
+        }
     }
 
     private void doGet()
@@ -2036,7 +2502,7 @@ class Worker implements Runnable {
         ArrayList headers = new ArrayList();
         
         // resource is established
-        File file = new File(this.resource);
+        Catalog.Entry file = this.profile.catalog.locate(this.resource);
         
         if (file.isDirectory()) {
 
@@ -2045,9 +2511,34 @@ class Worker implements Runnable {
             // otherwise a navigable HTML is generated for the directory
             if (Worker.cleanOptions(this.options.get("index")).toLowerCase().equals("on")) {
                 headers.add(("Content-Type: ").concat(this.mediatypes.get("html")));
+                this.control(headers, this.mediatypes.get("html"));
                 byte[] bytes = new byte[0]; 
+                if (method.equals("get")
+                        && this.indexlimit > 0) {
+                    this.streamDirectoryIndex(file, this.environment.get("query_string"), headers);
+                    return;
+                }
                 if (method.equals("get")) {
-                    bytes = this.createDirectoryIndex(file, this.environment.get("query_string"));
+                    Object[] index = this.createDirectoryIndex(file, this.environment.get("query_string"));
+                    bytes = (byte[])index[0];
+
+                    // The entity tag is derived from the content, so that
+                    // unchanged listings are responded with status 304. The
+                    // compressed listing gets its own tag.
+                    String tag = (String)index[1];
+                    if (this.profile.compressor != null
+                            && this.profile.compressor.accept(this.mediatypes.get("html"), bytes.length)
+                            && Worker.encodingAccepted(this.fields.get("http_accept_encoding"), "gzip"))
+                        tag = tag.substring(0, tag.length() -1).concat("-gzip\"");
+                    if (this.fields.contains("http_if_none_match")
+                            && Worker.tagMatches(this.fields.get("http_if_none_match"), tag, true)) {
+                        this.fields.set("req_etag", tag);
+                        this.status = 304;
+                        return;
+                    }
+                    headers.add(("ETag: ").concat(tag));
+
+                    bytes = this.compress(bytes, this.mediatypes.get("html"), headers);
                     headers.add(("Content-Length: ").concat(String.valueOf(bytes.length)));
                 }
 
@@ -2076,76 +2567,154 @@ class Worker implements Runnable {
             return;
         }       
 
-        // if the client sends IF-(UN)MODIFIED-SINCE it is verified
-        // if (un)valid STATUS 304/412 is set
-        if (!Worker.fileIsModified(file, this.fields.get("http_if_modified_since"))) {
+        // PRECOMPRESSED - If the client accepts the encoding, a precompressed
+        // variant of the file (file.br, file.gz) is delivered instead, as long
+        // as it is not older than the file. The media type of the file is
+        // retained, partial data ranges refer to the variant.
+        Catalog.Entry source = file;
+        String encoding = null;
+        boolean variants = false;
+        String[] encodings = new String[] {"br", ".br", "gzip", ".gz"};
+        for (int loop = 0; loop < encodings.length; loop += 2) {
+            Catalog.Entry variant = this.profile.catalog.locate(this.resource.concat(encodings[loop +1]));
+            if (!variant.isFile()
+                    || variant.lastModified() < file.lastModified())
+                continue;
+            variants = true;
+            if (encoding == null
+                    && Worker.encodingAccepted(this.fields.get("http_accept_encoding"), encodings[loop])) {
+                encoding = encodings[loop];
+                source = variant;
+            }
+        }
+
+        // COMPRESSION - Without a precompressed variant, files of the
+        // configured media types are compressed on the fly if the client
+        // accepts gzip. The compressor holds the compressed file, so that the
+        // file is only compressed once as long as it is not changed. Partial
+        // data ranges are delivered uncompressed.
+        boolean compress = false;
+        if (encoding == null
+                && this.profile.compressor != null
+                && this.profile.compressor.accept(file, this.mediatype)) {
+            variants = true;
+            compress = !this.fields.contains("http_range")
+                    && Worker.encodingAccepted(this.fields.get("http_accept_encoding"), "gzip");
+        }
+
+        byte[] compressed = null;
+        if (compress)
+            compressed = this.profile.compressor.lookup(file, file.lastModified(), file.length());
+        if (compressed != null)
+            encoding = "gzip";
+
+        // ETAG - The entity tag is taken from the metadata of the delivered
+        // file, compressed content on the fly gets its own tag derived from
+        // the file, because the representations must be distinguishable. The
+        // tag is only determined when the compressed content is available, so
+        // that responses and conditions use the same tag.
+        String tag = source.tag();
+        if (compressed != null)
+            tag = tag.substring(0, tag.length() -1).concat("-gzip\"");
+
+        // if the client sends IF-MATCH it is verified first (RFC 9110
+        // 13.2.2), if invalid STATUS 412 is set
+        if (this.fields.contains("http_if_match")
+                && !Worker.tagMatches(this.fields.get("http_if_match"), tag, false)) {
+            this.status = 412;
+            return;
+        }
+
+        // if the client sends IF-NONE-MATCH or IF-(UN)MODIFIED-SINCE it is
+        // verified, IF-NONE-MATCH replaces IF-MODIFIED-SINCE and IF-MATCH
+        // replaces IF-UNMODIFIED-SINCE, if (un)valid STATUS 304/412 is set
+        if (this.fields.contains("http_if_none_match")
+                ? Worker.tagMatches(this.fields.get("http_if_none_match"), tag, true)
+                : !Worker.fileIsModified(file, this.fields.get("http_if_modified_since"))) {
+            this.fields.set("req_etag", tag);
             this.status = 304;
             return;
         }
-        if (this.fields.contains("http_if_unmodified_since")
+        if (!this.fields.contains("http_if_match")
+                && this.fields.contains("http_if_unmodified_since")
                 && Worker.fileIsModified(file, this.fields.get("http_if_unmodified_since"))) {
             this.status = 412;
             return;
         }
 
         long offset = 0;
-        long size   = file.length();
+        long size   = compressed != null ? compressed.length : source.length();
         long limit  = size;
 
-        // if necessary, the partial data range RANGE is determined
+        // if necessary, the partial data ranges RANGE are determined
+        // possible headers for the ranges:
+        //   Range: ...; bytes=500-999 ...
+        //          ...; bytes=-999 ...
+        //          ...; bytes=500- ...
+        //          ...; bytes=0-99, 500-999, -100 ...
+        long[][] ranges = null;
         if (this.fields.contains("http_range")
                 && size > 0) {
-            
-            // possible headers for the range:
-            //   Range: ...; bytes=500-999 ...
-            //          ...; bytes=-999 ...
-            //          ...; bytes=500- ...
-
             String range = this.fields.get("http_range").replace(';', '\n');
-            range = Section.parse(range).get("bytes");
-            if (range.matches("^(\\d+)*\\s*-\\s*(\\d+)*$")) {
-                StringTokenizer tokenizer = new StringTokenizer(range, "-");
-                try {
-                    offset = Long.parseLong(tokenizer.nextToken().trim());
-                    if (tokenizer.hasMoreTokens()) {
-                        limit = Long.parseLong(tokenizer.nextToken().trim());
-                    } else if (range.startsWith("-")) {
-                        if (offset > 0) {
-                            limit  = size -1;
-                            offset = Math.max(0, size -offset);
-                        } else limit = -1;
-                    }
-                    limit = Math.min(limit, size -1);
-                    if (offset >= size) {
-                        this.status = 416;
-                        return;
-                    }
-                    if (offset <= limit) {
-                        this.status = 206;
-                        limit++;
-                    } else {
-                        offset = 0;
-                        limit  = size;
-                    }
-                } catch (Throwable throwable) {
-                    offset = 0;
-                    size   = file.length();
-                    limit  = size;                            
-                }
+            ranges = Worker.rangeParse(Section.parse(range).get("bytes"), size, this.maxranges);
+            if (ranges != null
+                    && ranges.length <= 0) {
+                this.status = 416;
+                return;
             }
+            if (ranges != null) {
+                this.status = 206;
+                offset = ranges[0][0];
+                limit  = ranges[0][1];
+            }
+        }
+
+        // MULTIPART - Several ranges are responded as multipart/byteranges,
+        // each part with its own header, the length is calculated in advance
+        // from the headers and the ranges.
+        String boundary = null;
+        String[] parts = null;
+        if (ranges != null
+                && ranges.length > 1) {
+            boundary = this.environment.get("unique_id");
+            parts = new String[ranges.length +1];
+            limit = 0;
+            for (int loop = 0; loop < ranges.length; loop++) {
+                String part = ("\r\n--").concat(boundary);
+                if (this.mediatype.length() > 0)
+                    part = part.concat("\r\nContent-Type: ").concat(this.mediatype);
+                part = part.concat("\r\nContent-Range: bytes ").concat(String.valueOf(ranges[loop][0])).concat("-")
+                        .concat(String.valueOf(ranges[loop][1] -1)).concat("/").concat(String.valueOf(size)).concat("\r\n\r\n");
+                parts[loop] = part;
+                limit += part.length() +ranges[loop][1] -ranges[loop][0];
+            }
+            parts[ranges.length] = ("\r\n--").concat(boundary).concat("--\r\n");
+            limit += parts[ranges.length].length();
+            offset = 0;
         }
         
         // header is composed for the output
-        headers.add(("Last-Modified: ").concat(Worker.dateFormat("E, dd MMM yyyy HH:mm:ss z", new Date(file.lastModified()), "GMT")));
+        headers.add(("Last-Modified: ").concat(file.timestamp()));
+        headers.add(("ETag: ").concat(tag));
+        this.control(headers, this.mediatype);
         headers.add(("Content-Length: ").concat(String.valueOf(limit -offset)));
         headers.add(("Accept-Ranges: bytes"));
         
         // if available the content type is set
-        if (this.mediatype.length() > 0)
+        if (boundary != null)
+            headers.add(("Content-Type: multipart/byteranges; boundary=").concat(boundary));
+        else if (this.mediatype.length() > 0)
             headers.add(("Content-Type: ").concat(this.mediatype));
 
-        // if available the content type is set
-        if (this.status == 206)
+        // with precompressed variants the encoding is set
+        if (encoding != null)
+            headers.add(("Content-Encoding: ").concat(encoding));
+        if (variants)
+            headers.add(("Vary: Accept-Encoding"));
+
+        // with a single partial data range the range is set
+        if (this.status == 206
+                && boundary == null)
             headers.add(("Content-Range: bytes ").concat(String.valueOf(offset)).concat("-").concat(String.valueOf(limit -1)).concat("/").concat(String.valueOf(size)));
         
         // header is composed for the output
@@ -2158,39 +2727,107 @@ class Worker implements Runnable {
         this.output.write(header.getBytes());
         this.timelock = 0;
         
-        if (method.equals("get")) {
-
-            // data buffer is established
-            byte[] bytes = new byte[this.blocksize];
-            
-            // data stream is established
-            InputStream input = new FileInputStream(this.resource);
-            
-            try {
+        if (!method.equals("get"))
+            return;
 
-                // if necessary, the partial data range is applied
-                input.skip(offset);
+        // If available, the content is taken from the cache, which is valid
+        // as long as the last modification and size of the file correspond to
+        // the cached content. Compressed content is delivered like cached
+        // content. Otherwise the file is opened once for all ranges.
+        ByteBuffer cache = null;
+        if (compressed != null)
+            cache = ByteBuffer.wrap(compressed);
+        else if (this.profile.cache != null)
+            cache = this.profile.cache.lookup(source, source.lastModified(), size);
 
-                while ((offset +this.volume < limit)
-                        && ((size = input.read(bytes)) >= 0)) {
+        FileInputStream input = cache == null ? new FileInputStream(source) : null;
+        
+        try {
 
-                    if (this.status == 206
-                            && (offset +this.volume +size > limit))
-                        size = limit -(offset +this.volume);
+            FileChannel channel = input != null ? input.getChannel() : null;
+            if (boundary == null) {
+                this.transfer(cache, channel, offset, limit);
+                return;
+            }
 
-                    this.timelock = System.currentTimeMillis();
-                    this.output.write(bytes, 0, Math.max(0, (int)size));
-                    this.timelock = 0;
+            for (int loop = 0; loop < ranges.length; loop++) {
+                byte[] bytes = parts[loop].getBytes();
+                this.timelock = System.currentTimeMillis();
+                this.output.write(bytes);
+                this.timelock = 0;
+                this.volume += bytes.length;
+                this.transfer(cache, channel, ranges[loop][0], ranges[loop][1]);
+            }
 
-                    // volume of sent data is registered
-                    this.volume += size;
-                }
+            byte[] bytes = parts[ranges.length].getBytes();
+            this.timelock = System.currentTimeMillis();
+            this.output.write(bytes);
+            this.timelock = 0;
+            this.volume += bytes.length;
 
-            } finally {
+        } finally {
+            if (input != null)
                 try {input.close();
                 } catch (Throwable throwable) {
                 }
+        }
+    }
+
+    /**
+     * Transfers a range of the content from the cache or from the file to the
+     * client. Connections without SSL/TLS that were accepted via a channel
+     * (ENGINE = NIO) get the data without copying it via the heap. All other
+     * connections use the buffer of the worker, which is retained for all
+     * requests. The data is transferred in blocks so that the timelock can
+     * detect blocking data streams.
+     * @param  cache   Content from the cache, otherwise {@code null}
+     * @param  channel Channel of the file, if the content is not cached
+     * @param  offset  Start of the range
+     * @param  limit   End of the range (exclusive)
+     * @throws IOException
+     *     In case of faulty data streams
+     */
+    private void transfer(ByteBuffer cache, FileChannel channel, long offset, long limit)
+            throws IOException {
+
+        SocketChannel target = this.accept.getChannel();
+        if (target == null
+                && (this.buffer == null || this.buffer.length != this.blocksize))
+            this.buffer = new byte[this.blocksize];
+
+        for (long position = offset, size; position < limit; position += size) {
+
+            long length = Math.min(this.blocksize, limit -position);
+
+            if (cache != null) {
+                cache.limit((int)(position +length));
+                cache.position((int)position);
+                this.timelock = System.currentTimeMillis();
+                if (target != null) {
+                    size = target.write(cache);
+                } else {
+                    cache.get(this.buffer, 0, (int)length);
+                    this.output.write(this.buffer, 0, (int)length);
+                    size = length;
+                }
+                this.timelock = 0;
+            } else if (target != null) {
+                this.timelock = System.currentTimeMillis();
+                size = channel.transferTo(position, length, target);
+                this.timelock = 0;
+                if (size <= 0)
+                    break;
+            } else {
+                size = channel.read(ByteBuffer.wrap(this.buffer, 0, (int)length), position);
+                if (size < 0)
+                    break;
+                this.timelock = System.currentTimeMillis();
+                this.output.write(this.buffer, 0, (int)size);
+                this.timelock = 0;
             }
+
+            // volume of sent data is registered
+            this.volume += size;
         }
     }
 
@@ -2199,6 +2836,14 @@ class Worker implements Runnable {
         
         // resource is determined
         File file = new File(this.resource);
+
+        // with IF-MATCH or IF-NONE-MATCH the resource is only changed if the
+        // version matches, otherwise STATUS 412 is set
+        if (!Worker.fileIsMatching(this.profile.catalog.locate(this.resource),
+                this.fields.get("http_if_match"), this.fields.get("http_if_none_match"))) {
+            this.status = 412;
+            return;
+        }
         
         // without CONTENT-LENGTH directories, otherwise files are created
         if (!this.fields.contains("http_content_length")) {
@@ -2273,6 +2918,14 @@ class Worker implements Runnable {
     
     private void doDelete() {
         
+        // with IF-MATCH or IF-NONE-MATCH the resource is only deleted if the
+        // version matches, otherwise STATUS 412 is set
+        if (!Worker.fileIsMatching(this.profile.catalog.locate(this.resource),
+                this.fields.get("http_if_match"), this.fields.get("http_if_none_match"))) {
+            this.status = 412;
+            return;
+        }
+
         // requested resource is completely deleted,
         // if an error occurs STATUS 500 is set.
         if (Worker.fileDelete(new File(this.resource)))
@@ -2294,6 +2947,7 @@ class Worker implements Runnable {
                 && (this.status == 302 || this.status == 404))
             this.status = 200;
 
+        Object[] template = null;
         if (this.status == 302) {
 
             // determination of the LOCATION for redirection 
@@ -2305,14 +2959,10 @@ class Worker implements Runnable {
 
         } else {
 
-            // determination of the template for the server status
-            // three variants with decreasing qualification are supported
-            String string = String.valueOf(this.status);
-            this.resource = this.sysroot.concat("/status-").concat(string).concat(".html");
-            if (!new File(this.resource).exists())
-                this.resource = this.sysroot.concat("/status-").concat(string.substring(0, 1)).concat("xx.html");
-            if (!new File(this.resource).exists())
-                this.resource = this.sysroot.concat("/status.html");
+            // determination of the template for the server status, the
+            // templates are held parsed by the server
+            template = this.profile.status.lookup(this.sysroot, String.valueOf(this.status));
+            this.resource = (String)template[0];
         }
         
         ArrayList headers = new ArrayList();
@@ -2336,51 +2986,73 @@ class Worker implements Runnable {
 
         if (this.fields.contains("req_location"))
             headers.add(("Location: ").concat(this.fields.get("req_location")));
+
+        if (this.fields.contains("req_etag"))
+            headers.add(("ETag: ").concat(this.fields.get("req_etag")));
+        if (this.status == 304)
+            this.control(headers, this.mediatype);
         
         // The generator is established when it is not a HEAD or OPTION request
         // and the status code is not labeled with the option [H] (head only).
         String string = this.statuscodes.get(String.valueOf(this.status));
-        Generator generator;
-        if (method.equals("head")
-                || method.equals("options")
-                || string.toUpperCase().contains("[H]"))
-            generator = Generator.parse(null);
-        else generator = Generator.parse(Worker.fileRead(new File(this.resource)));
-        
-        // Header and environment variables are merged, server side variables
-        // have the higher priority and override system environment variables.
-
-        Hashtable values = new Hashtable();
+        byte[] bytes = new byte[0];
+        if (!method.equals("head")
+                && !method.equals("options")
+                && !string.toUpperCase().contains("[H]")) {
+
+            if (template == null) {
+                byte[] model = Worker.fileRead(new File(this.resource));
+                template = new Object[] {this.resource, null, null, null,
+                        Generator.parse(model), Generator.placeholders(model), null, null};
+            }
 
-        Enumeration fields = this.fields.elements();
-        while (fields.hasMoreElements()) {
-            string = (String)fields.nextElement();
-            values.put(string, this.fields.get(string));
-        }
-        
-        Enumeration environment = this.environment.elements();
-        while (environment.hasMoreElements()) {
-            string = (String)environment.nextElement();
-            values.put(string, this.environment.get(string));
+            // Static templates are already rendered. Otherwise only the
+            // placeholders used by the template are filled, server side
+            // variables have the higher priority and override header fields.
+            bytes = (byte[])template[6];
+            if (bytes == null) {
+                String[] names = (String[])template[5];
+                Hashtable values = new Hashtable();
+                for (int loop = 0; loop < names.length; loop++) {
+                    string = names[loop];
+                    if (string.equals("http_status"))
+                        values.put(string, String.valueOf(this.status));
+                    else if (string.equals("http_status_text"))
+                        values.put(string, Worker.cleanOptions(this.statuscodes.get(String.valueOf(this.status))));
+                    else if (this.environment.contains(string))
+                        values.put(string, this.environment.get(string));
+                    else if (this.fields.contains(string))
+                        values.put(string, this.fields.get(string));
+                }
+                Generator generator = ((Generator)template[4]).copy();
+                generator.set(values);
+                bytes = generator.extract();
+            }
         }
-        
-        string = String.valueOf(this.status);
-        values.put("HTTP_STATUS", string);
-        values.put("HTTP_STATUS_TEXT", Worker.cleanOptions(this.statuscodes.get(string)));
-        
-        generator.set(values);
-        byte[] bytes = generator.extract();
 
-        // if necessary, CONTENT-TYPE / CONTENT-LENGTH is set in the header
+        // if necessary, CONTENT-TYPE / CONTENT-LENGTH is set in the header,
+        // static templates are compressed only once
         if (bytes.length > 0) {
             headers.add(("Content-Type: ").concat(this.mediatypes.get("html")));
+            if (bytes == template[6]
+                    && this.profile.compressor != null
+                    && this.profile.compressor.accept(this.mediatypes.get("html"), bytes.length)) {
+                headers.add(("Vary: Accept-Encoding"));
+                if (Worker.encodingAccepted(this.fields.get("http_accept_encoding"), "gzip")) {
+                    headers.add(("Content-Encoding: gzip"));
+                    bytes = this.profile.status.compress(template);
+                }
+            } else bytes = this.compress(bytes, this.mediatypes.get("html"), headers);
             headers.add(("Content-Length: ").concat(String.valueOf(bytes.length)));
-        }
+        } else if (this.persistent
+                && !method.equals("head")
+                && this.status != 204
+                && this.status != 304)
+            headers.add("Content-Length: 0");
         
         // available methods are collected
-        string = String.join(", ", this.options.get("methods").split("\\s+"));
-        if (string.length() > 0)
-            headers.add(("Allow: ").concat(string));
+        if (this.allow.length() > 0)
+            headers.add(("Allow: ").concat(this.allow));
         
         // header is composed for the output
         string = this.header(this.status, (String[])headers.toArray(new String[0])).concat("\r\n\r\n");
@@ -2409,9 +3081,12 @@ class Worker implements Runnable {
             // SO timeout is set for the ServerSocket
             this.accept.setSoTimeout((int)this.timeout);
 
-            // data streams are established
-            this.input  = this.accept.getInputStream();
-            this.output = this.accept.getOutputStream();
+            // data streams are established, for persistent connections they
+            // are retained for all requests of the connection
+            if (this.input == null)
+                this.input = this.accept.getInputStream();
+            if (this.output == null)
+                this.output = this.accept.getOutputStream();
 
             // the connection is already accepted, so that the server process
             // does not block unnecessarily, the connection is initialized only
@@ -2423,7 +3098,7 @@ class Worker implements Runnable {
             }             
             
             // determine the resource
-            File file = new File(this.resource);
+            File file = this.profile.catalog.locate(this.resource);
 
             // resource must refer a module, file or directory
             if (this.status == 0)
@@ -2473,7 +3148,9 @@ class Worker implements Runnable {
                         } catch (Exception exception) {
                             this.status = 500;
                             throw exception;
-                        }                    
+                        } finally {
+                            this.profile.catalog.invalidate(this.resource);
+                        }
                     
                     if (this.status == 200
                             && method.equals("delete"))
@@ -2481,7 +3158,9 @@ class Worker implements Runnable {
                         } catch (Exception exception) {
                             this.status = 500;
                             throw exception;
-                        }    
+                        } finally {
+                            this.profile.catalog.invalidate(this.resource);
+                        }
                 }
             }   
             
@@ -2524,14 +3203,13 @@ class Worker implements Runnable {
             // format of the ACCESSLOG is determined
             String format = this.options.get("accesslog");
             
-            // converting string formatter syntax to generator syntax
+            // converting string formatter syntax to generator syntax, the
+            // time symbols are only filled after the generator, so that the
+            // template does not change and is reused from the template cache
             format = format.replaceAll("#", "#[0x23]");
-            format = format.replaceAll("%%", "#[0x25]");
+            format = format.replaceAll("%%", "#[0x25]#[0x25]");
             format = format.replaceAll("%\\[", "#[");
             format = format.replaceAll("%t", "%1\\$t");
- 
-            // time symbols are filled
-            format = String.format(Locale.US, format, new Date());
             
             String output;
 
@@ -2550,21 +3228,23 @@ class Worker implements Runnable {
             Enumeration environment = this.environment.elements();
             while (environment.hasMoreElements()) {
                 string = (String)environment.nextElement();
-                values.put(string, Worker.textEscape(this.environment.get(string)));
+                values.put(string, Worker.textEscape(this.environment.get(string)).replace("%", "%%"));
             }            
             
+            Date date = new Date();
+            
             Generator generator;
             
             generator = Generator.parse(format.getBytes());
             generator.set(values);
-            format = new String(generator.extract());
+            format = String.format(Locale.US, new String(generator.extract()), date);
             format = format.replaceAll("(?<=\\s)(''|\"\")((?=\\s)|$)", "-");
             format = format.replaceAll("(\\s)((?=\\s)|$)", "$1-"); 
             format = format.concat(System.lineSeparator());
             
             generator = Generator.parse(output.getBytes());
             generator.set(values);
-            output = new String(generator.extract());
+            output = String.format(Locale.US, new String(generator.extract()), date);
             output = output.replaceAll("(?<=\\s)(''|\"\")((?=\\s)|$)", "-");
             output = output.replaceAll("(\\s)((?=\\s)|$)", "$1-").trim(); 
             
@@ -2580,6 +3260,17 @@ class Worker implements Runnable {
         }
     }
     
+    /**
+     * Assigns a connection already accepted by the server to the worker. The
+     * worker then processes only this connection and terminates afterwards.
+     * This is used with virtual threads, where each connection has its own
+     * worker.
+     * @param accept Accepted connection
+     */
+    void assign(Socket accept) {
+        this.accept = accept;
+    }
+
     /** Marks the worker for disposable in case of inactivity. */
     void retire() {
         if (this.accept == null
@@ -2631,50 +3322,146 @@ class Worker implements Runnable {
         }
     }
 
-    @Override
-    public void run() {
+    /**
+     * Sets up the variables for a new request.
+     */
+    private void prepare() {
 
-        while (true) {
-            
-            ServerSocket socket = this.socket;
-            if (socket == null)
-                break;
+        this.status = 0;
+        this.volume = 0;
 
-            // initial setup of the variables
-            this.status = 0;
-            this.volume = 0;
+        this.control    = true;
+        this.persistent = false;
 
-            this.control = true;
+        this.docroot   = "";
+        this.gateway   = "";
+        this.mediatype = "";
+        this.protocol  = "HTTP/1.0";
+        this.resource  = "";
+        this.sysroot   = "";
 
-            this.docroot   = "";
-            this.gateway   = "";
-            this.mediatype = "";
-            this.resource  = "";
-            this.sysroot   = "";
+        // fields from the header are configured
+        this.fields = new Section(true);
 
-            // fields from the header are configured
-            this.fields = new Section(true);
-            
-            Settings settings = (Settings)this.settings.clone();
+        // configuration is taken from the profile of the server
+        this.configure(this.profile);
 
-            // configuration is loaded
-            this.access      = settings.get(this.context.concat(":acc"));
-            this.environment = settings.get(this.context.concat(":env"));
-            this.filters     = settings.get(this.context.concat(":flt"));
-            this.interfaces  = settings.get(this.context.concat(":cgi"));
-            this.options     = settings.get(this.context.concat(":ini"));
-            this.references  = settings.get(this.context.concat(":ref"));
+        this.mediatypes  = this.profile.mediatypes;
+        this.statuscodes = this.profile.statuscodes;
+    }
 
-            this.mediatypes  = settings.get("mediatypes");
-            this.statuscodes = settings.get("statuscodes");
+    /**
+     * Takes over the configuration from a profile of the server or a virtual
+     * host. The sections of the profile are shared and only read, only the
+     * environment is changed per request and is therefore copied.
+     * @param profile Profile of the server or a virtual host
+     */
+    private void configure(Profile profile) {
+
+        this.access      = profile.control;
+        this.environment = (Section)profile.environment.clone();
+        this.filter      = profile.filter;
+        this.interfaces  = profile.interfaces;
+        this.options     = profile.options;
+        this.routing     = profile.routing;
+
+        this.blocksize   = profile.blocksize;
+        this.interrupt   = profile.interrupt;
+        this.timeout     = profile.timeout;
+        this.keepalive   = profile.keepalive;
+        this.maxrequests = profile.maxrequests;
+        this.maxranges   = profile.maxranges;
+        this.indexlimit  = profile.indexlimit;
+        this.allow       = profile.allow;
+        this.policy      = profile.policy;
+    }
 
-            try {this.timeout = socket.getSoTimeout();
-            } catch (Throwable throwable) {
-                this.timeout = 0;
+    /**
+     * Closes the accepted socket. Unread data, e.g. from pipelined requests,
+     * would cause a connection reset, with which the client may discard the
+     * response already sent. Therefore, in this case the output is terminated
+     * first and the remaining data is read and discarded for a short time.
+     */
+    private void close() {
+        
+        try {
+            if (this.input != null
+                    && Worker.streamAvailable(this.input) > 0) {
+                this.accept.shutdownOutput();
+                this.accept.setSoTimeout(1000);
+                byte[] bytes = new byte[this.blocksize];
+                long timing = System.currentTimeMillis() +1000;
+                while (System.currentTimeMillis() < timing
+                        && this.input.read(bytes) >= 0)
+                    continue;
             }
+        } catch (Throwable throwable) {
+        }
+
+        try {this.accept.close();
+        } catch (Throwable throwable) {
+        }
+    }
 
-            try {this.accept = socket.accept();
+    /**
+     * Waits for the next request of a persistent connection. The wait ends
+     * without a request if the idle time is exceeded, the client closes the
+     * connection or the worker is terminated. A retired worker still completes
+     * the connection.
+     * @return {@code true} if a next request is available
+     */
+    private boolean await() {
+        try {
+            this.accept.setSoTimeout((int)this.keepalive);
+            this.input.mark(1);
+            if (this.input.read() < 0)
+                return false;
+            this.input.reset();
+            return true;
+        } catch (Throwable throwable) {
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+
+        while (true) {
+            
+            ServerSocket socket = this.socket;
+            if (socket == null)
+                break;
+
+            // initial setup of the variables
+            this.prepare();
+
+            // data streams are established with the first request
+            this.input    = null;
+            this.output   = null;
+            this.requests = 0;
+
+            // A connection assigned by the server is processed only once, the
+            // worker is then terminated. With NIO, the listener provides
+            // connections whose request header has already been read without
+            // blocking. The data already read is placed in front of the data
+            // stream of the socket. If the timeout has been exceeded while
+            // reading the header, the request is responded with status 408.
+            try {
+                if (this.accept != null)
+                    this.socket = null;
+                else if (this.listener != null) {
+                    Object[] objects = this.listener.accept(socket.getSoTimeout());
+                    this.accept   = (Socket)objects[0];
+                    this.requests = ((Integer)objects[3]).intValue();
+                    InputStream input = new ByteArrayInputStream((byte[])objects[1]);
+                    if (((Boolean)objects[2]).booleanValue())
+                        this.status = 408;
+                    else input = new SequenceInputStream(input, this.accept.getInputStream());
+                    this.input = input;
+                } else this.accept = socket.accept();
             } catch (InterruptedIOException exception) {
+                if (this.server.expire(this))
+                    break;
                 continue;
             } catch (SocketException exception) {
                 break;  
@@ -2683,25 +3470,69 @@ class Worker implements Runnable {
                 break;
             }
 
-            // request is processed
-            try {this.service();
-            } catch (Throwable throwable) {
-                Service.print(throwable);
-            }
+            // the server is informed about the connection, so that it can
+            // establish a further worker if there is no idle one left
+            if (this.socket != null)
+                this.server.engage(this);
 
-            // socket is finally closed
-            try {this.accept.close();
-            } catch (Throwable throwable) {
-            }
+            // KEEPALIVE - Requests are processed as long as the connection is
+            // persistent, pipelined requests are included in the buffered
+            // input stream and are processed in sequence
+            boolean persistent = true;
+            for (int loop = 0; persistent; loop++) {
 
-            // logging from request
-            try {this.trace();
-            } catch (Throwable throwable) {
-                Service.print(throwable);
+                // variables are set up again for each following request
+                if (loop > 0)
+                    this.prepare();
+                this.requests++;
+
+                // request is processed
+                try {this.service();
+                } catch (Throwable throwable) {
+                    this.persistent = false;
+                    Service.print(throwable);
+                }
+
+                persistent = this.persistent;
+
+                // socket is closed before logging if the connection ends
+                if (!persistent)
+                    this.close();
+
+                // logging from request
+                try {this.trace();
+                } catch (Throwable throwable) {
+                    Service.print(throwable);
+                }
+
+                // With NIO, the connection waits for the next request in the
+                // listener without occupying the worker, unless the data of
+                // pipelined requests are already available.
+                if (persistent
+                        && this.listener != null
+                        && Worker.streamAvailable(this.input) <= 0) {
+                    this.listener.release(this.accept, this.keepalive, this.requests);
+                    break;
+                }
+
+                // waiting for the next request of the connection
+                if (persistent)
+                    persistent = this.await();
             }
 
+            // socket is finally closed, unless it is waiting in the listener
+            if (!persistent)
+                this.close();
+
             // socket is discarded
             this.accept = null;
+
+            // worker is available again for the next connection
+            if (this.socket != null)
+                this.server.release(this);
         }
+
+        // worker is finally deregistered from the server
+        this.server.dispose(this);
     }
-}
\ No newline at end of file
+}
@@ -16,10 +16,13 @@
  */
 package com.seanox.devwex;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
+import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -29,7 +32,10 @@ import org.junit.runner.Description;
 
 /** Abstract class to implement a test. */
 abstract class AbstractTest {
-    
+
+    /** Directory of the temporary test files, deleted after each test class */
+    private static final File TEMP = new File(System.getProperty("java.io.tmpdir"), "devwex_test");
+
     @BeforeClass
     public static void prepare() {
 
@@ -53,6 +59,38 @@ abstract class AbstractTest {
         }
     }
 
+    @AfterClass
+    public static void cleanup() {
+        AbstractTest.delete(AbstractTest.TEMP);
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null)
+            for (final File entry : files)
+                AbstractTest.delete(entry);
+        file.delete();
+    }
+
+    static File createTestFile(final String name, final int size)
+            throws Exception {
+        final File file = new File(AbstractTest.TEMP, name).getCanonicalFile();
+        file.getParentFile().mkdirs();
+        final byte[] bytes = new byte[size];
+        for (int loop = 0; loop < bytes.length; loop++)
+            bytes[loop] = (byte)('A' + loop % 26);
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+    static File createTestDirectory(final String name)
+            throws Exception {
+        final File directory = new File(AbstractTest.TEMP, name).getCanonicalFile();
+        AbstractTest.delete(directory);
+        directory.mkdirs();
+        return directory;
+    }
+
     @Rule
     public TestRule watcher = new TestWatcher() {
         protected void starting(final Description description) {
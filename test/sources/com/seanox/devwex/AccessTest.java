@@ -0,0 +1,118 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Access}. */
+public class AccessTest extends AbstractTest {
+
+    private static Section createSection() {
+        final Section section = new Section(true);
+        section.set("a", "usr-a:pwd-a usr-b:pwd:b usr-c");
+        section.set("b", "usr-d:pwd-d");
+        section.set("c", "");
+        return section;
+    }
+
+    private static String createBasic(final String credentials) {
+        return "Basic " + new String(Base64.getEncoder().encode(credentials.getBytes()));
+    }
+
+    @Test
+    public void testAcceptance_01() {
+        final Access access = new Access(AccessTest.createSection(), new Section(true));
+        Assert.assertFalse(access.isEmpty(new String[] {"a"}));
+        Assert.assertFalse(access.isEmpty(new String[] {"c", "b"}));
+        Assert.assertTrue(access.isEmpty(new String[] {"c"}));
+        Assert.assertTrue(access.isEmpty(new String[] {"x"}));
+        Assert.assertTrue(access.isEmpty(new String[0]));
+    }
+
+    @Test
+    public void testAcceptance_02() {
+        final Access access = new Access(AccessTest.createSection(), new Section(true));
+        final String[] groups = new String[] {"c", "a"};
+        Assert.assertEquals("usr-a", access.verify(groups, AccessTest.createBasic("usr-a:pwd-a")));
+        Assert.assertEquals("usr-a", access.verify(groups, AccessTest.createBasic("usr-a:pwd-a")));
+        Assert.assertEquals("usr-b", access.verify(groups, AccessTest.createBasic("usr-b:pwd:b")));
+        Assert.assertEquals("", access.verify(groups, AccessTest.createBasic("usr-c")));
+        Assert.assertEquals("usr-a", access.verify(groups, AccessTest.createBasic("usr-a:pwd-a usr-b:pwd:b")));
+        Assert.assertNull(access.verify(groups, AccessTest.createBasic("usr-a:pwd-b")));
+        Assert.assertNull(access.verify(groups, AccessTest.createBasic("usr-d:pwd-d")));
+        Assert.assertNull(access.verify(groups, AccessTest.createBasic("")));
+        Assert.assertNull(access.verify(groups, "Basic %%%"));
+        Assert.assertEquals("usr-d", access.verify(new String[] {"b"}, AccessTest.createBasic("usr-d:pwd-d")));
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final Access access = new Access(AccessTest.createSection(), new Section(true));
+        final String[] groups = new String[] {"a", "b"};
+        final String digest = ":nonce:00000001:cnonce:auth:" + Worker.textHash("GET:/");
+        final String response = Worker.textHash(Worker.textHash("usr-b:Realm:pwd:b") + digest);
+        Assert.assertTrue(access.verify(groups, "usr-b", "Realm", digest, response));
+        Assert.assertFalse(access.verify(groups, "usr-b", "Other", digest, response));
+        Assert.assertFalse(access.verify(groups, "usr-a", "Realm", digest, response));
+        Assert.assertFalse(access.verify(new String[] {"b"}, "usr-b", "Realm", digest, response));
+        Assert.assertTrue(access.verify(groups, "usr-c", "Realm", digest,
+                Worker.textHash(Worker.textHash("usr-c:Realm:") + digest)));
+    }
+
+    @Test
+    public void testAcceptance_04() {
+        Assert.assertEquals("Text \\\"A\\\"", Access.realm("/a [ACC:A] [Realm:Text \"A\" ] [D]"));
+        Assert.assertEquals("", Access.realm("/a [ACC:A]"));
+        Assert.assertEquals("a b", Access.groups("/a [acc:a] [realm:x] [acc:b]"));
+        Assert.assertEquals("", Access.groups("/a [realm:x]"));
+        final Section section = Access.parameters("Digest username=\"usr-a\", nc=00000001, uri=\"/a\"");
+        Assert.assertEquals("usr-a", section.get("username"));
+        Assert.assertEquals("00000001", section.get("nc"));
+        Assert.assertEquals("/a", section.get("uri"));
+    }
+
+    @Test
+    public void testAcceptance_05()
+            throws Exception {
+        final Section references = new Section(true);
+        references.set("a", "/a > ./a [ACC:A] [REALM:Realm] [D]");
+        references.set("b", "/b > ./b [ACC:A] [REALM:Basic]");
+        final Access access = new Access(AccessTest.createSection(), references);
+        final Map<?, ?> groups = (Map<?, ?>)AbstractTestInternalAccess.getFieldValue(access, "groups");
+        final Map<?, ?> hashes = (Map<?, ?>)((Object[])groups.get("usr-a:pwd-a usr-b:pwd:b usr-c"))[3];
+        Assert.assertEquals(1, hashes.size());
+        Assert.assertTrue(hashes.containsKey("Realm"));
+        final Map<?, ?> users = (Map<?, ?>)hashes.get("Realm");
+        Assert.assertTrue(((List<?>)users.get("usr-b")).contains(Worker.textHash("usr-b:Realm:pwd:b")));
+        final String[] groupsA = new String[] {"a"};
+        final String digest = ":nonce:00000001:cnonce:auth:" + Worker.textHash("GET:/");
+        Assert.assertTrue(access.verify(groupsA, "usr-b", "Realm", digest,
+                Worker.textHash(Worker.textHash("usr-b:Realm:pwd:b") + digest)));
+        Assert.assertTrue(access.verify(groupsA, "usr-b", "Other", digest,
+                Worker.textHash(Worker.textHash("usr-b:Other:pwd:b") + digest)));
+        Assert.assertFalse(access.verify(groupsA, "usr-b", "Realm", digest,
+                Worker.textHash(Worker.textHash("usr-b:Other:pwd:b") + digest)));
+        Assert.assertFalse(access.verify(groupsA, "usr-x", "Realm", digest,
+                Worker.textHash(Worker.textHash("usr-x:Realm:") + digest)));
+    }
+}
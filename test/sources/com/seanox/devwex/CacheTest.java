@@ -0,0 +1,116 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Cache}. */
+public class CacheTest extends AbstractTest {
+
+    private static ByteBuffer lookup(final Cache cache, final File file) {
+        return cache.lookup(file, file.lastModified(), file.length());
+    }
+
+    @Test
+    public void testAcceptance_01()
+            throws Exception {
+        final Cache cache = new Cache(1000, 100, "LRU");
+        final File file = AbstractTest.createTestFile("cache_01", 50);
+        final ByteBuffer buffer = CacheTest.lookup(cache, file);
+        Assert.assertNotNull(buffer);
+        Assert.assertTrue(buffer.isDirect());
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        Assert.assertArrayEquals(Files.readAllBytes(file.toPath()), bytes);
+        Assert.assertNotNull(CacheTest.lookup(cache, file));
+        Assert.assertEquals("CACHE 50/1000 BYTES, 1 FILES, 1 HITS, 1 MISSES, 0 EVICTIONS", cache.expose());
+    }
+
+    @Test
+    public void testAcceptance_02()
+            throws Exception {
+        final Cache cache = new Cache(1000, 100, "LRU");
+        final File file = AbstractTest.createTestFile("cache_02", 150);
+        Assert.assertNull(CacheTest.lookup(cache, file));
+        Assert.assertNull(CacheTest.lookup(cache, file));
+        Assert.assertEquals("CACHE 0/1000 BYTES, 0 FILES, 0 HITS, 2 MISSES, 0 EVICTIONS", cache.expose());
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final Cache cache = new Cache(1000, 100, "LRU");
+        final File file = AbstractTest.createTestFile("cache_03", 50);
+        Assert.assertNotNull(CacheTest.lookup(cache, file));
+        Assert.assertNotNull(cache.lookup(file, file.lastModified() +1000, file.length()));
+        Assert.assertNotNull(cache.lookup(file, file.lastModified(), file.length()));
+        Assert.assertEquals("CACHE 50/1000 BYTES, 1 FILES, 0 HITS, 3 MISSES, 0 EVICTIONS", cache.expose());
+    }
+
+    @Test
+    public void testAcceptance_04()
+            throws Exception {
+        final Cache cache = new Cache(100, 100, "LRU");
+        final File fileA = AbstractTest.createTestFile("cache_04_A", 40);
+        final File fileB = AbstractTest.createTestFile("cache_04_B", 40);
+        final File fileC = AbstractTest.createTestFile("cache_04_C", 40);
+        CacheTest.lookup(cache, fileA);
+        CacheTest.lookup(cache, fileB);
+        CacheTest.lookup(cache, fileA);
+        CacheTest.lookup(cache, fileC);
+        Assert.assertEquals("CACHE 80/100 BYTES, 2 FILES, 1 HITS, 3 MISSES, 1 EVICTIONS", cache.expose());
+        CacheTest.lookup(cache, fileA);
+        Assert.assertEquals("CACHE 80/100 BYTES, 2 FILES, 2 HITS, 3 MISSES, 1 EVICTIONS", cache.expose());
+    }
+
+    @Test
+    public void testAcceptance_05()
+            throws Exception {
+        final Cache cache = new Cache(100, 100, "LFU");
+        final File fileA = AbstractTest.createTestFile("cache_05_A", 40);
+        final File fileB = AbstractTest.createTestFile("cache_05_B", 40);
+        final File fileC = AbstractTest.createTestFile("cache_05_C", 40);
+        CacheTest.lookup(cache, fileA);
+        CacheTest.lookup(cache, fileA);
+        CacheTest.lookup(cache, fileB);
+        CacheTest.lookup(cache, fileB);
+        CacheTest.lookup(cache, fileB);
+        CacheTest.lookup(cache, fileB);
+        CacheTest.lookup(cache, fileA);
+        CacheTest.lookup(cache, fileC);
+        Assert.assertEquals("CACHE 80/100 BYTES, 2 FILES, 5 HITS, 3 MISSES, 1 EVICTIONS", cache.expose());
+        CacheTest.lookup(cache, fileB);
+        Assert.assertEquals("CACHE 80/100 BYTES, 2 FILES, 6 HITS, 3 MISSES, 1 EVICTIONS", cache.expose());
+    }
+
+    @Test
+    public void testAcceptance_06()
+            throws Exception {
+        final Cache cache = new Cache(1000, 100, "LRU");
+        final File fileA = AbstractTest.createTestFile("cache_06_A", 40);
+        final File fileB = AbstractTest.createTestFile("cache_06_B", 400);
+        cache.preload(fileA.getParentFile(), fileA.getName() + " " + fileB.getName() + " nix");
+        Assert.assertEquals("CACHE 40/1000 BYTES, 1 FILES, 0 HITS, 0 MISSES, 0 EVICTIONS", cache.expose());
+        Assert.assertNotNull(CacheTest.lookup(cache, fileA));
+        Assert.assertEquals("CACHE 40/1000 BYTES, 1 FILES, 1 HITS, 0 MISSES, 0 EVICTIONS", cache.expose());
+    }
+}
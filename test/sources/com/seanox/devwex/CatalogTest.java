@@ -0,0 +1,153 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Catalog}. */
+public class CatalogTest extends AbstractTest {
+
+    @Test
+    public void testAcceptance_01()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("catalog_01");
+        final File file = new File(directory, "a.txt");
+        Files.write(file.toPath(), new byte[10]);
+        final Catalog catalog = new Catalog(0, 0);
+        final File entry = catalog.locate(file.getPath());
+        Assert.assertTrue(entry.exists());
+        Assert.assertTrue(entry.isFile());
+        Assert.assertFalse(entry.isDirectory());
+        Assert.assertEquals(10, entry.length());
+        Assert.assertEquals(file.lastModified(), entry.lastModified());
+        Assert.assertNotSame(entry, catalog.locate(file.getPath()));
+        Assert.assertTrue(catalog.locate(directory.getPath()).isDirectory());
+        Assert.assertFalse(catalog.locate(new File(directory, "nix").getPath()).exists());
+    }
+
+    @Test
+    public void testAcceptance_02()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("catalog_02");
+        final File file = new File(directory, "a.txt");
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            final File entry = catalog.locate(file.getPath());
+            Assert.assertFalse(entry.exists());
+            Assert.assertSame(entry, catalog.locate(file.getPath()));
+            Files.write(file.toPath(), new byte[10]);
+            catalog.invalidate(file.getPath());
+            Assert.assertNotSame(entry, catalog.locate(file.getPath()));
+            Assert.assertTrue(catalog.locate(file.getPath()).isFile());
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("catalog_03");
+        final File file = new File(directory, "a.txt");
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            Assert.assertFalse(catalog.locate(file.getPath()).exists());
+            Assert.assertArrayEquals(new String[0], catalog.locate(directory.getPath()).list());
+            Files.write(file.toPath(), new byte[10]);
+            for (int loop = 0; loop < 100 && !catalog.locate(file.getPath()).exists(); loop++)
+                Thread.sleep(100);
+            Assert.assertTrue(catalog.locate(file.getPath()).isFile());
+            Assert.assertArrayEquals(new String[] {"a.txt"}, catalog.locate(directory.getPath()).list());
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_04()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("catalog_04");
+        final File file = new File(directory, "a.txt");
+        final Catalog catalog = new Catalog(100, 250);
+        try {
+            catalog.destroy();
+            final File entry = catalog.locate(file.getPath());
+            Assert.assertSame(entry, catalog.locate(file.getPath()));
+            Thread.sleep(500);
+            Assert.assertNotSame(entry, catalog.locate(file.getPath()));
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_05()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("catalog_05");
+        final Catalog catalog = new Catalog(2, 0);
+        try {
+            final File entryA = catalog.locate(new File(directory, "a").getPath());
+            final File entryB = catalog.locate(new File(directory, "b").getPath());
+            Assert.assertSame(entryA, catalog.locate(new File(directory, "a").getPath()));
+            catalog.locate(new File(directory, "c").getPath());
+            Assert.assertSame(entryA, catalog.locate(new File(directory, "a").getPath()));
+            Assert.assertNotSame(entryB, catalog.locate(new File(directory, "b").getPath()));
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_06()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("catalog_06");
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            final File entry = catalog.locate(new File(directory, "x/../y").getPath());
+            Assert.assertEquals(new File(directory, "y").getPath(), entry.getCanonicalPath());
+            Assert.assertSame(catalog.locate(new File(directory, "y").getPath()), entry.getCanonicalFile());
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_07()
+            throws Exception {
+        final File directoryA = AbstractTest.createTestDirectory("catalog_07a");
+        final File directoryB = AbstractTest.createTestDirectory("catalog_07b");
+        final Catalog catalog = new Catalog(1, 0);
+        try {
+            catalog.locate(new File(directoryA, "a").getPath());
+            final Map<?, ?> directories = (Map<?, ?>)AbstractTestInternalAccess.getFieldValue(catalog, "directories");
+            Assert.assertTrue(directories.containsKey(directoryA.getPath()));
+            catalog.locate(new File(directoryB, "b").getPath());
+            Assert.assertFalse(directories.containsKey(directoryA.getPath()));
+            Assert.assertTrue(directories.containsKey(directoryB.getPath()));
+            Assert.assertEquals(1, directories.size());
+            catalog.invalidate(new File(directoryB, "b").getPath());
+            Assert.assertTrue(directories.isEmpty());
+        } finally {
+            catalog.destroy();
+        }
+    }
+}
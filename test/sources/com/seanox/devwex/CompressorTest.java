@@ -0,0 +1,122 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Compressor}. */
+public class CompressorTest extends AbstractTest {
+
+    private static final String TYPES = "text/* application/json";
+
+    private static byte[] decompress(final byte[] bytes)
+            throws Exception {
+        final InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        for (int size; (size = input.read(buffer)) >= 0;)
+            output.write(buffer, 0, size);
+        input.close();
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testAcceptance_01() {
+        final Compressor compressor = new Compressor(6, TYPES, 100, 1000);
+        Assert.assertTrue(compressor.accept("text/plain", 100));
+        Assert.assertTrue(compressor.accept("Text/HTML; charset=UTF-8", 100));
+        Assert.assertTrue(compressor.accept("application/json", -1));
+        Assert.assertFalse(compressor.accept("application/json", 99));
+        Assert.assertFalse(compressor.accept("application/xml", 100));
+        Assert.assertFalse(compressor.accept("textual/plain", 100));
+        Assert.assertFalse(compressor.accept(null, 100));
+    }
+
+    @Test
+    public void testAcceptance_02()
+            throws Exception {
+        final Compressor compressor = new Compressor(9, TYPES, 0, 0);
+        final byte[] bytes = new byte[10000];
+        final byte[] compressed = compressor.compress(bytes);
+        Assert.assertTrue(compressed.length < bytes.length);
+        Assert.assertArrayEquals(bytes, CompressorTest.decompress(compressed));
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final Compressor compressor = new Compressor(6, TYPES, 0, 0);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputStream stream = compressor.stream(output);
+        stream.write("Hello ".getBytes());
+        stream.flush();
+        final int length = output.size();
+        Assert.assertTrue(length > 10);
+        stream.write("World".getBytes());
+        stream.close();
+        Assert.assertTrue(output.size() > length);
+        Assert.assertArrayEquals("Hello World".getBytes(), CompressorTest.decompress(output.toByteArray()));
+    }
+
+    @Test
+    public void testAcceptance_04()
+            throws Exception {
+        final Compressor compressor = new Compressor(6, TYPES, 0, 1000);
+        final File file = AbstractTest.createTestFile("compressor_04", 500);
+        final byte[] compressed = compressor.lookup(file, file.lastModified(), file.length());
+        Assert.assertArrayEquals(Files.readAllBytes(file.toPath()), CompressorTest.decompress(compressed));
+        Assert.assertSame(compressed, compressor.lookup(file, file.lastModified(), file.length()));
+        Assert.assertNotSame(compressed, compressor.lookup(file, file.lastModified() +1000, file.length()));
+    }
+
+    @Test
+    public void testAcceptance_05()
+            throws Exception {
+        final Compressor compressor = new Compressor(6, TYPES, 0, 100);
+        final File file = AbstractTest.createTestFile("compressor_05", 500);
+        Assert.assertFalse(compressor.accept(file, "text/plain"));
+        Assert.assertNull(compressor.lookup(file, file.lastModified(), file.length()));
+        final File small = AbstractTest.createTestFile("compressor_05_A", 50);
+        Assert.assertTrue(compressor.accept(small, "text/plain"));
+        Assert.assertNotNull(compressor.lookup(small, small.lastModified(), small.length()));
+    }
+
+    @Test
+    public void testAcceptance_06()
+            throws Exception {
+        final Compressor compressor = new Compressor(6, TYPES, 0, 0);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final Compressor.Stream stream = compressor.stream(output);
+        stream.write("Hello ".getBytes());
+        stream.flush();
+        Assert.assertEquals(output.size(), stream.volume());
+        stream.write("World".getBytes());
+        stream.close();
+        Assert.assertEquals(output.size(), stream.volume());
+        stream.close();
+        Assert.assertEquals(output.size(), stream.volume());
+    }
+}
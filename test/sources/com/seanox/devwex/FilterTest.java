@@ -0,0 +1,73 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Filter}. */
+public class FilterTest extends AbstractTest {
+
+    private static Section createSection() {
+        final Section section = new Section(true);
+        section.set("f1", "GET IS CONTAINS HTTP_USER_AGENT Bot > ./bot.html");
+        section.set("f2", "ALL NOT EMPTY HTTP_REFERER [+] POST IS MATCH PATH_URL ^/a.*$ > http://localhost [R]");
+        section.set("f3", "PUT ALWAYS > module [M]");
+        section.set("f4", "[+] [+]");
+        section.set("f5", "DELETE IS EQUALS PATH_URL /x");
+        return section;
+    }
+
+    @Test
+    public void testAcceptance_01() {
+        final Filter filter = new Filter(FilterTest.createSection());
+        Assert.assertEquals(2, filter.lookup("get").length);
+        Assert.assertEquals(1, filter.lookup("post").length);
+        Assert.assertEquals(2, filter.lookup("put").length);
+        Assert.assertEquals(2, filter.lookup("delete").length);
+        Assert.assertEquals(1, filter.lookup("head").length);
+        Assert.assertEquals("./bot.html", filter.lookup("get")[0][0]);
+        Assert.assertEquals("http://localhost", filter.lookup("get")[1][1]);
+        Assert.assertEquals(Filter.REDIRECT, ((Integer)filter.lookup("get")[1][2]).intValue());
+        Assert.assertEquals(Filter.MODULE, ((Integer)filter.lookup("put")[1][2]).intValue());
+    }
+
+    @Test
+    public void testAcceptance_02() {
+        final Filter filter = new Filter(FilterTest.createSection());
+        final Object[] rule = ((Object[][])filter.lookup("get")[0][3])[0];
+        Assert.assertEquals("get", rule[0]);
+        Assert.assertEquals("http_user_agent", rule[3]);
+        Assert.assertEquals("bot", rule[4]);
+        Assert.assertTrue(Filter.verify(rule, "a bot", "a bot"));
+        Assert.assertTrue(Filter.verify(rule, "a%20bot", "a bot"));
+        Assert.assertFalse(Filter.verify(rule, "a user", "a user"));
+    }
+
+    @Test
+    public void testAcceptance_03() {
+        final Filter filter = new Filter(FilterTest.createSection());
+        final Object[][] rules = (Object[][])filter.lookup("post")[0][3];
+        Assert.assertEquals(2, rules.length);
+        Assert.assertTrue(Filter.verify(rules[0], "http://localhost", ""));
+        Assert.assertFalse(Filter.verify(rules[0], "", ""));
+        Assert.assertTrue(Filter.verify(rules[1], "/abc", "/abc"));
+        Assert.assertFalse(Filter.verify(rules[1], "/b/a", "/b/a"));
+        final Object[] rule = ((Object[][])filter.lookup("put")[1][3])[0];
+        Assert.assertEquals(Filter.ALWAYS, ((Integer)rule[1]).intValue());
+    }
+}
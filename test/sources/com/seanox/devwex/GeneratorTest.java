@@ -21,6 +21,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
@@ -252,6 +253,112 @@ public class GeneratorTest extends AbstractTest {
         Assert.assertEquals("11", new String(generator.extract()));
     }
     
+    @Test
+    public void testAcceptance_J() {
+        final Generator generator = Generator.parse("#[a]#[b]#[0x41]#[B]#[c]".getBytes());
+        final Hashtable<String, Object> values = new Hashtable<>();
+        values.put("b", "1");
+        generator.set(values);
+        values.clear();
+        values.put("c", "#[a]");
+        generator.set(values);
+        Assert.assertEquals("1A1#[a]", new String(generator.extract()));
+    }
+
+    @Test
+    public void testAcceptance_K()
+            throws Exception {
+        final Generator generator = Generator.parse(MockUtils.readTestContent("testAcceptance_0_0").getBytes());
+        final Hashtable<String, Object> values = new Hashtable<>();
+        values.put("name", "A2");
+        values.put("mime", "A6");
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final long length = generator.write("file", values, buffer);
+        Assert.assertEquals(buffer.size(), length);
+        Assert.assertArrayEquals(generator.extract("file", values), buffer.toByteArray());
+        Assert.assertEquals(0, generator.write("nix", values, buffer));
+
+        buffer.reset();
+        generator.set(values);
+        Assert.assertEquals(generator.extract().length, generator.write(Channels.newChannel(buffer)));
+        Assert.assertArrayEquals(generator.extract(), buffer.toByteArray());
+    }
+
+    @Test
+    public void testAcceptance_L()
+            throws Exception {
+        final Generator generator = Generator.parse("<#[row[[#[cell]|]]]>".getBytes());
+        final ArrayList<Map<String, Object>> rows = new ArrayList<>();
+        final StringBuilder expected = new StringBuilder("<");
+        for (int loop = 0; loop < 50000; loop++) {
+            final Map<String, Object> row = new HashMap<>();
+            row.put("cell", String.valueOf(loop));
+            rows.add(row);
+            expected.append(loop).append("|");
+        }
+        expected.append(">");
+        final Map<String, Object> values = new HashMap<>();
+        values.put("row", rows);
+        generator.set(values);
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Assert.assertEquals(expected.length(), generator.write(buffer));
+        Assert.assertEquals(expected.toString(), buffer.toString());
+        Assert.assertEquals(expected.toString(), new String(generator.extract()));
+    }
+
+    @Test
+    public void testAcceptance_M() {
+        final byte[] model = ("#[a]-#[b[[#[c]]]]-" + System.nanoTime()).getBytes();
+        final String statistics = Generator.expose();
+        final Generator generatorA = Generator.parse(model);
+        final Generator generatorB = Generator.parse(model.clone());
+        Assert.assertNotSame(generatorA, generatorB);
+        Assert.assertNotEquals(statistics, Generator.expose());
+        Assert.assertTrue(Generator.expose().matches("^GENERATOR \\d+/\\d+ BYTES, [1-9]\\d* TEMPLATES, [1-9]\\d* HITS, [1-9]\\d* MISSES, \\d+ EVICTIONS$"));
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("a", "1");
+        generatorA.set(values);
+        Assert.assertTrue(new String(generatorA.extract()).startsWith("1--"));
+        Assert.assertTrue(new String(generatorB.extract()).startsWith("--"));
+        Assert.assertTrue(new String(Generator.parse(model).extract()).startsWith("--"));
+    }
+
+    @Test
+    public void testAcceptance_N()
+            throws Exception {
+        final byte[] model = "#[a]:#[b[[#[c],]]]".getBytes();
+        final Thread[] threads = new Thread[8];
+        final String[] results = new String[threads.length];
+        for (int loop = 0; loop < threads.length; loop++) {
+            final int index = loop;
+            threads[loop] = new Thread() {
+                @Override
+                public void run() {
+                    final StringBuilder builder = new StringBuilder();
+                    for (int count = 0; count < 1000; count++) {
+                        final Generator generator = Generator.parse(model);
+                        final Map<String, Object> row = new HashMap<>();
+                        row.put("c", String.valueOf(index));
+                        final Map<String, Object> values = new HashMap<>();
+                        values.put("a", String.valueOf(index));
+                        values.put("b", row);
+                        generator.set(values);
+                        final String result = new String(generator.extract());
+                        if (!result.equals(index + ":" + index + ","))
+                            builder.append(result);
+                    }
+                    results[index] = builder.toString();
+                }
+            };
+            threads[loop].start();
+        }
+        for (int loop = 0; loop < threads.length; loop++) {
+            threads[loop].join();
+            Assert.assertEquals("", results[loop]);
+        }
+    }
+
     @Test
     public void testRecursion_1()
             throws Exception {
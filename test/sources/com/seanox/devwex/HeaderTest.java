@@ -0,0 +1,100 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Header}. */
+public class HeaderTest extends AbstractTest {
+
+    private static BufferedInputStream createInput(final String data) {
+        return new BufferedInputStream(new ByteArrayInputStream(data.getBytes()), 4);
+    }
+
+    private static String readRemaining(final BufferedInputStream input)
+            throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        for (int digit; (digit = input.read()) >= 0;)
+            builder.append((char)digit);
+        return builder.toString();
+    }
+
+    @Test
+    public void testAcceptance_01()
+            throws Exception {
+        final Header header = new Header();
+        final Section fields = new Section(true);
+        final BufferedInputStream input = HeaderTest.createInput(
+                "GET /a?b HTTP/1.1\r\nHost: a:80\r\nX-Test:  b \r\nx-test: c\r\nEmpty:\r\n\r\nBody\r\n\r\n");
+        Assert.assertEquals(0, header.read(input, fields));
+        Assert.assertEquals("a:80", fields.get("http_host"));
+        Assert.assertEquals("b", fields.get("http_x_test"));
+        Assert.assertFalse(fields.contains("http_empty"));
+        Assert.assertEquals(5, header.lines());
+        Assert.assertEquals("GET /a?b HTTP/1.1", header.line(0));
+        Assert.assertEquals("x-test: c", header.line(3));
+        Assert.assertEquals("Body\r\n\r\n", HeaderTest.readRemaining(input));
+    }
+
+    @Test
+    public void testAcceptance_02()
+            throws Exception {
+        final Header header = new Header();
+        final BufferedInputStream input = HeaderTest.createInput(
+                "GET / HTTP/1.1\r\nHost: a\r\n\r\nGET /b HTTP/1.1\r\nHost: b\r\n\r\n");
+        Section fields = new Section(true);
+        Assert.assertEquals(0, header.read(input, fields));
+        Assert.assertEquals("a", fields.get("http_host"));
+        fields = new Section(true);
+        Assert.assertEquals(0, header.read(input, fields));
+        Assert.assertEquals("b", fields.get("http_host"));
+        Assert.assertEquals("GET /b HTTP/1.1", header.line(0));
+        fields = new Section(true);
+        Assert.assertEquals(0, header.read(input, fields));
+        Assert.assertTrue(header.isEmpty());
+        Assert.assertEquals(0, header.lines());
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final Header header = new Header();
+        final Section fields = new Section(true);
+        BufferedInputStream input = HeaderTest.createInput(
+                " \r\n GET / HTTP/1.0 ");
+        Assert.assertEquals(0, header.read(input, fields));
+        Assert.assertFalse(header.isEmpty());
+        Assert.assertEquals(1, header.lines());
+        Assert.assertEquals("GET / HTTP/1.0", header.line(0));
+        final StringBuilder builder = new StringBuilder("GET / HTTP/1.1\r\nX: ");
+        while (builder.length() < Header.LENGTH +100)
+            builder.append('x');
+        input = HeaderTest.createInput(builder.append("\r\n\r\n").toString());
+        Assert.assertEquals(413, header.read(input, fields));
+        builder.setLength(0);
+        builder.append("GET / HTTP/1.1");
+        while (builder.length() < Header.LIMIT +100)
+            builder.append("\r\nX: x");
+        input = HeaderTest.createInput(builder.toString());
+        Assert.assertEquals(413, header.read(input, fields));
+        Assert.assertEquals(builder.length() -Header.LIMIT, HeaderTest.readRemaining(input).length());
+    }
+}
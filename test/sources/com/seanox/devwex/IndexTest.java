@@ -0,0 +1,134 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Index}. */
+public class IndexTest extends AbstractTest {
+
+    private static final byte[] MODEL = "<p>#[http_host] #[file[[#[name]]]]</p>".getBytes();
+
+    private static Section createEnvironment(final String host) {
+        final Section environment = new Section(true);
+        environment.set("http_host", host);
+        environment.set("unique_id", String.valueOf(System.nanoTime()));
+        return environment;
+    }
+
+    @Test
+    public void testAcceptance_01()
+            throws Exception {
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            final Index index = new Index(1000);
+            final Catalog.Entry directory = catalog.locate(AbstractTest.createTestDirectory("index_01").getPath());
+            final File template = new File(directory, "index.html");
+            final Section environment = IndexTest.createEnvironment("a");
+            Assert.assertNull(index.lookup("x", directory, template, environment));
+            final Object[] entry = index.store("x", directory, template, MODEL, environment, "listing".getBytes());
+            Assert.assertArrayEquals("listing".getBytes(), (byte[])entry[0]);
+            Assert.assertTrue(((String)entry[1]).matches("^\"[0-9a-f]+-7\"$"));
+            Assert.assertSame(entry, index.lookup("x", directory, template, IndexTest.createEnvironment("a")));
+            Assert.assertNull(index.lookup("y", directory, template, environment));
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_02()
+            throws Exception {
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            final Index index = new Index(1000);
+            final Catalog.Entry directory = catalog.locate(AbstractTest.createTestDirectory("index_02").getPath());
+            final File template = new File(directory, "index.html");
+            index.store("x", directory, template, MODEL, IndexTest.createEnvironment("a"), "listing".getBytes());
+            Assert.assertNull(index.lookup("x", directory, template, IndexTest.createEnvironment("b")));
+            catalog.invalidate(directory.getPath());
+            Assert.assertNull(index.lookup("x", directory, template, IndexTest.createEnvironment("a")));
+            Assert.assertNull(index.lookup("x", catalog.locate(directory.getPath()), template, IndexTest.createEnvironment("a")));
+            Assert.assertNull(index.lookup("x", directory, new File(template.getPath()), IndexTest.createEnvironment("a")));
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            final Index index = new Index(10);
+            final Catalog.Entry directory = catalog.locate(AbstractTest.createTestDirectory("index_03").getPath());
+            final File template = new File(directory, "index.html");
+            final Section environment = IndexTest.createEnvironment("a");
+            final Object[] entry = index.store("x", directory, template, MODEL, environment, new byte[11]);
+            Assert.assertNotNull(entry[1]);
+            Assert.assertNull(index.lookup("x", directory, template, environment));
+            index.store("a", directory, template, MODEL, environment, new byte[5]);
+            index.store("b", directory, template, MODEL, environment, new byte[5]);
+            Assert.assertNotNull(index.lookup("a", directory, template, environment));
+            index.store("c", directory, template, MODEL, environment, new byte[5]);
+            Assert.assertNotNull(index.lookup("a", directory, template, environment));
+            Assert.assertNull(index.lookup("b", directory, template, environment));
+            Assert.assertNotNull(index.lookup("c", directory, template, environment));
+        } finally {
+            catalog.destroy();
+        }
+    }
+
+    @Test
+    public void testAcceptance_04()
+            throws Exception {
+        final Index index = new Index(1000);
+        final Catalog.Entry directory = new Catalog(0, 0).locate(AbstractTest.createTestDirectory("index_04").getPath());
+        final File template = new File(directory, "index.html");
+        final Section environment = IndexTest.createEnvironment("a");
+        final Object[] entry = index.store("x", directory, template, MODEL, environment, "listing".getBytes());
+        Assert.assertNotNull(entry[1]);
+        Assert.assertNull(index.lookup("x", directory, template, environment));
+    }
+
+    @Test
+    public void testAcceptance_05()
+            throws Exception {
+        final File path = AbstractTest.createTestDirectory("index_05");
+        final File file = new File(path, "a.txt");
+        Files.write(file.toPath(), new byte[10]);
+        final Catalog catalog = new Catalog(100, 0);
+        try {
+            final Index index = new Index(1000);
+            final Catalog.Entry directory = catalog.locate(path.getPath());
+            final File template = new File(directory, "index.html");
+            final Section environment = IndexTest.createEnvironment("a");
+            index.store("x", directory, template, MODEL, environment, "listing".getBytes());
+            Assert.assertNotNull(index.lookup("x", directory, template, environment));
+            Files.write(file.toPath(), new byte[20]);
+            for (int loop = 0; loop < 100 && catalog.locate(path.getPath()) == directory; loop++)
+                Thread.sleep(100);
+            Assert.assertNull(index.lookup("x", directory, template, environment));
+        } finally {
+            catalog.destroy();
+        }
+    }
+}
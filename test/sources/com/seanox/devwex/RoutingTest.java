@@ -0,0 +1,79 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Routing}. */
+public class RoutingTest extends AbstractTest {
+
+    private static String toString(final Object[][] entries) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Object[] entry : entries)
+            builder.append(builder.length() > 0 ? " " : "").append(entry[0]);
+        return builder.toString();
+    }
+
+    @Test
+    public void testAcceptance_01() {
+        final Section section = new Section(true);
+        section.set("r1", "/a/b > ./b");
+        section.set("r2", "/A > ./a");
+        section.set("r3", "/ab > ./ab");
+        section.set("r4", "/a/b/c > ./c");
+        section.set("r5", "/a > ./a2");
+        final Routing routing = new Routing(section);
+        Assert.assertEquals("/a/b /A /a", RoutingTest.toString(routing.lookup("/a/b/")));
+        Assert.assertEquals("/a/b /A /a/b/c /a", RoutingTest.toString(routing.lookup("/a/b/c/d/")));
+        Assert.assertEquals("/A /ab /a", RoutingTest.toString(routing.lookup("/abc/")));
+        Assert.assertEquals("", RoutingTest.toString(routing.lookup("/x/")));
+        Assert.assertEquals("", RoutingTest.toString(routing.lookup("/")));
+    }
+
+    @Test
+    public void testAcceptance_02() {
+        final Section section = new Section(true);
+        section.set("r1", "> ./a");
+        section.set("r2", "/m > [M]");
+        section.set("r3", "/r > [R]");
+        section.set("r4", "/x");
+        section.set("r5", "/y >");
+        section.set("r6", "z/../z/./ > ./z");
+        final Routing routing = new Routing(section);
+        Assert.assertEquals("", RoutingTest.toString(routing.lookup("/m/r/x/y/")));
+        Assert.assertEquals("/z/", RoutingTest.toString(routing.lookup("/z/")));
+    }
+
+    @Test
+    public void testAcceptance_03() {
+        final Section section = new Section(true);
+        section.set("r1", "/a > ./a [A] [C] [ACC:GROUP] [REALM:Text] [D]");
+        section.set("r2", "/a/b > module [m] [acc:none]");
+        section.set("r3", "/a/c > http://localhost [R]");
+        final Routing routing = new Routing(section);
+        final Object[][] entries = routing.lookup("/a/b/c/");
+        Assert.assertEquals(2, entries.length);
+        Assert.assertEquals("./a", entries[0][1]);
+        Assert.assertEquals("[ACC:GROUP] [REALM:Text] [D] ", entries[0][3]);
+        Assert.assertEquals(Routing.ABSOLUTE | Routing.FORBIDDEN | Routing.ACCESS, ((Integer)entries[0][4]).intValue());
+        Assert.assertEquals("module", entries[1][1]);
+        Assert.assertEquals("module [m] [acc:none]", entries[1][2]);
+        Assert.assertEquals(Routing.MODULE | Routing.ACCESS, ((Integer)entries[1][4]).intValue());
+        Assert.assertEquals(Routing.REDIRECT, ((Integer)routing.lookup("/a/c/")[1][4]).intValue());
+    }
+}
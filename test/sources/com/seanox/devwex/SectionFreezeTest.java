@@ -0,0 +1,119 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Section}. */
+public class SectionFreezeTest extends AbstractTest {
+
+    @Test
+    public void testAcceptance_01() {
+        final Section section = Section.parse("a = 1\r\nb-b = 2\r\nc_3 = 3\r\nSTRASSE = 4", true).freeze();
+        for (final String key : new String[] {"a", "A", " a ", "b-b", "B-B", "b-B", "\tc_3", "C_3"})
+            Assert.assertTrue(key, section.contains(key));
+        Assert.assertEquals("1", section.get("a"));
+        Assert.assertEquals("2", section.get("B-b"));
+        Assert.assertEquals("3", section.get(" c_3 "));
+        Assert.assertEquals("4", section.get("stra\u00DFe"));
+        Assert.assertEquals("4", section.get("strasse"));
+        Assert.assertFalse(section.contains("x"));
+        Assert.assertFalse(section.contains(null));
+        Assert.assertFalse(section.contains(" "));
+        Assert.assertEquals("", section.get("x"));
+        Assert.assertEquals("o", section.get("x", "o"));
+        Assert.assertEquals(4, section.size());
+        Assert.assertEquals("[A, B-B, C_3, STRASSE]", Collections.list(section.elements()).toString());
+    }
+
+    @Test
+    public void testAcceptance_02() {
+        final Section source = Section.parse("a = 1\r\nb = 2", true);
+        final Section section = source.freeze();
+        source.set("a", "x");
+        source.set("c", "3");
+        Assert.assertEquals("1", section.get("a"));
+        Assert.assertFalse(section.contains("c"));
+
+        Assert.assertEquals("1", section.set("a", "y"));
+        Assert.assertEquals("y", section.get("a"));
+        Assert.assertEquals("y", section.get("A"));
+        Assert.assertEquals("2", section.remove("b"));
+        Assert.assertFalse(section.contains("b"));
+        Assert.assertNull(section.remove("b"));
+        section.set("a", null);
+        Assert.assertFalse(section.contains("a"));
+        section.merge(Section.parse("d = 4\r\nc = 3"));
+        Assert.assertEquals("[D, C]", Collections.list(section.elements()).toString());
+        Assert.assertEquals("4", section.get("d"));
+        section.clear();
+        Assert.assertEquals(0, section.size());
+        Assert.assertEquals("x", source.get("a"));
+    }
+
+    @Test
+    public void testAcceptance_03() {
+        final Section section = Section.parse("a = 1\r\nb = 2", true).freeze();
+        final Section clone = (Section)section.clone();
+        Assert.assertEquals("1", clone.get("a"));
+        clone.set("a", "x");
+        clone.set("c", "3");
+        Assert.assertEquals("x", clone.get("A"));
+        Assert.assertEquals("1", section.get("a"));
+        Assert.assertFalse(section.contains("c"));
+
+        final Section copy = (Section)clone.clone();
+        copy.set("a", "y");
+        Assert.assertEquals("x", clone.get("a"));
+        clone.remove("b");
+        Assert.assertEquals("2", copy.get("b"));
+    }
+
+    @Test
+    public void testAcceptance_04()
+            throws Exception {
+        final Section section = Section.parse("a = 1", true).freeze();
+        final Throwable[] errors = new Throwable[1];
+        final Thread[] threads = new Thread[4];
+        for (int loop = 0; loop < threads.length; loop++) {
+            threads[loop] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int count = 0; count < 10000; count++) {
+                            if (!section.get("a").equals("1"))
+                                throw new IllegalStateException();
+                            Collections.list(section.elements());
+                        }
+                    } catch (Throwable throwable) {
+                        errors[0] = throwable;
+                    }
+                }
+            };
+            threads[loop].start();
+        }
+        for (int count = 0; count < 1000; count++)
+            section.set("b" + count, String.valueOf(count));
+        for (int loop = 0; loop < threads.length; loop++)
+            threads[loop].join();
+        Assert.assertNull(errors[0]);
+        Assert.assertEquals(1001, section.size());
+    }
+}
@@ -34,7 +34,8 @@ import org.junit.runners.Suite;
     SectionGetTest.class,
     SectionToStringTest.class,
     SectionRemoveTest.class,
-    SectionMergeTest.class
+    SectionMergeTest.class,
+    SectionFreezeTest.class
     
 })
 public class SectionTestSuite extends AbstractTestSuite {
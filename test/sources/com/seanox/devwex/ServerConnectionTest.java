@@ -16,17 +16,24 @@
  */
 package com.seanox.devwex;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.net.Socket;
 import java.net.SocketException;
 import java.net.URL;
 import java.security.KeyStore;
 import java.security.SecureRandom;
+import java.nio.file.Files;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
@@ -41,6 +48,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.seanox.test.HttpUtils;
+import com.seanox.test.HttpUtils.HeaderField;
 import com.seanox.test.MockUtils;
 import com.seanox.test.Pattern;
 
@@ -62,7 +70,7 @@ public class ServerConnectionTest extends AbstractStageTest {
                 continue;
             serverList.add(statusLine);
         }
-        Assert.assertEquals(20, serverList.size());
+        Assert.assertEquals(23, serverList.size());
         
         final String assertStatus = MockUtils.readTestContent();
         for (final String statusLine : assertStatus.split("\\R")) {
@@ -70,7 +78,7 @@ public class ServerConnectionTest extends AbstractStageTest {
                 continue;
             serverList.remove(statusLine);
         }
-        Assert.assertEquals(20, assertStatus.split("\\R").length);
+        Assert.assertEquals(23, assertStatus.split("\\R").length);
         Assert.assertEquals(0, serverList.size());
     }
 
@@ -397,5 +405,365 @@ public class ServerConnectionTest extends AbstractStageTest {
         final URL url = new URL("https://127.0.0.4:18443");
         final HttpsURLConnection urlConn = (HttpsURLConnection)url.openConnection();
         Assert.assertEquals(403, urlConn.getResponseCode());
-    }    
-}
\ No newline at end of file
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} 
+     * Connection via the selector-based engine must works.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_18()
+            throws Exception {
+        final String request = "GET / HTTP/1.0\r\n"
+                + "\r\n";
+        final String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} 
+     * Pipelined requests of a persistent connection must be answered in the
+     * order of the requests.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_19()
+            throws Exception {
+        final String request = "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+        final String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertEquals(2, response.split("HTTP/1\\.1 200", -1).length -1);
+        Assert.assertTrue(response.matches("(?s)^.*\r\nConnection: close\r\n(?:(?!HTTP/1\\.1 ).)*$"));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} 
+     * Idle persistent connections are returned to the selector and must be
+     * continued with the next request.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_20()
+            throws Exception {
+        try (final Socket socket = new Socket("127.0.0.1", 18189)) {
+            socket.setSoTimeout(10000);
+            final OutputStream output = socket.getOutputStream();
+            output.write(("GET / HTTP/1.1\r\n"
+                    + "Host: 127.0.0.1\r\n"
+                    + "\r\n").getBytes());
+            output.flush();
+            Thread.sleep(1500);
+            output.write(("GET / HTTP/1.1\r\n"
+                    + "Host: 127.0.0.1\r\n"
+                    + "Connection: close\r\n"
+                    + "\r\n").getBytes());
+            output.flush();
+            final InputStream input = socket.getInputStream();
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (int digit; (digit = input.read()) >= 0;)
+                buffer.write(digit);
+            final String response = buffer.toString();
+            Assert.assertEquals(2, response.split("HTTP/1\\.1 200", -1).length -1);
+        }
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} + {@code TIMEOUT = 3000}
+     * Incomplete request headers must be answered with status 408 after the
+     * timeout has been exceeded.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_21()
+            throws Exception {
+        final String request = "GET / HTTP/1.0\r\n";
+        final String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_408));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = VIRTUAL} 
+     * Connection with a worker in a virtual thread must works. Without
+     * support of virtual threads, the server uses the pool.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_22()
+            throws Exception {
+        final String request = "GET / HTTP/1.0\r\n"
+                + "\r\n";
+        final String response = new String(HttpUtils.sendRequest("127.0.0.1:18196", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = VIRTUAL} 
+     * Pipelined requests of a persistent connection must be answered by the
+     * worker of the connection in the order of the requests.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_23()
+            throws Exception {
+        final String request = "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+        final String response = new String(HttpUtils.sendRequest("127.0.0.1:18196", request));
+        Assert.assertEquals(2, response.split("HTTP/1\\.1 200", -1).length -1);
+    }
+    private static byte[] extractResponseBody(final byte[] response) {
+        for (int loop = 0; loop < response.length -3; loop++)
+            if (response[loop] == '\r' && response[loop +1] == '\n'
+                    && response[loop +2] == '\r' && response[loop +3] == '\n')
+                return Arrays.copyOfRange(response, loop +4, response.length);
+        return new byte[0];
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} 
+     * Files are transferred directly from the file system to the channel of
+     * the connection. The content must correspond to the file.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_24()
+            throws Exception {
+        final String request = "GET /benchmark/1-170375.jpg HTTP/1.0\r\n"
+                + "\r\n";
+        final byte[] response = HttpUtils.sendRequest("127.0.0.1:18189", request);
+        Assert.assertTrue(new String(response).matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        final File file = new File(AbstractStage.getRootStage(), "documents/benchmark/1-170375.jpg");
+        Assert.assertArrayEquals(Files.readAllBytes(file.toPath()), ServerConnectionTest.extractResponseBody(response));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} 
+     * Partial data ranges are also transferred directly from the file system
+     * to the channel of the connection. The content must correspond to the
+     * range of the file.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_25()
+            throws Exception {
+        final String request = "GET /benchmark/1-170375.jpg HTTP/1.0\r\n"
+                + "Range: bytes=100-20099\r\n"
+                + "\r\n";
+        final byte[] response = HttpUtils.sendRequest("127.0.0.1:18189", request);
+        Assert.assertTrue(new String(response).matches(Pattern.HTTP_RESPONSE_STATUS_206));
+        final File file = new File(AbstractStage.getRootStage(), "documents/benchmark/1-170375.jpg");
+        final byte[] bytes = Arrays.copyOfRange(Files.readAllBytes(file.toPath()), 100, 20100);
+        Assert.assertArrayEquals(bytes, ServerConnectionTest.extractResponseBody(response));
+    }
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} + {@code CACHESIZE = 1048576} +
+     *     {@code CACHEPRELOAD = benchmark}
+     * Preloaded files are answered from the cache, also partial data ranges.
+     * The content must correspond to the file and the counters of the cache
+     * must be output with the status of the service.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_26()
+            throws Exception {
+        final File file = new File(AbstractStage.getRootStage(), "documents/benchmark/1-020756.jpg");
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        String request = "GET /benchmark/1-020756.jpg HTTP/1.0\r\n"
+                + "\r\n";
+        byte[] response = HttpUtils.sendRequest("127.0.0.1:18189", request);
+        Assert.assertTrue(new String(response).matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertArrayEquals(bytes, ServerConnectionTest.extractResponseBody(response));
+        request = "GET /benchmark/1-020756.jpg HTTP/1.0\r\n"
+                + "Range: bytes=-100\r\n"
+                + "\r\n";
+        response = HttpUtils.sendRequest("127.0.0.1:18189", request);
+        Assert.assertTrue(new String(response).matches(Pattern.HTTP_RESPONSE_STATUS_206));
+        Assert.assertArrayEquals(Arrays.copyOfRange(bytes, bytes.length -100, bytes.length), ServerConnectionTest.extractResponseBody(response));
+        final String status = Service.details();
+        Assert.assertTrue(status, status.matches("(?s)^.*\r\nSTAT: TCP 127\\.0\\.0\\.1:18189 CACHE \\d+/1048576 BYTES, \\d+ FILES, [1-9]\\d* HITS, .*$"));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = VIRTUAL} + {@code CACHESIZE = 1048576}
+     * Files are loaded into the cache with the first request and are then
+     * answered from the cache via the buffer of the worker. The content must
+     * correspond to the file.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_27()
+            throws Exception {
+        final File file = new File(AbstractStage.getRootStage(), "documents/benchmark/1-030054.jpg");
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        for (int loop = 0; loop < 2; loop++) {
+            final String request = "GET /benchmark/1-030054.jpg HTTP/1.0\r\n"
+                    + "Range: bytes=10-\r\n"
+                    + "\r\n";
+            final byte[] response = HttpUtils.sendRequest("127.0.0.1:18196", request);
+            Assert.assertTrue(new String(response).matches(Pattern.HTTP_RESPONSE_STATUS_206));
+            Assert.assertArrayEquals(Arrays.copyOfRange(bytes, 10, bytes.length), ServerConnectionTest.extractResponseBody(response));
+        }
+        final String status = Service.details();
+        Assert.assertTrue(status, status.matches("(?s)^.*\r\nSTAT: TCP 127\\.0\\.0\\.1:18196 CACHE \\d+/1048576 BYTES, [1-9]\\d* FILES, [1-9]\\d* HITS, .*$"));
+    }
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = NIO} + {@code METACACHE = 1000} +
+     *     {@code METAEXPIRY = 3000}
+     * Resources that do not exist are also cached. Changes of the file system
+     * must be detected, at the latest after the expiry.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_28()
+            throws Exception {
+        final File file = new File(AbstractStage.getRootStage(), "documents/catalog_test.txt");
+        file.delete();
+        final String request = "GET /catalog_test.txt HTTP/1.0\r\n"
+                + "\r\n";
+        String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_404));
+        try {
+            Files.write(file.toPath(), "catalog".getBytes());
+            for (int loop = 0; loop < 50 && response.matches(Pattern.HTTP_RESPONSE_STATUS_404); loop++) {
+                Thread.sleep(100);
+                response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+            }
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+            Assert.assertTrue(response.endsWith("\r\n\r\ncatalog"));
+        } finally {
+            file.delete();
+        }
+        for (int loop = 0; loop < 50 && response.matches(Pattern.HTTP_RESPONSE_STATUS_200); loop++) {
+            Thread.sleep(100);
+            response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        }
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_404));
+    }
+
+    private static byte[] decompress(final byte[] bytes)
+            throws Exception {
+        final InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        for (int size; (size = input.read(buffer)) >= 0;)
+            output.write(buffer, 0, size);
+        input.close();
+        return output.toByteArray();
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code COMPRESSION = 6} 
+     * Files of the configured media types are compressed on the fly if the
+     * client accepts gzip. The compressed content must correspond to the file
+     * and must be the same for repeated requests.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_29()
+            throws Exception {
+        final File file = new File(AbstractStage.getRootStage(), "documents/compression/text.txt");
+        final String request = "GET /compression/text.txt HTTP/1.0\r\n"
+                + "Accept-Encoding: gzip, deflate\r\n"
+                + "\r\n";
+        final byte[] response = HttpUtils.sendRequest("127.0.0.1:18189", request);
+        final String header = new String(response);
+        Assert.assertTrue(header.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertEquals("gzip", HttpUtils.getResponseHeaderValue(header, HeaderField.CONTENT_ENCODING));
+        Assert.assertEquals("Accept-Encoding", HttpUtils.getResponseHeaderValue(header, HeaderField.VARY));
+        final byte[] body = ServerConnectionTest.extractResponseBody(response);
+        Assert.assertTrue(body.length < file.length());
+        Assert.assertEquals(String.valueOf(body.length), HttpUtils.getResponseHeaderValue(header, HeaderField.CONTENT_LENGTH));
+        Assert.assertArrayEquals(Files.readAllBytes(file.toPath()), ServerConnectionTest.decompress(body));
+        Assert.assertArrayEquals(body, ServerConnectionTest.extractResponseBody(HttpUtils.sendRequest("127.0.0.1:18189", request)));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code COMPRESSION = 6} 
+     * Without acceptance of gzip, files are delivered uncompressed, but with
+     * Vary. Files below the minimum size, other media types and partial data
+     * ranges are not compressed.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_30()
+            throws Exception {
+        String request = "GET /compression/text.txt HTTP/1.0\r\n"
+                + "Accept-Encoding: gzip;q=0\r\n"
+                + "\r\n";
+        String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+        Assert.assertEquals("Accept-Encoding", HttpUtils.getResponseHeaderValue(response, HeaderField.VARY));
+        Assert.assertEquals("4800", HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+
+        request = "GET /compression/small.txt HTTP/1.0\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "\r\n";
+        response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.VARY));
+
+        request = "GET /benchmark/1-170375.jpg HTTP/1.0\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "\r\n";
+        response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+
+        request = "GET /compression/text.txt HTTP/1.0\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "Range: bytes=0-9\r\n"
+                + "\r\n";
+        response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_206));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+        Assert.assertTrue(response.endsWith("\r\n\r\nSeanox Dev"));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code COMPRESSION = 6} 
+     * Directory listings and status pages are compressed like files.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_31()
+            throws Exception {
+        for (final String path : new String[] {"/benchmark/", "/nix.txt"}) {
+            final String request = "GET " + path + " HTTP/1.0\r\n"
+                    + "Accept-Encoding: gzip\r\n"
+                    + "\r\n";
+            final byte[] response = HttpUtils.sendRequest("127.0.0.1:18189", request);
+            final String header = new String(response);
+            Assert.assertEquals("gzip", HttpUtils.getResponseHeaderValue(header, HeaderField.CONTENT_ENCODING));
+            final byte[] body = ServerConnectionTest.extractResponseBody(response);
+            Assert.assertEquals(String.valueOf(body.length), HttpUtils.getResponseHeaderValue(header, HeaderField.CONTENT_LENGTH));
+            final String content = new String(ServerConnectionTest.decompress(body));
+            Assert.assertTrue(path.endsWith("/") ? content.startsWith("index of: /benchmark") : content.contains("404"));
+        }
+    }
+}
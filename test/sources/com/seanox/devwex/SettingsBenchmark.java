@@ -0,0 +1,68 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import com.seanox.test.Timing;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Benchmark for {@link Settings}. */
+public class SettingsBenchmark extends AbstractTest {
+
+    private static String createConfiguration(final int hosts) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("[COMMON]                     ;common settings\r\n");
+        builder.append("  DEFAULT = index.html index.htm\r\n");
+        builder.append("  TIMEOUT [?] = 30000\r\n");
+        for (int loop = 0; loop < hosts; loop++) {
+            builder.append("[VIRTUAL:HOST-").append(loop).append(":INI] EXTENDS COMMON ;virtual host\r\n");
+            builder.append("  SERVER    = SERVER:HTTP\r\n");
+            builder.append("  ALIAS     = www.host-").append(loop).append(".local ;alias\r\n");
+            builder.append("  DOCROOT   = ./documents/host-").append(loop).append("\r\n");
+            builder.append("  SYSROOT   = ./system\r\n");
+            builder.append("  ACCESSLOG [+] = ../logs/access-").append(loop).append(".log; %h %t \"%r\"\r\n");
+            builder.append("  JAVA.HOME [?]\r\n");
+            builder.append("  METHODS   = OPTIONS HEAD GET\r\n");
+            builder.append("            + POST PUT ;continued\r\n");
+            builder.append("[VIRTUAL:HOST-").append(loop).append(":REF] EXTENDS SERVER:HTTP:REF\r\n");
+            builder.append("  ROOT      = /           > ./documents/host-").append(loop).append(" [A]\r\n");
+            builder.append("  0x5441524745542D31 = 0x2F746172676574\r\n");
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testAcceptance_1() {
+        final String configuration = SettingsBenchmark.createConfiguration(5000);
+        Assert.assertTrue(configuration.split("\r\n").length > 50000);
+        final Timing timing = Timing.create(true);
+        for (int loop = 0; loop < 5; loop++) {
+            final Settings settings = Settings.parse(configuration, true);
+            Assert.assertEquals("../logs/access-4999.log; %h %t \"%r\"",
+                    settings.get("virtual:host-4999:ini").get("accesslog"));
+            Assert.assertEquals("OPTIONS HEAD GET POST PUT",
+                    settings.get("virtual:host-4999:ini").get("methods"));
+            Assert.assertEquals("30000",
+                    settings.get("virtual:host-4999:ini").get("timeout"));
+            Assert.assertEquals(System.getProperty("java.home"),
+                    settings.get("virtual:host-4999:ini").get("java.home"));
+            Assert.assertEquals("/target",
+                    settings.get("virtual:host-4999:ref").get("target-1"));
+        }
+        timing.assertTimeIn(10000);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Settings}. */
+public class SettingsFreezeTest extends AbstractTest {
+
+    @Test
+    public void testAcceptance_01() {
+        final Settings settings = Settings.parse("[a]\r\nx = 1\r\n[server:a:ini]\r\ny = 2", true).freeze();
+        Assert.assertTrue(settings.contains("a"));
+        Assert.assertTrue(settings.contains(" A "));
+        Assert.assertEquals("1", settings.get("a").get("x"));
+        Assert.assertEquals("2", settings.get("server:a:ini").get("y"));
+        Assert.assertEquals("2", settings.get("SERVER:a:INI").get("Y"));
+        Assert.assertFalse(settings.contains("b"));
+        Assert.assertNotNull(settings.get("b"));
+        Assert.assertTrue(settings.contains("b"));
+        Assert.assertSame(settings.get("b"), settings.get("B"));
+        Assert.assertEquals("[A, SERVER:A:INI, B]", Collections.list(settings.elements()).toString());
+    }
+
+    @Test
+    public void testAcceptance_02() {
+        final Settings settings = Settings.parse("[a]\r\nx = 1\r\n[b]\r\ny = 2", true).freeze();
+        final Settings clone = (Settings)settings.clone();
+        clone.get("a").set("x", "3");
+        clone.remove("b");
+        Assert.assertEquals("1", settings.get("a").get("x"));
+        Assert.assertTrue(settings.contains("b"));
+
+        settings.merge(Settings.parse("[a]\r\nz = 4\r\n[c]\r\nw = 5"));
+        Assert.assertEquals("1", settings.get("a").get("x"));
+        Assert.assertEquals("4", settings.get("a").get("z"));
+        Assert.assertEquals("5", settings.get("c").get("w"));
+        Assert.assertEquals(3, settings.size());
+        Assert.assertEquals("3", clone.get("a").get("x"));
+        Assert.assertFalse(clone.get("a").contains("z"));
+        settings.clear();
+        Assert.assertEquals(0, settings.size());
+        Assert.assertEquals(1, clone.size());
+    }
+}
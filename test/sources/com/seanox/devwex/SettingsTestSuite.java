@@ -33,7 +33,8 @@ import org.junit.runners.Suite;
     SettingsSetTest.class,
     SettingsToStringTest.class,
     SettingsRemoveTest.class,
-    SettingsMergeTest.class
+    SettingsMergeTest.class,
+    SettingsFreezeTest.class
 })
 public class SettingsTestSuite extends AbstractTestSuite {
     
@@ -0,0 +1,76 @@
+/**
+ * Devwex, Experimental Server Engine
+ * Copyright (C) 2025 Seanox Software Solutions
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.seanox.devwex;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test cases for {@link com.seanox.devwex.Status}. */
+public class StatusTest extends AbstractTest {
+
+    @Test
+    public void testAcceptance_01()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("status_01");
+        Files.write(new File(directory, "status.html").toPath(), "static#[0x21]".getBytes());
+        final Status status = new Status(new Catalog(0, 0), null);
+        final Object[] entry = status.lookup(directory.getPath(), "404");
+        Assert.assertEquals(directory.getPath() + "/status.html", entry[0]);
+        Assert.assertNull(entry[4]);
+        Assert.assertEquals("static!", new String((byte[])entry[6]));
+        Assert.assertSame(entry, status.lookup(directory.getPath(), "404"));
+        Assert.assertNotSame(entry, status.lookup(directory.getPath(), "403"));
+    }
+
+    @Test
+    public void testAcceptance_02()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("status_02");
+        Files.write(new File(directory, "status.html").toPath(), "#[HTTP_STATUS] #[http_status_text]".getBytes());
+        final Status status = new Status(new Catalog(0, 0), null);
+        final Object[] entry = status.lookup(directory.getPath(), "404");
+        Assert.assertNotNull(entry[4]);
+        Assert.assertNull(entry[6]);
+        Assert.assertArrayEquals(new String[] {"http_status", "http_status_text"}, (String[])entry[5]);
+    }
+
+    @Test
+    public void testAcceptance_03()
+            throws Exception {
+        final File directory = AbstractTest.createTestDirectory("status_03");
+        Files.write(new File(directory, "status.html").toPath(), "a".getBytes());
+        final Status status = new Status(new Catalog(0, 0), null);
+        Object[] entry = status.lookup(directory.getPath(), "404");
+        Assert.assertEquals("a", new String((byte[])entry[6]));
+
+        Files.write(new File(directory, "status-4xx.html").toPath(), "b".getBytes());
+        directory.setLastModified(((Long)entry[1]).longValue() +1000);
+        entry = status.lookup(directory.getPath(), "404");
+        Assert.assertEquals(directory.getPath() + "/status-4xx.html", entry[0]);
+        Assert.assertEquals("b", new String((byte[])entry[6]));
+
+        final File file = new File(directory, "status-4xx.html");
+        Files.write(file.toPath(), "cc".getBytes());
+        file.setLastModified(((Long)entry[2]).longValue() +1000);
+        entry = status.lookup(directory.getPath(), "404");
+        Assert.assertEquals("cc", new String((byte[])entry[6]));
+        Assert.assertEquals("a", new String((byte[])status.lookup(directory.getPath(), "500")[6]));
+    }
+}
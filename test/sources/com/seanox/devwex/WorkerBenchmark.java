@@ -172,6 +172,52 @@ public class WorkerBenchmark extends AbstractStageRequestTest {
         }
     } 
     
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code ENGINE = VIRTUAL} 
+     * Measures the execution time of 1000 (40 x 25) request.
+     * With virtual threads, the server does not have to increase the number
+     * of threads first, so the first load test should be as fast as the
+     * second load test with the pool. Without support of virtual threads
+     * (before Java 21), the server uses the pool.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_4()
+            throws Exception {
+        
+        Service.restart();
+        Thread.sleep(3000);
+        WorkerBenchmark.waitRuntimeReady();
+        
+        final Executor executor = Executor.create(40, VirtualTestWorker.class);
+        WorkerBenchmark.waitRuntimeReady();
+        executor.execute();
+        final boolean success = executor.await(7500);
+        final String failedTestWorkerInfo = WorkerBenchmark.createFailedTestWorkerInfo(executor);
+        Assert.assertTrue(failedTestWorkerInfo, success);
+        Assert.assertFalse(failedTestWorkerInfo, executor.isFailed());
+        Assert.assertFalse(failedTestWorkerInfo, executor.isInterrupted());
+        
+        for (final Worker worker : executor.getWorkers()) {
+            Assert.assertTrue(worker.isExecuted());
+            Assert.assertTrue(worker.isTerminated());
+            Assert.assertFalse(worker.isFailed());
+            Assert.assertFalse(worker.isInterrupted());
+            final TestWorker testWorker = (TestWorker)worker;
+            Assert.assertTrue(testWorker.success);
+            for (final TestWorker.Response response : testWorker.responseList) {
+                Assert.assertNull(response.exception);
+                Assert.assertNotNull(response.data);
+                final String responseString = new String(response.data);
+                Assert.assertTrue(responseString.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+                Assert.assertTrue(responseString.matches(Pattern.HTTP_RESPONSE_CONTENT_TYPE_IMAGE_JPEG));
+                Assert.assertTrue(responseString.matches(Pattern.HTTP_RESPONSE_CONTENT_LENGTH));
+                Assert.assertTrue(responseString.matches(Pattern.HTTP_RESPONSE_LAST_MODIFIED));                    
+            }
+        }
+    }
+    
     private static void waitRuntimeReady()
             throws Exception {
         String compare = null;
@@ -239,10 +285,18 @@ public class WorkerBenchmark extends AbstractStageRequestTest {
                 this.requestList.add("GET /benchmark/" + file.getName() + " HTTP/1.0\r\n\r\n");
         }
         
+        /**
+         * Returns the address of the server to be used.
+         * @return the address of the server
+         */
+        protected String getAddress() {
+            return "127.0.0.1:18080";
+        }
+        
         @Override
         protected void execute() {
             for (final String request : this.requestList)
-                this.responseList.add(Response.create("127.0.0.1:18080", request));
+                this.responseList.add(Response.create(this.getAddress(), request));
             this.success = true;
         }
         
@@ -302,4 +356,16 @@ public class WorkerBenchmark extends AbstractStageRequestTest {
             }
         }
     }
+    
+    /**
+     * Internal class for a worker.
+     * Like {@link TestWorker}, but uses the server with virtual threads.
+     */
+    public static class VirtualTestWorker extends TestWorker {
+        
+        @Override
+        protected String getAddress() {
+            return "127.0.0.1:18196";
+        }
+    }
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.seanox.test.Codec;
+import com.seanox.test.HttpUtils;
+import com.seanox.test.HttpUtils.HeaderField;
 import com.seanox.test.Pattern;
 
 /** Test cases for {@link com.seanox.devwex.Worker}. */
@@ -628,4 +630,49 @@ public class WorkerDeleteTest extends AbstractStageRequestTest {
         
         Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_404));        
     }
-}
\ No newline at end of file
+
+    /** 
+     * Test case for acceptance.
+     * With If-Match, the file is only deleted if the ETag matches, otherwise
+     * status 412 is responded.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_18()
+            throws Exception {
+        
+        String request;
+        String response;
+        
+        request = "Put /delete_test_18.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Content-Length: 10\r\n"
+                + "\r\n"
+                + "1234567890";
+        AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        final File target = new File(AbstractStage.getRootStage(), "documents_vh_A/delete_test_18.txt");
+        Assert.assertTrue(target.exists());
+
+        request = "Delete /delete_test_18.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-Match: \"x\"\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_412));
+        Assert.assertTrue(target.exists());
+
+        request = "Get /delete_test_18.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+
+        request = "Delete /delete_test_18.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertFalse(target.exists());
+    }
+}
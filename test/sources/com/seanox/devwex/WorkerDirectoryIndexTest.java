@@ -202,5 +202,99 @@ public class WorkerDirectoryIndexTest extends AbstractStageRequestTest {
                 Assert.assertTrue(response.contains("mime"));
             }
         }
-    }    
-}
\ No newline at end of file
+    }
+    
+    /** 
+     * Creates the directory {@code documents/paging} with the files
+     * {@code a.txt} to {@code e.txt}.
+     * @throws IOException
+     */
+    private static void createPagingDirectory()
+            throws IOException {
+        final File directory = new File(AbstractStage.getRootStage(), "documents/paging");
+        directory.mkdirs();
+        for (final String name : new String[] {"a", "b", "c", "d", "e"})
+            Files.write(new File(directory, name + ".txt").toPath(), name.getBytes());
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code [SERVER:INI] INDEXLIMIT = 2}
+     * The index is sent page by page without Content-Length, the first page
+     * contains the first entries and the link to the next page.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_06()
+            throws Exception {
+
+        WorkerDirectoryIndexTest.createPagingDirectory();
+        final String request = "GET /paging/ HTTP/1.0\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18197", request);
+        final String header = response.replaceAll(Pattern.HTTP_RESPONSE, "$1");
+        final String body = response.replaceAll(Pattern.HTTP_RESPONSE, "$2");
+        Assert.assertTrue(header.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertTrue(header.matches(Pattern.HTTP_RESPONSE_CONTENT_TYPE));
+        Assert.assertFalse(header.matches(Pattern.HTTP_RESPONSE_CONTENT_LENGTH));
+        Assert.assertTrue(body.contains("order by: na"));
+        Assert.assertTrue(body.contains("name:a.txt"));
+        Assert.assertTrue(body.contains("name:b.txt"));
+        Assert.assertFalse(body.contains("name:c.txt"));
+        Assert.assertTrue(body.contains("pages: 1-2/5 next:?n&offset=2&limit=2"));
+        Assert.assertFalse(body.contains("previous:"));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code [SERVER:INI] INDEXLIMIT = 2}
+     * Pages are requested with offset and limit after the sorting, the limit
+     * is restricted by INDEXLIMIT.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_07()
+            throws Exception {
+
+        WorkerDirectoryIndexTest.createPagingDirectory();
+        String request = "GET /paging/?N&offset=2&limit=10 HTTP/1.0\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18197", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertTrue(response.contains("order by: nd"));
+        Assert.assertTrue(response.indexOf("name:c.txt") < response.indexOf("name:b.txt"));
+        Assert.assertFalse(response.contains("name:a.txt"));
+        Assert.assertFalse(response.contains("name:d.txt"));
+        Assert.assertTrue(response.contains("pages: 3-4/5 previous:?N&offset=0&limit=2 next:?N&offset=4&limit=2"));
+
+        request = "GET /paging/?n&offset=4 HTTP/1.0\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18197", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertTrue(response.contains("name:e.txt"));
+        Assert.assertFalse(response.contains("name:d.txt"));
+        Assert.assertTrue(response.contains("pages: 5-5/5 previous:?n&offset=2&limit=2"));
+        Assert.assertFalse(response.contains("next:"));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Configuration: {@code [SERVER:INI] INDEXLIMIT = 2}
+     * The offset is restricted to the maximum page depth, a page behind the
+     * entries is empty.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_08()
+            throws Exception {
+
+        WorkerDirectoryIndexTest.createPagingDirectory();
+        final String request = "GET /paging/?n&offset=2000000000 HTTP/1.0\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18197", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertFalse(response.contains("name:"));
+        Assert.assertTrue(response.contains("previous:?n&offset=65532&limit=2"));
+        Assert.assertFalse(response.contains("next:"));
+    }
+}
@@ -17,6 +17,9 @@
 package com.seanox.devwex;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
 import java.util.StringTokenizer;
 
 import org.junit.Assert;
@@ -1022,4 +1025,584 @@ public class WorkerGetTest extends AbstractStageRequestTest {
             }            
         }
     }
-}
\ No newline at end of file
+
+    private static File createPrecompressed(final String name, final long offset)
+            throws Exception {
+        final File file = new File(AbstractStage.getRootStage(), "documents_vh_A/precompressed/" + name);
+        for (final String variant : new String[] {".br", ".gz"}) {
+            final File target = new File(file.getPath() + variant);
+            if (target.exists())
+                target.setLastModified(file.lastModified() +offset);
+        }
+        return file;
+    }
+
+    /** 
+     * Test case for acceptance.
+     * If the client accepts the encoding, the precompressed variant must be
+     * responded with Content-Encoding, Vary and the media type of the file,
+     * Brotli is preferred.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_28()
+            throws Exception {
+
+        final File file = WorkerGetTest.createPrecompressed("text.txt", 0);
+        for (final String encoding : new String[] {"gzip", "br", "gzip, deflate, br", "br;q=0, gzip;q=0.5", "*"}) {
+            final String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "Accept-Encoding: " + encoding + "\r\n"
+                    + "\r\n";
+            final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            final String variant = encoding.equals("gzip") || encoding.startsWith("br;q=0") ? "gzip" : "br";
+            final File source = new File(file.getPath() + (variant.equals("gzip") ? ".gz" : ".br"));
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+            Assert.assertEquals(variant, HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+            Assert.assertEquals("Accept-Encoding", HttpUtils.getResponseHeaderValue(response, HeaderField.VARY));
+            Assert.assertEquals("text/plain", HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_TYPE));
+            Assert.assertEquals(String.valueOf(source.length()), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        }
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Without acceptance of the encoding, the file itself must be responded,
+     * but with Vary, because precompressed variants exist.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_29()
+            throws Exception {
+
+        final File file = WorkerGetTest.createPrecompressed("text.txt", 0);
+        for (final String encoding : new String[] {null, "identity", "br;q=0, gzip;q=0", "*;q=0", "deflate"}) {
+            String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n";
+            if (encoding != null)
+                request += "Accept-Encoding: " + encoding + "\r\n";
+            final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request + "\r\n");
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+            Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+            Assert.assertEquals("Accept-Encoding", HttpUtils.getResponseHeaderValue(response, HeaderField.VARY));
+            Assert.assertEquals(String.valueOf(file.length()), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        }
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Precompressed variants that are older than the file must be ignored.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_30()
+            throws Exception {
+
+        final File file = WorkerGetTest.createPrecompressed("older.txt", -60000);
+        final String request = "GET /precompressed/older.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.VARY));
+        Assert.assertEquals(String.valueOf(file.length()), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Partial data ranges refer to the precompressed variant.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_31()
+            throws Exception {
+
+        final File file = WorkerGetTest.createPrecompressed("text.txt", 0);
+        final File source = new File(file.getPath() + ".gz");
+        final String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "Range: bytes=0-9\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_206));
+        Assert.assertEquals("gzip", HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+        Assert.assertEquals("10", HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        Assert.assertEquals("bytes 0-9/" + source.length(), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_RANGE));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Files are responded with a strong ETag. With a matching If-None-Match
+     * the request is responded with status 304 and the ETag, also with weak
+     * comparison and wildcard, If-Modified-Since is then ignored.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_32()
+            throws Exception {
+
+        String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+        Assert.assertNotNull(tag);
+        Assert.assertTrue(tag.matches("^\"[0-9a-f-]+\"$"));
+        
+        for (final String match : new String[] {tag, "W/" + tag, "\"x\", " + tag, "*"}) {
+            request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "If-None-Match: " + match + "\r\n"
+                    + "If-Modified-Since: Sat, 01 Jan 2000 00:00:00 GMT\r\n"
+                    + "\r\n";
+            response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_304));
+            Assert.assertEquals(tag, HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG));
+        }
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-None-Match: \"x\"\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * With If-Match the request is only responded if the ETag matches with
+     * strong comparison, otherwise with status 412.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_33()
+            throws Exception {
+
+        String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+
+        for (final String match : new String[] {tag, "\"x\", " + tag, "*"}) {
+            request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "If-Match: " + match + "\r\n"
+                    + "\r\n";
+            response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        }
+
+        for (final String match : new String[] {"\"x\"", "W/" + tag}) {
+            request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "If-Match: " + match + "\r\n"
+                    + "\r\n";
+            response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_412));
+        }
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Precompressed variants are different representations and get the ETag
+     * of the variant.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_34()
+            throws Exception {
+
+        WorkerGetTest.createPrecompressed("text.txt", 0);
+        String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        final String variant = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+        Assert.assertNotNull(variant);
+        Assert.assertNotEquals(tag, variant);
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "If-None-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+    }
+
+    private static void assertMultipart(final String response, final byte[] content, final long[][] ranges) {
+
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_206));
+        final String header = response.substring(0, response.indexOf("\r\n\r\n") +4);
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(header, HeaderField.CONTENT_RANGE));
+        final String type = HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_TYPE);
+        Assert.assertTrue(type.startsWith("multipart/byteranges; boundary="));
+        final String boundary = type.substring(type.indexOf('=') +1);
+        final String body = response.substring(response.indexOf("\r\n\r\n") +4);
+        Assert.assertEquals(String.valueOf(body.length()), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        String expected = "";
+        for (final long[] range : ranges)
+            expected += "\r\n--" + boundary + "\r\n"
+                    + "Content-Type: text/plain\r\n"
+                    + "Content-Range: bytes " + range[0] + "-" + range[1] + "/" + content.length + "\r\n\r\n"
+                    + new String(content, (int)range[0], (int)(range[1] -range[0] +1));
+        expected += "\r\n--" + boundary + "--\r\n";
+        Assert.assertEquals(expected, body);
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Several partial data ranges are responded as multipart/byteranges with
+     * status 206, each part with Content-Type and Content-Range. The sorted
+     * parts are responded with an exact Content-Length.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_35()
+            throws Exception {
+
+        final File file = new File(AbstractStage.getRootStage(), "documents_vh_A/precompressed/text.txt");
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Range: bytes=100-149, 0-9, -10\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        WorkerGetTest.assertMultipart(response, content, new long[][] {{0, 9}, {100, 149}, {content.length -10, content.length -1}});
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Overlapping and adjacent partial data ranges are combined, ranges
+     * beyond the file are ignored. If only one range remains, it is responded
+     * as a single range.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_36()
+            throws Exception {
+
+        final File file = new File(AbstractStage.getRootStage(), "documents_vh_A/precompressed/text.txt");
+        String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Range: bytes=0-9, 5-19, 20-29, 100000-\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_206));
+        Assert.assertEquals("30", HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        Assert.assertEquals("bytes 0-29/" + file.length(), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_RANGE));
+        Assert.assertEquals("text/plain", HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_TYPE));
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Range: bytes=100000-, 200000-300000\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_416));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * If more partial data ranges than MAXRANGES (16) remain after combining,
+     * or if a range is invalid, the header Range is ignored and the complete
+     * file is responded.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_37()
+            throws Exception {
+
+        final File file = new File(AbstractStage.getRootStage(), "documents_vh_A/precompressed/text.txt");
+        String range = "";
+        for (int loop = 0; loop < 17; loop++)
+            range += (loop > 0 ? ", " : "") + (loop *10) + "-" + (loop *10 +4);
+        for (final String entry : new String[] {range, "0-9, 20-A", "0-9, 30-20"}) {
+            final String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "Range: bytes=" + entry + "\r\n"
+                    + "\r\n";
+            final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+            Assert.assertEquals(String.valueOf(file.length()), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        }
+
+        range = "";
+        for (int loop = 0; loop < 16; loop++)
+            range += (loop > 0 ? ", " : "") + (loop *10) + "-" + (loop *10 +4);
+        final String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "Range: bytes=" + range + ", 3-7\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_206));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * With ENGINE = NIO and the file cache, the parts of multipart/byteranges
+     * are transferred from the cache.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_38()
+            throws Exception {
+
+        final File file = new File(AbstractStage.getRootStage(), "documents/compression/text.txt");
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final String request = "GET /compression/text.txt HTTP/1.0\r\n"
+                + "Accept-Encoding: gzip\r\n"
+                + "Range: bytes=4000-, 10-19\r\n"
+                + "\r\n";
+        final String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_ENCODING));
+        WorkerGetTest.assertMultipart(response, content, new long[][] {{10, 19}, {4000, content.length -1}});
+    }
+
+    private static long expires(final String response)
+            throws Exception {
+        final String expires = HttpUtils.getResponseHeaderValue(response, HeaderField.EXPIRES);
+        Assert.assertNotNull(expires);
+        final long time = new SimpleDateFormat("E, dd MMM yyyy HH:mm:ss z", Locale.US).parse(expires).getTime();
+        return (time -System.currentTimeMillis()) /1000;
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Files below a path prefix of the caching rules get Cache-Control and
+     * Expires derived from max-age. Longer path prefixes take precedence,
+     * with no-store the content expires immediately.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_39()
+            throws Exception {
+
+        for (final String path : new String[] {"/caching/a.txt", "/caching/sub/b.txt"}) {
+            final String request = "GET " + path + " HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "\r\n";
+            final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+            Assert.assertEquals("public, max-age=3600, immutable", HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+            final long expires = WorkerGetTest.expires(response);
+            Assert.assertTrue(expires > 3500 && expires <= 3600);
+        }
+
+        final String request = "GET /caching/nocache/c.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertEquals("no-store", HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+        final long expires = WorkerGetTest.expires(response);
+        Assert.assertTrue(expires > -100 && expires <= 0);
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Directory listings and responses with status 304 also get the caching
+     * headers of the path.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_40()
+            throws Exception {
+
+        String request = "GET /caching/ HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertEquals("public, max-age=3600, immutable", HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+
+        request = "GET /caching/a.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+        request = "GET /caching/a.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-None-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_304));
+        Assert.assertEquals("public, max-age=3600, immutable", HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+        Assert.assertNotNull(HttpUtils.getResponseHeaderValue(response, HeaderField.EXPIRES));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Without a path prefix the media type determines the caching headers,
+     * the rules of the server apply to the virtual host, too. Without max-age
+     * there is no Expires, without a rule there are no caching headers.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_41()
+            throws Exception {
+
+        String request = "GET /mimetype_test.xls HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertEquals("private, max-age=60", HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+        final long expires = WorkerGetTest.expires(response);
+        Assert.assertTrue(expires > 0 && expires <= 60);
+
+        request = "GET /mimetype_test.jpg HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertEquals("public", HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.EXPIRES));
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.CACHE_CONTROL));
+        Assert.assertNull(HttpUtils.getResponseHeaderValue(response, HeaderField.EXPIRES));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Directory listings are responded with an entity tag, unchanged listings
+     * with If-None-Match are responded with status 304. Listings of another
+     * sorting get another tag.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_42()
+            throws Exception {
+
+        String request = "GET /compression/ HTTP/1.0\r\n"
+                + "\r\n";
+        String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+        Assert.assertNotNull(tag);
+        final String body = response.substring(response.indexOf("\r\n\r\n"));
+        Assert.assertTrue(body.contains("small.txt"));
+
+        response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertEquals(tag, HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG));
+        Assert.assertEquals(body, response.substring(response.indexOf("\r\n\r\n")));
+
+        request = "GET /compression/ HTTP/1.0\r\n"
+                + "If-None-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_304));
+        Assert.assertEquals(tag, HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG));
+
+        request = "GET /compression/?N HTTP/1.0\r\n"
+                + "If-None-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertNotEquals(tag, HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * Held directory listings are renewed when the directory is changed.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_43()
+            throws Exception {
+
+        final File directory = new File(AbstractStage.getRootStage(), "documents/listing");
+        directory.mkdirs();
+        for (final File file : directory.listFiles())
+            file.delete();
+        Files.write(new File(directory, "a.txt").toPath(), "A".getBytes());
+
+        final String request = "GET /listing/ HTTP/1.0\r\n"
+                + "\r\n";
+        String response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertTrue(response.contains("a.txt"));
+        Assert.assertFalse(response.contains("b.txt"));
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+
+        Files.write(new File(directory, "b.txt").toPath(), "B".getBytes());
+        for (int loop = 0; loop < 50 && !response.contains("b.txt"); loop++) {
+            Thread.sleep(100);
+            response = new String(HttpUtils.sendRequest("127.0.0.1:18189", request));
+        }
+        Assert.assertTrue(response.contains("b.txt"));
+        Assert.assertNotEquals(tag, HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * If-Match is verified before If-None-Match, a request with an invalid
+     * If-Match and a matching If-None-Match is responded with status 412.
+     * @throws Exception
+     */  
+    @Test
+    public void testAcceptance_44()
+            throws Exception {
+
+        WorkerGetTest.createPrecompressed("text.txt", 0);
+        String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-Match: \"x\"\r\n"
+                + "If-None-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_412));
+
+        request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-Match: " + tag + "\r\n"
+                + "If-None-Match: " + tag + "\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_304));
+    }
+
+    /** 
+     * Test case for acceptance.
+     * A range with a long run of digits that does not match is ignored
+     * without delay and the complete file is responded.
+     * @throws Exception
+     */  
+    @Test(timeout=10000)
+    public void testAcceptance_45()
+            throws Exception {
+
+        final File file = new File(AbstractStage.getRootStage(), "documents_vh_A/precompressed/text.txt");
+        String digits = "";
+        while (digits.length() < 64)
+            digits += "0123456789";
+        for (final String entry : new String[] {digits + "x", digits + "-" + digits + "x", "0-9, " + digits + "x"}) {
+            final String request = "GET /precompressed/text.txt HTTP/1.0\r\n"
+                    + "Host: vHa\r\n"
+                    + "Range: bytes=" + entry + "\r\n"
+                    + "\r\n";
+            final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18180", request);
+            Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+            Assert.assertEquals(String.valueOf(file.length()), HttpUtils.getResponseHeaderValue(response, HeaderField.CONTENT_LENGTH));
+        }
+    }
+}
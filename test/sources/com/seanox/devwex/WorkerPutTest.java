@@ -24,6 +24,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.seanox.test.Codec;
+import com.seanox.test.HttpUtils;
+import com.seanox.test.HttpUtils.HeaderField;
 import com.seanox.test.MockUtils;
 import com.seanox.test.Pattern;
 import com.seanox.test.StreamUtils;
@@ -776,6 +778,67 @@ public class WorkerPutTest extends AbstractStageRequestTest {
         }
     }     
 
+    /** 
+     * Test case for acceptance.
+     * With If-Match or If-None-Match, the file is only overwritten if the
+     * ETag of the existing file matches, otherwise status 412 is responded.
+     * @throws Exception
+     */
+    @Test
+    public void testAcceptance_26()
+            throws Exception {
+        
+        String request;
+        String response;
+        
+        request = "Put /put_test_1/test_file.26 HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-None-Match: *\r\n"
+                + "Content-Length: 10\r\n"
+                + "\r\n"
+                + "1234567890";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_201));
+
+        request = "Put /put_test_1/test_file.26 HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-None-Match: *\r\n"
+                + "Content-Length: 5\r\n"
+                + "\r\n"
+                + "12345";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_412));
+
+        request = "Put /put_test_1/test_file.26 HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-Match: \"x\"\r\n"
+                + "Content-Length: 5\r\n"
+                + "\r\n"
+                + "12345";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_412));
+
+        final File file = new File(AbstractStage.getRootStage(), "documents_vh_A/put_test_1/test_file.26");
+        Assert.assertEquals(10, file.length());
+
+        request = "Get /put_test_1/test_file.26 HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "\r\n";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        final String tag = HttpUtils.getResponseHeaderValue(response, HeaderField.ETAG);
+
+        request = "Put /put_test_1/test_file.26 HTTP/1.0\r\n"
+                + "Host: vHa\r\n"
+                + "If-Match: " + tag + "\r\n"
+                + "Content-Length: 5\r\n"
+                + "\r\n"
+                + "12345";
+        response = AbstractStageRequestTest.sendRequest("127.0.0.1:18185", request);
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_201));
+        Assert.assertEquals(5, file.length());
+        file.delete();
+    }
+
     /** 
      * Test case for acceptance.
      * PUT-requests without a Content-Length creates a file.
@@ -400,5 +400,122 @@ public class WorkerRequestTest extends AbstractStageRequestTest {
             Assert.assertTrue(String.valueOf(socketOpened), socketOpened >= 50);
             Assert.assertTrue(String.valueOf(socketClosed), socketClosed >= 25);
         }
-    }     
-}
\ No newline at end of file
+    }
+
+    /** 
+     * Test case for persistent connections.
+     * HTTP/1.1 requests are pipelined on one connection. Both requests must be
+     * responded with HTTP/1.1 and the last response must announce the end of
+     * the connection.
+     * @throws Exception
+     */
+    @Test
+    public void testKeepAlive_1()
+            throws Exception {
+
+        final String request = "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18080", request);
+
+        Assert.assertEquals(2, response.split("HTTP/1\\.1 200", -1).length -1);
+        Assert.assertEquals(1, response.split("\r\nConnection: close\r\n", -1).length -1);
+        Assert.assertTrue(response.matches("(?s)^.*\r\nConnection: close\r\n(?:(?!HTTP/1\\.1 ).)*$"));
+    }
+
+    /** 
+     * Test case for persistent connections.
+     * HTTP/1.0 requests without CONNECTION: KEEP-ALIVE end the connection
+     * after the first response, the second request is ignored.
+     * @throws Exception
+     */
+    @Test
+    public void testKeepAlive_2()
+            throws Exception {
+
+        final String request = "GET / HTTP/1.0\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.0\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18080", request);
+
+        Assert.assertTrue(response.matches(Pattern.HTTP_RESPONSE_STATUS_200));
+        Assert.assertEquals(1, response.split("HTTP/1\\.0 200", -1).length -1);
+        Assert.assertFalse(response.contains("\r\nConnection:"));
+    }
+
+    /** 
+     * Test case for persistent connections.
+     * HTTP/1.0 requests with CONNECTION: KEEP-ALIVE continue the connection,
+     * which must be confirmed in the response.
+     * @throws Exception
+     */
+    @Test
+    public void testKeepAlive_3()
+            throws Exception {
+
+        final String request = "GET / HTTP/1.0\r\n"
+                + "Connection: keep-alive\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.0\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18080", request);
+
+        Assert.assertEquals(2, response.split("HTTP/1\\.0 200", -1).length -1);
+        Assert.assertEquals(1, response.split("\r\nConnection: keep-alive\r\n", -1).length -1);
+        Assert.assertEquals(1, response.split("\r\nKeep-Alive: timeout=5, max=1\r\n", -1).length -1);
+    }
+
+    /** 
+     * Test case for persistent connections.
+     * The number of requests per connection is limited to 2 with MAXREQUESTS.
+     * The third pipelined request must be ignored.
+     * @throws Exception
+     */
+    @Test
+    public void testKeepAlive_4()
+            throws Exception {
+
+        final String request = "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "\r\n"
+                + "GET / HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18080", request);
+
+        Assert.assertEquals(2, response.split("HTTP/1\\.1 200", -1).length -1);
+        Assert.assertEquals(1, response.split("\r\nConnection: close\r\n", -1).length -1);
+    }
+
+    /** 
+     * Test case for persistent connections.
+     * Invalid values of KEEPALIVE and MAXREQUESTS of a virtual host are
+     * ignored, then the values of the server apply, VHC configures both
+     * invalid.
+     * @throws Exception
+     */
+    @Test
+    public void testKeepAlive_5()
+            throws Exception {
+
+        final String request = "GET /documents/compression/small.txt HTTP/1.0\r\n"
+                + "Host: vHc\r\n"
+                + "Connection: keep-alive\r\n"
+                + "\r\n"
+                + "GET /documents/compression/small.txt HTTP/1.0\r\n"
+                + "Host: vHc\r\n"
+                + "\r\n";
+        final String response = AbstractStageRequestTest.sendRequest("127.0.0.1:18080", request);
+
+        Assert.assertEquals(2, response.split("HTTP/1\\.0 200", -1).length -1);
+        Assert.assertEquals(1, response.split("\r\nKeep-Alive: timeout=5, max=1\r\n", -1).length -1);
+    }
+}
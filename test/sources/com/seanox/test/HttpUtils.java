@@ -56,6 +56,24 @@ public class HttpUtils {
         /** constant for Content-Type */
         public static final String CONTENT_TYPE = "Content-Type";
 
+        /** constant for Content-Encoding */
+        public static final String CONTENT_ENCODING = "Content-Encoding";
+
+        /** constant for Content-Range */
+        public static final String CONTENT_RANGE = "Content-Range";
+
+        /** constant for Cache-Control */
+        public static final String CACHE_CONTROL = "Cache-Control";
+
+        /** constant for Expires */
+        public static final String EXPIRES = "Expires";
+
+        /** constant for ETag */
+        public static final String ETAG = "ETag";
+
+        /** constant for Vary */
+        public static final String VARY = "Vary";
+
         /** constant for WWW-Authenticate */
         public static final String WWW_AUTHENTICATE = "WWW-Authenticate";
     }
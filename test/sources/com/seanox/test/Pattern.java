@@ -309,6 +309,9 @@ public class Pattern {
     /** Pattern for a http response header with status 411 */    
     public static final String HTTP_RESPONSE_STATUS_411 = HTTP_RESPONSE_STATUS("411");
     
+    /** Pattern for a http response header with status 412 */
+    public static final String HTTP_RESPONSE_STATUS_412 = HTTP_RESPONSE_STATUS("412");
+
     /** Pattern for a http response header with status 413 */
     public static final String HTTP_RESPONSE_STATUS_413 = HTTP_RESPONSE_STATUS("413");
     